@@ -6,7 +6,9 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GLContext;
 
 import apie.gamestate.GameStateManager;
+import apie.gfx.backend.Backend;
 import apie.input.InputManager;
+import apie.util.FramePacer;
 import apie.util.Time;
 
 import static org.lwjgl.glfw.Callbacks.*;
@@ -17,7 +19,11 @@ import java.nio.ByteBuffer;
 
 public class Game {
 	
-	//v-sync?
+	/**
+	 * 
+	 * @deprecated use {@link FramePacer#setMode(FramePacer.Mode)}, which can be changed at runtime
+	 */
+	@Deprecated
 	public static final boolean VSYNC = false;
 	
 	//Decorated?
@@ -105,8 +111,8 @@ public class Game {
 		//Make the OpenGL context current for this window
 		glfwMakeContextCurrent(window);
 		
-		//Enables vsync depending on VSYNC boolean
-		glfwSwapInterval(VSYNC ? 1 : 0);
+		//Sets the swap interval of the current pacing mode
+		FramePacer.sync();
 		
 		//Displays window
 		glfwShowWindow(window);
@@ -125,23 +131,27 @@ public class Game {
 		GLContext.createFromCurrent();
 		
 		//Prints the OpenGL version
-		System.out.println("OpenGL " + GL11.glGetString(GL11.GL_VERSION));
+		System.out.println("OpenGL " + Backend.get().getString(GL11.GL_VERSION));
 		
 		//Sets the default clear color
-		GL11.glClearColor(0, 0, 0, 1);
+		Backend.get().clearColor(0, 0, 0, 1);
 		
-		GL11.glEnable(GL11.GL_BLEND);
-		GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+		Backend.get().enable(GL11.GL_BLEND);
+		Backend.get().blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 		
 		GameStateManager.init(this, window);
 		GameStateManager.enterState("Main");
 		
 		
+		//Loading time is not part of the pacing statistics
+		FramePacer.resetStatistics();
+		
 		//The main loop
 		running = true;
 		while(glfwWindowShouldClose(window) == GL11.GL_FALSE && running) {
 			Time.update();
 			GameStateManager.update(Time.getDelta());
+			FramePacer.sync();
 		}
 		
 		InputManager.saveInputs();
@@ -8,10 +8,13 @@ import apie.entity.Entity;
 import apie.entity.EntityManager;
 import apie.gamestate.GameState;
 import apie.gamestate.GameStateManager;
+import apie.gfx.DynamicResolution;
 import apie.gfx.Mesh;
 import apie.gfx.QuadRenderer;
+import apie.gfx.RenderQueue;
 import apie.gfx.Renderer;
 import apie.gfx.VertexTex;
+import apie.gfx.backend.Backend;
 import apie.gfx.font.FontRenderer;
 import apie.gfx.font.FontType;
 import apie.gfx.gui.Button;
@@ -45,6 +48,8 @@ public class Main {
 			Level level;
 			PhysicsEngine pe = new PhysicsEngine();
 			EntityManager em = new EntityManager();
+			RenderQueue queue = new RenderQueue();
+			DynamicResolution resolution;
 			
 			
 			
@@ -54,6 +59,8 @@ public class Main {
 				OrthographicShaderProgram.initProjection(0, 1280, 0, 720);
 				OrthographicShaderProgram.INSTANCE.sendMatrix("m_projection", OrthographicShaderProgram.getProjection());
 				
+				resolution = new DynamicResolution(game.getWindowWidth(), game.getWindowHeight());
+				
 //				level = new Level("res/level/test.level");
 				
 				
@@ -99,10 +106,12 @@ public class Main {
 			
 			@Override
 			public void draw() {
-				GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
-//				level.draw();
-				em.draw();
+				resolution.begin(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+//				level.draw(queue);
+				em.draw(queue);
+				queue.flush();
 				pe._debugDraw();
+				resolution.end();
 			}
 
 			@Override
@@ -0,0 +1,84 @@
+package apie.debug;
+
+/**
+ * 
+ * A minimal harness for timing code from a main method. Each measurement runs the task untimed for a number of
+ * warmup rounds so the JIT compiler has optimized it, then reports the average time of the timed rounds.
+ * <p>
+ * Results written to {@link #consume(float)} are kept alive so the compiler cannot remove the work being measured.
+ * 
+ * @author SK
+ * 
+ */
+public final class Benchmark {
+	
+	public static final int DEFAULT_WARMUP = 200;
+	public static final int DEFAULT_ROUNDS = 500;
+	
+	private static volatile float sink;
+	
+	/**
+	 * 
+	 * Times a task with the default number of warmup and timed rounds.
+	 * 
+	 * @param name - the name to print the result with
+	 * @param task - the task to time
+	 * @return the average time of one round in nanoseconds
+	 */
+	public static final double measure(String name, Runnable task) {
+		return measure(name, task, DEFAULT_WARMUP, DEFAULT_ROUNDS);
+	}
+	
+	/**
+	 * 
+	 * Times a task and prints the average time of one round.
+	 * 
+	 * @param name - the name to print the result with
+	 * @param task - the task to time
+	 * @param warmup - the number of untimed rounds to run first
+	 * @param rounds - the number of timed rounds
+	 * @return the average time of one round in nanoseconds
+	 */
+	public static final double measure(String name, Runnable task, int warmup, int rounds) {
+		for(int i = 0; i < warmup; i++)
+			task.run();
+		
+		long start = System.nanoTime();
+		for(int i = 0; i < rounds; i++)
+			task.run();
+		double time = (double)(System.nanoTime() - start) / rounds;
+		
+		System.out.printf("%-40s %12.1f us%n", name, time / 1000);
+		
+		return time;
+	}
+	
+	/**
+	 * 
+	 * Times a baseline and a candidate task and prints how many times faster the candidate is.
+	 * 
+	 * @param name - the name to print the results with
+	 * @param baseline - the task to compare against
+	 * @param candidate - the task being evaluated
+	 * @return the speed-up of the candidate over the baseline
+	 */
+	public static final double compare(String name, Runnable baseline, Runnable candidate) {
+		double b = measure(name + " (baseline)", baseline);
+		double c = measure(name + " (candidate)", candidate);
+		
+		double speedup = b / c;
+		System.out.printf("%-40s %12.2fx%n", name + " speed-up", speedup);
+		
+		return speedup;
+	}
+	
+	/**
+	 * 
+	 * Keeps a result alive so the work producing it is not optimized away.
+	 * 
+	 * @param f - the result to keep
+	 */
+	public static final void consume(float f) {
+		sink += f;
+	}
+}
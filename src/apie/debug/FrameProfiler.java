@@ -0,0 +1,473 @@
+package apie.debug;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL33;
+
+import apie.gfx.backend.Backend;
+
+/**
+ * 
+ * Measures named passes of each frame on both the CPU and the GPU.
+ * <p>
+ * CPU time is the time spent between {@link #begin(String)} and {@link #end(String)} on the calling thread,
+ * which for render passes is the time spent submitting work to the driver.
+ * GPU time is measured with a pair of GL 3.3 timestamp queries ({@code glQueryCounter} with {@code GL_TIMESTAMP})
+ * around the same pass. Timestamps are used instead of {@code GL_TIME_ELAPSED} since elapsed-time queries may not be nested.
+ * <p>
+ * The queries of each pass live in a ring several frames deep, so results are only read back once the GPU has caught up
+ * and the profiler never stalls the pipeline. If a result is still pending when its ring slot comes around again,
+ * the sample is dropped instead of waiting for it.
+ * <p>
+ * Each pass should be measured at most once per frame and {@link #endFrame()} must be called once per frame,
+ * which the GameStateManager does when the profiler is enabled.
+ * 
+ * @author SK
+ * 
+ */
+public final class FrameProfiler {
+	
+	public static final int DEFAULT_LATENCY = 4;
+	
+	private static boolean enabled = false;
+	
+	//How many frames of queries are kept in flight
+	private static int latency = DEFAULT_LATENCY;
+	
+	//The number of the current frame
+	private static long frame;
+	
+	private static final HashMap<String, Pass> passes = new HashMap<>();
+	private static final ArrayList<Pass> passOrder = new ArrayList<>();
+	
+	//Samples collected for offline analysis
+	private static boolean recording = false;
+	private static final ArrayList<Sample> samples = new ArrayList<>();
+	
+	private static int droppedSamples;
+	
+	//Smoothing factor of the moving averages
+	private static final float SMOOTHING = 0.1f;
+	
+	/**
+	 * 
+	 * Enables or disables the profiler. Disabling releases all query objects.
+	 * 
+	 * @param enabled - true to enable the profiler
+	 */
+	public static final void setEnabled(boolean enabled) {
+		if(FrameProfiler.enabled == enabled)
+			return;
+		
+		FrameProfiler.enabled = enabled;
+		
+		if(!enabled) {
+			for(Pass p : passOrder)
+				p.destroy();
+			passes.clear();
+			passOrder.clear();
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns whether or not the profiler is enabled.
+	 * 
+	 * @return true if the profiler is enabled
+	 */
+	public static final boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * 
+	 * Sets how many frames of GPU queries are kept in flight before their results are expected.
+	 * Must be called while the profiler is disabled.
+	 * 
+	 * @param latency - the depth of the query ring, at least 2
+	 * @throws IllegalStateException if the profiler is enabled
+	 */
+	public static final void setLatency(int latency) {
+		if(enabled)
+			throw new IllegalStateException("Cannot change the query latency while the profiler is enabled");
+		if(latency < 2)
+			throw new IllegalArgumentException("Query latency must be at least 2 frames");
+		
+		FrameProfiler.latency = latency;
+	}
+	
+	/**
+	 * 
+	 * Marks the beginning of the specified pass.
+	 * 
+	 * @param name - the name of the pass
+	 */
+	public static final void begin(String name) {
+		if(!enabled)
+			return;
+		
+		Pass p = passes.get(name);
+		if(p == null) {
+			p = new Pass(name, latency);
+			passes.put(name, p);
+			passOrder.add(p);
+		}
+		
+		p.begin(frame);
+	}
+	
+	/**
+	 * 
+	 * Marks the end of the specified pass.
+	 * 
+	 * @param name - the name of the pass
+	 */
+	public static final void end(String name) {
+		if(!enabled)
+			return;
+		
+		Pass p = passes.get(name);
+		if(p == null)
+			throw new IllegalStateException("Pass \"" + name + "\" has not begun");
+		
+		p.end(frame);
+	}
+	
+	/**
+	 * 
+	 * Finishes the current frame and collects every GPU result that has become available without blocking.
+	 * 
+	 */
+	public static final void endFrame() {
+		if(!enabled)
+			return;
+		
+		for(Pass p : passOrder)
+			p.collect(frame);
+		
+		frame++;
+	}
+	
+	/**
+	 * 
+	 * Returns the CPU time of the specified pass during the latest frame in milliseconds.
+	 * 
+	 * @param name - the name of the pass
+	 * @return the latest CPU time of the pass, or -1 if it has never been measured
+	 */
+	public static final float getCPUTime(String name) {
+		Pass p = passes.get(name);
+		return p == null ? -1 : p.cpuTime;
+	}
+	
+	/**
+	 * 
+	 * Returns the GPU time of the specified pass during the latest frame whose results are available, in milliseconds.
+	 * 
+	 * @param name - the name of the pass
+	 * @return the latest GPU time of the pass, or -1 if no result is available yet
+	 */
+	public static final float getGPUTime(String name) {
+		Pass p = passes.get(name);
+		return p == null ? -1 : p.gpuTime;
+	}
+	
+	/**
+	 * 
+	 * Returns the moving average of the CPU time of the specified pass in milliseconds.
+	 * 
+	 * @param name - the name of the pass
+	 * @return the average CPU time of the pass, or -1 if it has never been measured
+	 */
+	public static final float getAverageCPUTime(String name) {
+		Pass p = passes.get(name);
+		return p == null ? -1 : p.cpuAverage;
+	}
+	
+	/**
+	 * 
+	 * Returns the moving average of the GPU time of the specified pass in milliseconds.
+	 * 
+	 * @param name - the name of the pass
+	 * @return the average GPU time of the pass, or -1 if no result is available yet
+	 */
+	public static final float getAverageGPUTime(String name) {
+		Pass p = passes.get(name);
+		return p == null ? -1 : p.gpuAverage;
+	}
+	
+	/**
+	 * 
+	 * Returns the names of all passes measured so far in the order they were first seen.
+	 * 
+	 * @return the names of all measured passes
+	 */
+	public static final String[] getPassNames() {
+		String[] names = new String[passOrder.size()];
+		for(int i = 0; i < names.length; i++)
+			names[i] = passOrder.get(i).NAME;
+		return names;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of GPU samples dropped because their results were not available in time.
+	 * 
+	 * @return the number of dropped GPU samples
+	 */
+	public static final int getDroppedSamples() {
+		return droppedSamples;
+	}
+	
+	/**
+	 * 
+	 * Starts collecting every resolved sample for {@link #dumpCSV(String)} and {@link #dumpTrace(String)}.
+	 * Previously collected samples are discarded.
+	 * 
+	 */
+	public static final void startRecording() {
+		samples.clear();
+		recording = true;
+	}
+	
+	/**
+	 * 
+	 * Stops collecting samples. Collected samples are kept until the next recording starts.
+	 * 
+	 */
+	public static final void stopRecording() {
+		recording = false;
+	}
+	
+	/**
+	 * 
+	 * Writes all recorded samples to the specified file as comma separated values.
+	 * <p>
+	 * Columns: frame, pass, CPU start (ms), CPU time (ms), GPU time (ms).
+	 * 
+	 * @param path - the path of the file to write
+	 */
+	public static final void dumpCSV(String path) {
+		try(BufferedWriter output = new BufferedWriter(new FileWriter(path))) {
+			output.write("frame,pass,cpu_start_ms,cpu_ms,gpu_ms");
+			output.newLine();
+			
+			long origin = samples.isEmpty() ? 0 : samples.get(0).cpuStart;
+			for(Sample s : samples) {
+				output.write(s.frame + "," + s.pass + "," + toMillis(s.cpuStart - origin) + ","
+						+ toMillis(s.cpuEnd - s.cpuStart) + "," + toMillis(s.gpuEnd - s.gpuStart));
+				output.newLine();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * 
+	 * Writes all recorded samples to the specified file in the Chrome trace event format
+	 * (viewable in chrome://tracing). CPU passes are put on thread 0 and GPU passes on thread 1.
+	 * <p>
+	 * The GPU clock is aligned to the CPU clock at the first recorded sample, so GPU events are placed approximately.
+	 * 
+	 * @param path - the path of the file to write
+	 */
+	public static final void dumpTrace(String path) {
+		try(BufferedWriter output = new BufferedWriter(new FileWriter(path))) {
+			output.write("{\"traceEvents\":[");
+			
+			long cpuOrigin = samples.isEmpty() ? 0 : samples.get(0).cpuStart;
+			long gpuOrigin = samples.isEmpty() ? 0 : samples.get(0).gpuStart;
+			
+			boolean first = true;
+			for(Sample s : samples) {
+				if(!first)
+					output.write(",");
+				first = false;
+				
+				writeEvent(output, s.pass, "cpu", 0, s.cpuStart - cpuOrigin, s.cpuEnd - s.cpuStart, s.frame);
+				output.write(",");
+				writeEvent(output, s.pass, "gpu", 1, s.gpuStart - gpuOrigin, s.gpuEnd - s.gpuStart, s.frame);
+			}
+			
+			output.write("]}");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * 
+	 * Writes a single complete trace event.
+	 * 
+	 * @param output - the writer to write to
+	 * @param name - the name of the event
+	 * @param category - the category of the event
+	 * @param tid - the thread lane of the event
+	 * @param start - the start of the event in nanoseconds
+	 * @param duration - the duration of the event in nanoseconds
+	 * @param frame - the frame the event belongs to
+	 * @throws IOException if the event could not be written
+	 */
+	private static void writeEvent(BufferedWriter output, String name, String category, int tid, long start, long duration, long frame) throws IOException {
+		output.write("{\"name\":\"" + name + "\",\"cat\":\"" + category + "\",\"ph\":\"X\",\"pid\":0,\"tid\":" + tid
+				+ ",\"ts\":" + start / 1000.0 + ",\"dur\":" + duration / 1000.0 + ",\"args\":{\"frame\":" + frame + "}}");
+	}
+	
+	/**
+	 * 
+	 * Converts nanoseconds to milliseconds.
+	 * 
+	 * @param nanos - the nanoseconds to convert
+	 * @return the converted milliseconds
+	 */
+	private static float toMillis(long nanos) {
+		return nanos / 1000000f;
+	}
+	
+	private static final class Pass {
+		final String NAME;
+		
+		//Query ring, one slot per frame in flight
+		final int[] startQueries;
+		final int[] endQueries;
+		final long[] slotFrame;
+		final long[] slotCPUStart;
+		final long[] slotCPUEnd;
+		
+		long cpuStart;
+		
+		float cpuTime = -1;
+		float gpuTime = -1;
+		float cpuAverage = -1;
+		float gpuAverage = -1;
+		
+		/**
+		 * 
+		 * Constructs a new pass and allocates its query ring.
+		 * 
+		 * @param name - the name of this pass
+		 * @param latency - the depth of the query ring
+		 */
+		Pass(String name, int latency) {
+			NAME = name;
+			
+			startQueries = new int[latency];
+			endQueries = new int[latency];
+			slotFrame = new long[latency];
+			slotCPUStart = new long[latency];
+			slotCPUEnd = new long[latency];
+			
+			for(int i = 0; i < latency; i++) {
+				startQueries[i] = Backend.get().genQuery();
+				endQueries[i] = Backend.get().genQuery();
+				slotFrame[i] = -1;
+			}
+		}
+		
+		/**
+		 * 
+		 * Starts measuring this pass.
+		 * 
+		 * @param frame - the current frame
+		 */
+		void begin(long frame) {
+			int slot = (int)(frame % startQueries.length);
+			
+			if(slotFrame[slot] != -1) {
+				droppedSamples++;
+				slotFrame[slot] = -1;
+			}
+			
+			cpuStart = System.nanoTime();
+			Backend.get().queryCounter(startQueries[slot], GL33.GL_TIMESTAMP);
+		}
+		
+		/**
+		 * 
+		 * Stops measuring this pass.
+		 * 
+		 * @param frame - the current frame
+		 */
+		void end(long frame) {
+			int slot = (int)(frame % startQueries.length);
+			
+			Backend.get().queryCounter(endQueries[slot], GL33.GL_TIMESTAMP);
+			long cpuEnd = System.nanoTime();
+			
+			slotFrame[slot] = frame;
+			slotCPUStart[slot] = cpuStart;
+			slotCPUEnd[slot] = cpuEnd;
+			
+			cpuTime = toMillis(cpuEnd - cpuStart);
+			cpuAverage = cpuAverage < 0 ? cpuTime : cpuAverage + (cpuTime - cpuAverage) * SMOOTHING;
+		}
+		
+		/**
+		 * 
+		 * Reads back every pending GPU result of this pass that has become available.
+		 * 
+		 * @param frame - the frame that just ended
+		 */
+		void collect(long frame) {
+			//Oldest frames first so the latest result ends up in gpuTime
+			for(int k = startQueries.length - 1; k >= 0; k--) {
+				long f = frame - k;
+				if(f < 0)
+					continue;
+				
+				int slot = (int)(f % startQueries.length);
+				if(slotFrame[slot] != f)
+					continue;
+				
+				//The end query is submitted last, so the start query is available whenever it is
+				if(Backend.get().getQueryObjecti(endQueries[slot], GL15.GL_QUERY_RESULT_AVAILABLE) == 0)
+					break;
+				
+				long gpuStart = Backend.get().getQueryObjectui64(startQueries[slot], GL15.GL_QUERY_RESULT);
+				long gpuEnd = Backend.get().getQueryObjectui64(endQueries[slot], GL15.GL_QUERY_RESULT);
+				
+				gpuTime = toMillis(gpuEnd - gpuStart);
+				gpuAverage = gpuAverage < 0 ? gpuTime : gpuAverage + (gpuTime - gpuAverage) * SMOOTHING;
+				
+				if(recording)
+					samples.add(new Sample(slotFrame[slot], NAME, slotCPUStart[slot], slotCPUEnd[slot], gpuStart, gpuEnd));
+				
+				slotFrame[slot] = -1;
+			}
+		}
+		
+		/**
+		 * 
+		 * Deletes the query objects of this pass.
+		 * 
+		 */
+		void destroy() {
+			for(int i = 0; i < startQueries.length; i++) {
+				Backend.get().deleteQuery(startQueries[i]);
+				Backend.get().deleteQuery(endQueries[i]);
+			}
+		}
+	}
+	
+	private static final class Sample {
+		final long frame;
+		final String pass;
+		final long cpuStart, cpuEnd;
+		final long gpuStart, gpuEnd;
+		
+		Sample(long frame, String pass, long cpuStart, long cpuEnd, long gpuStart, long gpuEnd) {
+			this.frame = frame;
+			this.pass = pass;
+			this.cpuStart = cpuStart;
+			this.cpuEnd = cpuEnd;
+			this.gpuStart = gpuStart;
+			this.gpuEnd = gpuEnd;
+		}
+	}
+}
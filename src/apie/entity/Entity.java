@@ -1,6 +1,8 @@
 package apie.entity;
 
+import apie.gfx.RenderQueue;
 import apie.gfx.Renderer;
+import apie.math.Matrix3x2f;
 import apie.math.Transform;
 import apie.math.Vector2f;
 import apie.physics.Body;
@@ -14,6 +16,8 @@ public class Entity {
 	
 	public Transform transform = new Transform();
 	
+	protected boolean visible = true;
+	
 	/**
 	 * 
 	 * Constructs an entity without body and renderer.
@@ -66,14 +70,73 @@ public class Entity {
 	
 	/**
 	 * 
-	 * Causes this entity to draw using the specified renderer. If there is no renderer specified nothing will happen.
+	 * Offsets the renderer of this entity so it is drawn where its body was the specified fraction into the last physics step.
+	 * Nothing happens if the entity has no renderer or no body.
+	 * 
+	 * @param alpha - the blend factor between the last two physics steps, 1 to draw at the current position
+	 */
+	public void interpolate(float alpha) {
+		if(renderer == null || body == null)
+			return;
+		
+		float dx = body.getInterpolatedX(alpha) - body.getX();
+		float dy = body.getInterpolatedY(alpha) - body.getY();
+		
+		//The body moves in the space of the renderer's parent
+		Transform parent = renderer.getTransform().getParent();
+		if(parent != null && (dx != 0 || dy != 0)) {
+			Matrix3x2f m = parent.getWorldAffine();
+			float x = m.a * dx + m.c * dy;
+			dy = m.b * dx + m.d * dy;
+			dx = x;
+		}
+		
+		renderer.setDrawOffset(dx, dy);
+	}
+	
+	/**
+	 * 
+	 * Causes this entity to draw using the specified renderer. If there is no renderer specified or the entity is invisible nothing will happen.
 	 * 
 	 */
 	public void draw() {
-		if(renderer != null)
+		if(renderer != null && visible)
 			renderer.draw();
 	}
 	
+	/**
+	 * 
+	 * Submits this entity's renderer to the specified render queue. If there is no renderer specified nothing will happen.
+	 * 
+	 * @param queue - the render queue to submit to
+	 */
+	public void draw(RenderQueue queue) {
+		if(renderer != null && visible)
+			queue.submit(renderer);
+	}
+	
+	/**
+	 * 
+	 * Sets whether or not this entity draws its renderer. An invisible entity is still updated.
+	 * 
+	 * @param visible - whether or not this entity should be drawn
+	 * @return this entity instance
+	 */
+	public Entity setVisible(boolean visible) {
+		this.visible = visible;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether or not this entity draws its renderer.
+	 * 
+	 * @return true if this entity is drawn
+	 */
+	public boolean isVisible() {
+		return visible;
+	}
+	
 	/**
 	 * 
 	 * Sets the renderer of this entity.
@@ -98,6 +161,19 @@ public class Entity {
 		return renderer;
 	}
 	
+	/**
+	 * 
+	 * Attaches this entity's transform to the transform of the specified entity, so this entity moves, rotates and scales with it.
+	 * The renderer must be set first, since setting a renderer replaces the entity's transform.
+	 * 
+	 * @param parent - the entity to attach to, or null to detach
+	 * @return this entity instance
+	 */
+	public Entity setParent(Entity parent) {
+		transform.setParent(parent == null ? null : parent.transform);
+		return this;
+	}
+	
 	/**
 	 * 
 	 * Sets the physical body of this entity.
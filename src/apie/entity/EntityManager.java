@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import apie.gamestate.GameState;
+import apie.gfx.RenderQueue;
 
 public class EntityManager {
 	
@@ -65,6 +66,38 @@ public class EntityManager {
 		}
 	}
 	
+	/**
+	 * 
+	 * Offsets the renderers of all entities with bodies to where their bodies were the specified fraction into the last physics step.
+	 * 
+	 * @param alpha - the blend factor between the last two physics steps, 1 to draw at the current positions
+	 */
+	public void interpolate(float alpha) {
+		for(Entity e : entities.values()) {
+			e.interpolate(alpha);
+		}
+		
+		for(Group g : groups.values()) {
+			g.interpolate(alpha);
+		}
+	}
+	
+	/**
+	 * 
+	 * Submits all entities in this entity manager to the specified render queue.
+	 * 
+	 * @param queue - the render queue to submit to
+	 */
+	public void draw(RenderQueue queue) {
+		for(Entity e : entities.values()) {
+			e.draw(queue);
+		}
+		
+		for(Group g : groups.values()) {
+			g.draw(queue);
+		}
+	}
+	
 	/**
 	 * 
 	 * Adds an entity to this entity manager.
@@ -211,6 +244,30 @@ public class EntityManager {
 			}
 		}
 		
+		/**
+		 * 
+		 * Offsets the renderers of all entities contained in this group for drawing between physics steps.
+		 * 
+		 * @param alpha - the blend factor between the last two physics steps
+		 */
+		void interpolate(float alpha) {
+			for(Entity e : entities)
+				e.interpolate(alpha);
+		}
+		
+		/**
+		 * 
+		 * Submits all entities contained in this group to the specified render queue.
+		 * 
+		 * @param queue - the render queue to submit to
+		 */
+		void draw(RenderQueue queue) {
+			if(visible) {
+				for(Entity e : entities)
+					e.draw(queue);
+			}
+		}
+		
 		/**
 		 * 
 		 * Currently not used.
@@ -7,8 +7,11 @@ import org.lwjgl.glfw.GLFWKeyCallback;
 import org.lwjgl.glfw.GLFWMouseButtonCallback;
 
 import apie.Game;
+import apie.debug.FrameProfiler;
+import apie.gfx.backend.Backend;
 import apie.input.InputManager;
 import apie.library.Library;
+import apie.math.SceneGraph;
 
 public final class GameStateManager {
 	
@@ -84,9 +87,24 @@ public final class GameStateManager {
 	public static void update(float dt) {
 		InputManager.update();
 		GLFW.glfwPollEvents();
+		
+		FrameProfiler.begin("update");
 		currentState.update(dt);
+		FrameProfiler.end("update");
+		
+		SceneGraph.update();
+		
+		FrameProfiler.begin("draw");
 		currentState.draw();
+		FrameProfiler.end("draw");
+		
+		Backend.get().endFrame();
+		
+		FrameProfiler.begin("swap");
 		GLFW.glfwSwapBuffers(window);
+		FrameProfiler.end("swap");
+		
+		FrameProfiler.endFrame();
 	}
 	
 	public static final GameState getGameState(String key) {
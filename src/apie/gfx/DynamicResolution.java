@@ -0,0 +1,316 @@
+package apie.gfx;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL14;
+import org.lwjgl.opengl.GL30;
+
+import apie.debug.FrameProfiler;
+import apie.gfx.backend.Backend;
+import apie.util.FramePacer;
+import apie.util.Time;
+
+/**
+ * 
+ * Renders the scene into an offscreen target at a fraction of the window resolution and upscales it to the window.
+ * The fraction is adjusted every frame by a feedback loop on the measured frame time, between a configured minimum and 100%.
+ * <p>
+ * Everything drawn between {@link #begin()} and {@link #end()} is scaled. Anything drawn after {@link #end()},
+ * such as the GUI and text, is drawn at native resolution. Only the viewport changes, so the projection set up by
+ * {@link apie.gfx.shader.OrthographicShaderProgram#initProjection(float, float, float, float)} and with it all
+ * gameplay coordinates stay the same.
+ * <p>
+ * The target is allocated once at full window size and the scene is drawn into its lower left corner,
+ * so changing the scale never reallocates anything.
+ * <p>
+ * The frame time fed to the controller is the GPU time of the scaled pass when the {@link FrameProfiler} is enabled.
+ * Otherwise it is the frame time minus the time spent waiting in the {@link FramePacer}, except in the vsync modes, where
+ * the swap blocks for up to a refresh period that the pacer does not see. There it is the CPU time of the scaled pass,
+ * which leaves out the swap but also any time the GPU spends behind the CPU.
+ * 
+ * @author SK
+ * 
+ */
+public class DynamicResolution {
+	
+	public static final String PASS_NAME = "scene";
+	
+	public static final float DEFAULT_MIN_SCALE = 0.5f;
+	
+	//Scale is lowered above this fraction of the budget and raised below the lower one
+	private static final float UPPER_THRESHOLD = 0.95f;
+	private static final float LOWER_THRESHOLD = 0.8f;
+	
+	//Largest scale change per frame, to avoid visible pumping
+	private static final float MAX_STEP = 0.05f;
+	
+	private int width, height;
+	
+	private int framebuffer;
+	private int colorBuffer;
+	private int depthBuffer;
+	
+	private boolean enabled = true;
+	
+	private float scale = 1;
+	private float minScale = DEFAULT_MIN_SCALE;
+	
+	private float budget = 1f / 60;
+	
+	private float frameTime;
+	
+	//CPU time of the last scaled pass in seconds, used in the vsync modes when no GPU timings are available
+	private long passStart;
+	private float passTime;
+	
+	/**
+	 * 
+	 * Constructs a new dynamic resolution target for a window of the specified size.
+	 * 
+	 * @param width - the window width in pixels
+	 * @param height - the window height in pixels
+	 */
+	public DynamicResolution(int width, int height) {
+		resize(width, height);
+	}
+	
+	/**
+	 * 
+	 * Reallocates the offscreen target for a window of the specified size.
+	 * 
+	 * @param width - the window width in pixels
+	 * @param height - the window height in pixels
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution resize(int width, int height) {
+		if(width <= 0 || height <= 0)
+			throw new IllegalArgumentException("Window dimensions must be positive");
+		
+		destroy();
+		
+		this.width = width;
+		this.height = height;
+		
+		colorBuffer = Backend.get().genRenderbuffer();
+		Backend.get().bindRenderbuffer(GL30.GL_RENDERBUFFER, colorBuffer);
+		Backend.get().renderbufferStorage(GL30.GL_RENDERBUFFER, GL11.GL_RGBA8, width, height);
+		
+		depthBuffer = Backend.get().genRenderbuffer();
+		Backend.get().bindRenderbuffer(GL30.GL_RENDERBUFFER, depthBuffer);
+		Backend.get().renderbufferStorage(GL30.GL_RENDERBUFFER, GL14.GL_DEPTH_COMPONENT24, width, height);
+		
+		Backend.get().bindRenderbuffer(GL30.GL_RENDERBUFFER, 0);
+		
+		framebuffer = Backend.get().genFramebuffer();
+		Backend.get().bindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+		Backend.get().framebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0, GL30.GL_RENDERBUFFER, colorBuffer);
+		Backend.get().framebufferRenderbuffer(GL30.GL_FRAMEBUFFER, GL30.GL_DEPTH_ATTACHMENT, GL30.GL_RENDERBUFFER, depthBuffer);
+		
+		int status = Backend.get().checkFramebufferStatus(GL30.GL_FRAMEBUFFER);
+		Backend.get().bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+		
+		if(status != GL30.GL_FRAMEBUFFER_COMPLETE)
+			throw new IllegalStateException("Failed to create dynamic resolution target, framebuffer status: " + status);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Updates the scale from the previous frame's time and redirects drawing to the offscreen target.
+	 * The target is cleared. Does nothing but clear the window if dynamic resolution is disabled.
+	 * 
+	 * @param clearMask - the buffers to clear, as passed to {@code glClear}
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution begin(int clearMask) {
+		if(!enabled) {
+			Backend.get().clear(clearMask);
+			return this;
+		}
+		
+		adjust();
+		
+		Backend.get().bindFramebuffer(GL30.GL_FRAMEBUFFER, framebuffer);
+		Backend.get().viewport(0, 0, getTargetWidth(), getTargetHeight());
+		Backend.get().clear(clearMask);
+		
+		FrameProfiler.begin(PASS_NAME);
+		
+		passStart = System.nanoTime();
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Clears the color and depth buffers and redirects drawing to the offscreen target.
+	 * 
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution begin() {
+		return begin(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+	}
+	
+	/**
+	 * 
+	 * Upscales the offscreen target to the window and restores drawing to the window at native resolution.
+	 * 
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution end() {
+		if(!enabled)
+			return this;
+		
+		FrameProfiler.end(PASS_NAME);
+		
+		passTime = (System.nanoTime() - passStart) / 1e9f;
+		
+		Backend.get().bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, framebuffer);
+		Backend.get().bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+		Backend.get().blitFramebuffer(0, 0, getTargetWidth(), getTargetHeight(), 0, 0, width, height,
+				GL11.GL_COLOR_BUFFER_BIT, scale < 1 ? GL11.GL_LINEAR : GL11.GL_NEAREST);
+		
+		Backend.get().bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+		Backend.get().viewport(0, 0, width, height);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Moves the scale towards the value that keeps the measured frame time within budget.
+	 * Fill cost grows with the square of the scale, hence the square root.
+	 * 
+	 */
+	private void adjust() {
+		float gpuTime = FrameProfiler.isEnabled() ? FrameProfiler.getAverageGPUTime(PASS_NAME) : -1;
+		
+		float measured;
+		if(gpuTime >= 0)
+			measured = gpuTime / 1000;
+		else if(FramePacer.getMode() == FramePacer.Mode.VSYNC || FramePacer.getMode() == FramePacer.Mode.ADAPTIVE_VSYNC)
+			measured = passTime;
+		else
+			measured = Time.getDelta() - FramePacer.getWaitTime();
+		
+		if(measured <= 0)
+			return;
+		
+		frameTime += (measured - frameTime) * 0.1f;
+		
+		float load = frameTime / budget;
+		
+		if(load > UPPER_THRESHOLD || load < LOWER_THRESHOLD) {
+			float target = scale * (float)Math.sqrt(((UPPER_THRESHOLD + LOWER_THRESHOLD) / 2) / load);
+			float step = Math.max(-MAX_STEP, Math.min(MAX_STEP, target - scale));
+			scale = Math.max(minScale, Math.min(1, scale + step));
+		}
+	}
+	
+	/**
+	 * 
+	 * Enables or disables dynamic resolution. When disabled the scene is drawn straight to the window.
+	 * 
+	 * @param enabled - whether or not to render at a dynamic resolution
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether or not dynamic resolution is enabled.
+	 * 
+	 * @return true if dynamic resolution is enabled
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	/**
+	 * 
+	 * Sets the lowest scale the controller may choose.
+	 * 
+	 * @param minScale - the minimum scale, between 0 and 1
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution setMinScale(float minScale) {
+		if(minScale <= 0 || minScale > 1)
+			throw new IllegalArgumentException("Minimum scale must be within (0, 1]");
+		
+		this.minScale = minScale;
+		scale = Math.max(scale, minScale);
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the lowest scale the controller may choose.
+	 * 
+	 * @return the minimum scale
+	 */
+	public float getMinScale() {
+		return minScale;
+	}
+	
+	/**
+	 * 
+	 * Sets the frame time the controller aims to stay below.
+	 * 
+	 * @param fps - the frame rate to budget for
+	 * @return this dynamic resolution instance
+	 */
+	public DynamicResolution setTargetFPS(float fps) {
+		if(fps <= 0)
+			throw new IllegalArgumentException("Target frame rate must be positive");
+		
+		budget = 1 / fps;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the current scale of the offscreen target relative to the window.
+	 * 
+	 * @return the current scale
+	 */
+	public float getScale() {
+		return scale;
+	}
+	
+	/**
+	 * 
+	 * Returns the width the scene is currently rendered at in pixels.
+	 * 
+	 * @return the current render width
+	 */
+	public int getTargetWidth() {
+		return Math.max(1, Math.round(width * scale));
+	}
+	
+	/**
+	 * 
+	 * Returns the height the scene is currently rendered at in pixels.
+	 * 
+	 * @return the current render height
+	 */
+	public int getTargetHeight() {
+		return Math.max(1, Math.round(height * scale));
+	}
+	
+	/**
+	 * 
+	 * Destroys the offscreen target.
+	 * 
+	 */
+	public void destroy() {
+		if(framebuffer != 0) {
+			Backend.get().deleteFramebuffer(framebuffer);
+			Backend.get().deleteRenderbuffer(colorBuffer);
+			Backend.get().deleteRenderbuffer(depthBuffer);
+			framebuffer = colorBuffer = depthBuffer = 0;
+		}
+	}
+}
@@ -4,10 +4,9 @@ import java.nio.IntBuffer;
 
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
 
 import apie.debug.Debug;
+import apie.gfx.backend.Backend;
 import apie.gfx.shader.ShaderProgram;
 import apie.util.Util;
 
@@ -23,6 +22,10 @@ public class Mesh {
 	private int ibo;
 	private IntBuffer vbos;
 	
+	//The data this mesh was last created from
+	private Vertex[] vertices;
+	private int[] indices;
+	
 	private int mode = GL11.GL_TRIANGLES;
 	private int usage;
 	
@@ -64,7 +67,7 @@ public class Mesh {
 	 * @return this mesh instance
 	 */
 	public Mesh createEmpty() {
-		vao = GL30.glGenVertexArrays();
+		vao = Backend.get().genVertexArray();
 		created = true;
 		
 		return this;
@@ -87,8 +90,8 @@ public class Mesh {
 		
 		program = vertices[0].getShaderProgram();
 		
-		vao = GL30.glGenVertexArrays();
-		GL30.glBindVertexArray(vao);
+		vao = Backend.get().genVertexArray();
+		Backend.get().bindVertexArray(vao);
 		
 		vbos = program.initAttributes(vertices, usage);
 		
@@ -99,16 +102,19 @@ public class Mesh {
 			
 			iboData.flip();
 			
-			ibo = GL15.glGenBuffers();
-			GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
-			GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, iboData, usage);
+			ibo = Backend.get().genBuffer();
+			Backend.get().bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+			Backend.get().bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, iboData, usage);
 		}
 		
-		GL30.glBindVertexArray(0);
+		Backend.get().bindVertexArray(0);
 		
 		vertexCount = vertices.length;
 		indexCount = indices.length;
 		
+		this.vertices = vertices;
+		this.indices = indices;
+		
 		created = true;
 	}
 	
@@ -126,9 +132,9 @@ public class Mesh {
 			throw new IllegalStateException("Cannot reallocate unallocated data");
 		
 		if(vbos != null)
-			GL15.glDeleteBuffers(vbos);
+			Backend.get().deleteBuffers(vbos);
 		
-		GL30.glBindVertexArray(vao);
+		Backend.get().bindVertexArray(vao);
 		
 		program = vertices[0].getShaderProgram();
 		
@@ -142,22 +148,25 @@ public class Mesh {
 			
 			iboData.flip();
 			
-			ibo = GL15.glGenBuffers();
-			GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
-			GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, iboData, usage);
+			ibo = Backend.get().genBuffer();
+			Backend.get().bindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+			Backend.get().bufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, iboData, usage);
 		}
 		
-		GL30.glBindVertexArray(0);
+		Backend.get().bindVertexArray(0);
 		
 		vertexCount = vertices.length;
 		indexCount = indices.length;
+		
+		this.vertices = vertices;
+		this.indices = indices;
 	}
 	
 	public void changeData(Vertex[] vertices, long offset) {
 		if(usage != GL15.GL_DYNAMIC_DRAW)
 			throw new IllegalStateException("Mesh usage must be of type GL_DYNAMIC_DRAW");
 		
-		GL30.glBindVertexArray(vao);
+		Backend.get().bindVertexArray(vao);
 		
 		for(int i = 0; i < vbos.capacity(); i++) {
 			
@@ -168,12 +177,12 @@ public class Mesh {
 					data[vertices[0].getComponent(i).getDimension() * j + k] = vertices[j].getComponent(i).getN(k);
 			}
 			
-			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbos.get(i));
-			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER,
+			Backend.get().bindBuffer(GL15.GL_ARRAY_BUFFER, vbos.get(i));
+			Backend.get().bufferSubData(GL15.GL_ARRAY_BUFFER,
 					offset * vertices[0].getComponent(i).getDimension() * Float.BYTES, Util.toFloatBuffer(data));
 		}
 		
-		GL30.glBindVertexArray(0);
+		Backend.get().bindVertexArray(0);
 		
 	}
 	
@@ -183,15 +192,15 @@ public class Mesh {
 	 * 
 	 */
 	public void draw() {
-		GL30.glBindVertexArray(vao);
+		Backend.get().bindVertexArray(vao);
 		
 		if(isIndexed()) {
-			GL11.glDrawElements(mode, indexCount, GL11.GL_UNSIGNED_INT, 0);
+			Backend.get().drawElements(mode, indexCount, GL11.GL_UNSIGNED_INT, 0);
 		} else {
-			GL11.glDrawArrays(mode, 0, vertexCount);
+			Backend.get().drawArrays(mode, 0, vertexCount);
 		}
 		
-		GL30.glBindVertexArray(0);
+		Backend.get().bindVertexArray(0);
 	}
 	
 	/**
@@ -216,6 +225,36 @@ public class Mesh {
 		return ibo > 0;
 	}
 	
+	/**
+	 * 
+	 * Returns what kind of primitives this mesh renders.
+	 * 
+	 * @return the primitive mode of this mesh
+	 */
+	public int getMode() {
+		return mode;
+	}
+	
+	/**
+	 * 
+	 * Returns the vertices this mesh was last created from, or null if it has not been created with any.
+	 * 
+	 * @return the vertices of this mesh
+	 */
+	public Vertex[] getVertices() {
+		return vertices;
+	}
+	
+	/**
+	 * 
+	 * Returns the indices this mesh was last created from, or null if it has not been created with any.
+	 * 
+	 * @return the indices of this mesh
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+	
 	/**
 	 * 
 	 * Returns the shader program associated with this mesh.
@@ -232,7 +271,7 @@ public class Mesh {
 	 * 
 	 */
 	public void destroy() {
-		GL15.glDeleteBuffers(vbos);
-		GL15.glDeleteBuffers(vao);
+		Backend.get().deleteBuffers(vbos);
+		Backend.get().deleteVertexArray(vao);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package apie.gfx;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+
+import org.lwjgl.opengl.GL11;
+
+import apie.gfx.backend.Backend;
+
+/**
+ * 
+ * Collects renderers during a frame and draws them in two passes.
+ * <p>
+ * Opaque renderers are drawn first, front-to-back with depth writes and blending disabled,
+ * so pixels hidden behind closer opaque geometry are rejected by the depth test before they are shaded.
+ * Transparent renderers are then drawn back-to-front with blending enabled, testing against but not writing depth.
+ * <p>
+ * Renderers on the same layer keep their submission order. The window must have a depth buffer,
+ * and the depth buffer must be cleared along with the color buffer each frame.
+ * 
+ * @author SK
+ * 
+ */
+public class RenderQueue {
+	
+	private static final Comparator<Renderer> FRONT_TO_BACK = new Comparator<Renderer>() {
+		public int compare(Renderer a, Renderer b) {
+			return Float.compare(b.getLayer(), a.getLayer());
+		}
+	};
+	
+	private static final Comparator<Renderer> BACK_TO_FRONT = new Comparator<Renderer>() {
+		public int compare(Renderer a, Renderer b) {
+			return Float.compare(a.getLayer(), b.getLayer());
+		}
+	};
+	
+	private final ArrayList<Renderer> opaque;
+	private final ArrayList<Renderer> transparent;
+	
+	/**
+	 * 
+	 * Constructs a new empty render queue.
+	 * 
+	 */
+	public RenderQueue() {
+		opaque = new ArrayList<>();
+		transparent = new ArrayList<>();
+	}
+	
+	/**
+	 * 
+	 * Submits a renderer to be drawn on the next {@link #flush()}.
+	 * 
+	 * @param renderer - the renderer to submit
+	 * @return this render queue instance
+	 */
+	public RenderQueue submit(Renderer renderer) {
+		if(renderer.isOpaque())
+			opaque.add(renderer);
+		else
+			transparent.add(renderer);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Draws all submitted renderers and empties this queue.
+	 * Blending is left enabled and depth testing disabled afterwards, so renderers drawn directly
+	 * (such as GUI and text) keep drawing on top as before.
+	 * 
+	 * @return this render queue instance
+	 */
+	public RenderQueue flush() {
+		
+		Backend.get().enable(GL11.GL_DEPTH_TEST);
+		Backend.get().depthFunc(GL11.GL_LEQUAL);
+		
+		//Opaque pass
+		if(!opaque.isEmpty()) {
+			Backend.get().disable(GL11.GL_BLEND);
+			Backend.get().depthMask(true);
+			
+			opaque.sort(FRONT_TO_BACK);
+			for(Renderer r : opaque)
+				r.draw();
+		}
+		
+		//Transparent pass
+		Backend.get().enable(GL11.GL_BLEND);
+		Backend.get().depthMask(false);
+		
+		transparent.sort(BACK_TO_FRONT);
+		for(Renderer r : transparent)
+			r.draw();
+		
+		Backend.get().depthMask(true);
+		Backend.get().disable(GL11.GL_DEPTH_TEST);
+		
+		return clear();
+	}
+	
+	/**
+	 * 
+	 * Removes all submitted renderers without drawing them.
+	 * 
+	 * @return this render queue instance
+	 */
+	public RenderQueue clear() {
+		opaque.clear();
+		transparent.clear();
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of renderers currently submitted.
+	 * 
+	 * @return the number of renderers currently submitted
+	 */
+	public int size() {
+		return opaque.size() + transparent.size();
+	}
+}
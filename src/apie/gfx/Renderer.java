@@ -1,7 +1,9 @@
 package apie.gfx;
 
+import apie.gfx.shader.OrthographicShaderProgram;
 import apie.gfx.shader.ShaderProgram;
 import apie.gfx.texture.Texture;
+import apie.math.Matrix4f;
 import apie.math.Transform;
 import apie.math.Vector2f;
 
@@ -15,6 +17,16 @@ public class Renderer {
 	
 	protected Transform transform = new Transform();
 	
+	//Higher layers are drawn on top of lower ones
+	protected float layer = 0;
+	
+	//Opaque renderers are drawn front-to-back without blending
+	protected boolean opaque = false;
+	
+	//World space offset from the transform when drawing, such as from a body's interpolated position
+	protected float offsetX, offsetY;
+	private Matrix4f offsetMatrix;
+	
 	/**
 	 * 
 	 * Constructs an empty renderer. This renderer will not be able to process at least until a mesh has been specified.
@@ -76,12 +88,80 @@ public class Renderer {
 	 * 
 	 */
 	public void draw() {
+		Matrix4f matrix = transform.getWorldMatrix();
+		if(offsetX != 0 || offsetY != 0) {
+			if(offsetMatrix == null)
+				offsetMatrix = new Matrix4f();
+			matrix = offsetMatrix.set(matrix).translate(offsetX, offsetY, 0);
+		}
+		
 		program.bind();
-		program.sendMatrix("m_transform", transform.getMatrix());
+		program.sendMatrix("m_transform", matrix);
+		program.sendFloat("f_layer", layer);
 		texture.bind();
 		mesh.draw();
 	}
 	
+	/**
+	 * 
+	 * Sets an offset in world space to draw this renderer at, relative to its transform. The transform itself is left as is.
+	 * 
+	 * @param x - the offset on the x-axis
+	 * @param y - the offset on the y-axis
+	 * @return this renderer instance
+	 */
+	public Renderer setDrawOffset(float x, float y) {
+		offsetX = x;
+		offsetY = y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Sets the layer of this renderer. Renderers on higher layers are drawn on top of renderers on lower ones
+	 * when drawn through a {@link RenderQueue}.
+	 * 
+	 * @param layer - the layer to set, must be within [-{@link OrthographicShaderProgram#DEPTH_RANGE}, {@link OrthographicShaderProgram#DEPTH_RANGE}]
+	 * @return this renderer instance
+	 */
+	public Renderer setLayer(float layer) {
+		this.layer = layer;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the layer of this renderer.
+	 * 
+	 * @return the layer of this renderer
+	 */
+	public float getLayer() {
+		return layer;
+	}
+	
+	/**
+	 * 
+	 * Sets whether or not this renderer is opaque. Opaque renderers are drawn without blending and write depth,
+	 * so they should only be used with textures that have no translucent pixels.
+	 * 
+	 * @param opaque - true if this renderer is opaque
+	 * @return this renderer instance
+	 */
+	public Renderer setOpaque(boolean opaque) {
+		this.opaque = opaque;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether or not this renderer is opaque.
+	 * 
+	 * @return true if this renderer is opaque
+	 */
+	public boolean isOpaque() {
+		return opaque;
+	}
+	
 	/**
 	 * 
 	 * Sets the mesh of this renderer.
@@ -109,12 +189,24 @@ public class Renderer {
 	
 	/**
 	 * 
-	 * Returns the position vector from this renderer's transform.
+	 * Attaches this renderer's transform to the transform of the specified renderer, so this renderer follows it.
+	 * 
+	 * @param parent - the renderer to follow, or null to detach
+	 * @return this renderer instance
+	 */
+	public Renderer setParent(Renderer parent) {
+		transform.setParent(parent == null ? null : parent.getTransform());
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns a copy of the position vector from this renderer's transform.
 	 * 
 	 * @return the position vector from this renderer's transform
 	 */
 	public Vector2f getPosition() {
-		return transform.pos;
+		return new Vector2f(transform.getX(), transform.getY());
 	}
 	
 	/**
@@ -124,17 +216,17 @@ public class Renderer {
 	 * @return the rotation from this renderer's transform
 	 */
 	public float getRotation() {
-		return transform.rotation;
+		return transform.getRotation();
 	}
 	
 	/**
 	 * 
-	 * Returns the scale vector from this renderer's transform.
+	 * Returns a copy of the scale vector from this renderer's transform.
 	 * 
 	 * @return the scale vector from this renderer's transform
 	 */
 	public Vector2f getScale() {
-		return transform.scale;
+		return new Vector2f(transform.getScaleX(), transform.getScaleY());
 	}
 	
 	/**
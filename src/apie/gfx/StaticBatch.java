@@ -0,0 +1,298 @@
+package apie.gfx;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.lwjgl.opengl.GL11;
+
+import apie.gfx.shader.OrthographicShaderProgram;
+import apie.gfx.shader.ShaderProgram;
+import apie.gfx.texture.Texture;
+import apie.math.Transform;
+import apie.math.Vector2f;
+import apie.math.Vector3f;
+import apie.math.simd.Kernels;
+
+/**
+ * 
+ * Merges renderers that never move into pre-transformed meshes at load time.
+ * <p>
+ * Renderers are grouped by the spatial cell their position falls in and by texture, shader program, layer and opacity.
+ * Each group is baked into a single mesh with its transform already applied to the vertices,
+ * so a whole cell of static geometry is drawn with one draw call and no per-object transform upload.
+ * Cells outside the current orthographic projection are skipped entirely.
+ * <p>
+ * Only indexed triangle meshes made of {@link VertexTex} vertices can be baked; {@link #add(Renderer)} rejects anything else
+ * so the caller can keep drawing it normally.
+ * 
+ * @author SK
+ * 
+ */
+public class StaticBatch {
+	
+	public static final float DEFAULT_CELL_SIZE = 512;
+	
+	private final float cellSize;
+	
+	//Cells by packed cell coordinates
+	private final HashMap<Long, ArrayList<Cell>> grid;
+	
+	private final ArrayList<Cell> cells;
+	
+	private boolean baked = false;
+	
+	/**
+	 * 
+	 * Constructs a new empty static batch with the default cell size.
+	 * 
+	 */
+	public StaticBatch() {
+		this(DEFAULT_CELL_SIZE);
+	}
+	
+	/**
+	 * 
+	 * Constructs a new empty static batch.
+	 * 
+	 * @param cellSize - the width and height of each spatial cell
+	 */
+	public StaticBatch(float cellSize) {
+		this.cellSize = cellSize;
+		grid = new HashMap<>();
+		cells = new ArrayList<>();
+	}
+	
+	/**
+	 * 
+	 * Adds a renderer to be baked. The renderer's current transform is baked into the geometry,
+	 * so later changes to it will not be reflected.
+	 * 
+	 * @param renderer - the renderer to add
+	 * @return true if the renderer was accepted, false if it cannot be baked and must be drawn normally
+	 * @throws IllegalStateException if this batch has already been baked
+	 */
+	public boolean add(Renderer renderer) {
+		if(baked)
+			throw new IllegalStateException("Cannot add to a static batch that has already been baked");
+		
+		Mesh mesh = renderer.getMesh();
+		if(mesh == null || mesh.getVertices() == null || mesh.getIndices() == null || mesh.getIndices().length == 0
+				|| mesh.getMode() != GL11.GL_TRIANGLES || !(mesh.getVertices()[0] instanceof VertexTex))
+			return false;
+		
+		int cx = (int)Math.floor(renderer.getX() / cellSize);
+		int cy = (int)Math.floor(renderer.getY() / cellSize);
+		long key = ((long)cx << 32) | (cy & 0xFFFFFFFFL);
+		
+		ArrayList<Cell> list = grid.get(key);
+		if(list == null) {
+			list = new ArrayList<>();
+			grid.put(key, list);
+		}
+		
+		Cell cell = null;
+		for(Cell c : list) {
+			if(c.accepts(renderer)) {
+				cell = c;
+				break;
+			}
+		}
+		
+		if(cell == null) {
+			cell = new Cell(renderer);
+			list.add(cell);
+			cells.add(cell);
+		}
+		
+		cell.append(renderer);
+		
+		return true;
+	}
+	
+	/**
+	 * 
+	 * Uploads all added geometry. Nothing can be added afterwards.
+	 * 
+	 * @return this static batch instance
+	 */
+	public StaticBatch bake() {
+		if(baked)
+			return this;
+		
+		for(Cell c : cells)
+			c.bake();
+		
+		baked = true;
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Draws every visible cell directly.
+	 * 
+	 * @return this static batch instance
+	 */
+	public StaticBatch draw() {
+		float[] view = OrthographicShaderProgram.INSTANCE.getDimensions();
+		
+		for(Cell c : cells)
+			if(c.isVisible(view))
+				c.renderer.draw();
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Submits every visible cell to the specified render queue.
+	 * 
+	 * @param queue - the render queue to submit to
+	 * @return this static batch instance
+	 */
+	public StaticBatch draw(RenderQueue queue) {
+		float[] view = OrthographicShaderProgram.INSTANCE.getDimensions();
+		
+		for(Cell c : cells)
+			if(c.isVisible(view))
+				queue.submit(c.renderer);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of baked meshes, which is the maximum number of draw calls this batch issues per frame.
+	 * 
+	 * @return the number of baked meshes
+	 */
+	public int getCellCount() {
+		return cells.size();
+	}
+	
+	/**
+	 * 
+	 * Destroys all baked meshes.
+	 * 
+	 */
+	public void destroy() {
+		for(Cell c : cells)
+			if(c.renderer.getMesh() != null)
+				c.renderer.getMesh().destroy();
+		cells.clear();
+		grid.clear();
+	}
+	
+	private static final class Cell {
+		final Texture texture;
+		final ShaderProgram program;
+		final float layer;
+		final boolean opaque;
+		
+		final ArrayList<VertexTex> vertices;
+		final ArrayList<Integer> indices;
+		
+		float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+		float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+		
+		Renderer renderer;
+		
+		/**
+		 * 
+		 * Constructs a new cell with the material of the specified renderer.
+		 * 
+		 * @param r - the renderer to take the material from
+		 */
+		Cell(Renderer r) {
+			texture = r.getTexture();
+			program = r.getMesh().getShaderProgram();
+			layer = r.getLayer();
+			opaque = r.isOpaque();
+			vertices = new ArrayList<>();
+			indices = new ArrayList<>();
+		}
+		
+		/**
+		 * 
+		 * Returns whether or not the specified renderer shares the material of this cell.
+		 * 
+		 * @param r - the renderer to check
+		 * @return true if the renderer can be merged into this cell
+		 */
+		boolean accepts(Renderer r) {
+			return r.getTexture() == texture && r.getMesh().getShaderProgram() == program
+					&& r.getLayer() == layer && r.isOpaque() == opaque;
+		}
+		
+		/**
+		 * 
+		 * Appends the transformed geometry of the specified renderer to this cell.
+		 * 
+		 * @param r - the renderer to append
+		 */
+		void append(Renderer r) {
+			Vertex[] source = r.getMesh().getVertices();
+			
+			float[] xs = new float[source.length];
+			float[] ys = new float[source.length];
+			for(int i = 0; i < source.length; i++) {
+				xs[i] = source[i].getComponent(0).getN(0);
+				ys[i] = source[i].getComponent(0).getN(1);
+			}
+			
+			//Same transformation as m_transform in the vertex shader
+			Kernels.transform(r.getTransform().getWorldAffine(), xs, ys, xs, ys, 0, source.length);
+			
+			int offset = vertices.size();
+			
+			for(int i = 0; i < source.length; i++) {
+				Vertex v = source[i];
+				
+				minX = Math.min(minX, xs[i]);
+				minY = Math.min(minY, ys[i]);
+				maxX = Math.max(maxX, xs[i]);
+				maxY = Math.max(maxY, ys[i]);
+				
+				vertices.add(new VertexTex(new Vector3f(xs[i], ys[i], v.getComponent(0).getN(2)),
+						new Vector2f(v.getComponent(1).getN(0), v.getComponent(1).getN(1))));
+			}
+			
+			for(int i : r.getMesh().getIndices())
+				indices.add(offset + i);
+		}
+		
+		/**
+		 * 
+		 * Uploads the geometry of this cell and creates its renderer.
+		 * 
+		 */
+		void bake() {
+			int[] data = new int[indices.size()];
+			for(int i = 0; i < data.length; i++)
+				data[i] = indices.get(i);
+			
+			renderer = new Renderer(new Mesh(vertices.toArray(new VertexTex[vertices.size()]), data), new Transform(), texture)
+					.setLayer(layer)
+					.setOpaque(opaque);
+			
+			vertices.clear();
+			indices.clear();
+		}
+		
+		/**
+		 * 
+		 * Returns whether or not this cell overlaps the specified view bounds.
+		 * 
+		 * @param view - the view bounds as left, right, bottom, top
+		 * @return true if this cell is visible
+		 */
+		boolean isVisible(float[] view) {
+			float left = Math.min(view[0], view[1]);
+			float right = Math.max(view[0], view[1]);
+			float bottom = Math.min(view[2], view[3]);
+			float top = Math.max(view[2], view[3]);
+			
+			return maxX >= left && minX <= right && maxY >= bottom && minY <= top;
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package apie.gfx.backend;
+
+/**
+ * 
+ * Holds the render backend currently used by the engine.
+ * <p>
+ * The backend must be set before any mesh, texture or shader program is created,
+ * since those allocate their driver objects through it.
+ * 
+ * @author SK
+ * 
+ */
+public final class Backend {
+	
+	private static RenderBackend current = new GLRenderBackend();
+	
+	/**
+	 * 
+	 * Returns the render backend currently in use.
+	 * 
+	 * @return the render backend currently in use
+	 */
+	public static final RenderBackend get() {
+		return current;
+	}
+	
+	/**
+	 * 
+	 * Sets the render backend to use from now on.
+	 * 
+	 * @param backend - the render backend to use
+	 */
+	public static final void set(RenderBackend backend) {
+		if(backend == null)
+			throw new IllegalArgumentException("Render backend cannot be null");
+		
+		current = backend;
+	}
+}
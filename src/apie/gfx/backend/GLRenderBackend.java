@@ -0,0 +1,279 @@
+package apie.gfx.backend;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+/**
+ * 
+ * The default backend. Forwards every call to LWJGL's OpenGL bindings.
+ * 
+ * @author SK
+ * 
+ */
+public class GLRenderBackend implements RenderBackend {
+	
+	public void endFrame() {}
+	
+	public void enable(int cap) {
+		GL11.glEnable(cap);
+	}
+	
+	public void disable(int cap) {
+		GL11.glDisable(cap);
+	}
+	
+	public void blendFunc(int sfactor, int dfactor) {
+		GL11.glBlendFunc(sfactor, dfactor);
+	}
+	
+	public void depthFunc(int func) {
+		GL11.glDepthFunc(func);
+	}
+	
+	public void depthMask(boolean flag) {
+		GL11.glDepthMask(flag);
+	}
+	
+	public void clearColor(float r, float g, float b, float a) {
+		GL11.glClearColor(r, g, b, a);
+	}
+	
+	public void clear(int mask) {
+		GL11.glClear(mask);
+	}
+	
+	public String getString(int name) {
+		return GL11.glGetString(name);
+	}
+	
+	public int genVertexArray() {
+		return GL30.glGenVertexArrays();
+	}
+	
+	public void bindVertexArray(int vao) {
+		GL30.glBindVertexArray(vao);
+	}
+	
+	public void deleteVertexArray(int vao) {
+		GL30.glDeleteVertexArrays(vao);
+	}
+	
+	public int genBuffer() {
+		return GL15.glGenBuffers();
+	}
+	
+	public void bindBuffer(int target, int buffer) {
+		GL15.glBindBuffer(target, buffer);
+	}
+	
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		GL15.glBufferData(target, data, usage);
+	}
+	
+	public void bufferData(int target, IntBuffer data, int usage) {
+		GL15.glBufferData(target, data, usage);
+	}
+	
+	public void bufferSubData(int target, long offset, FloatBuffer data) {
+		GL15.glBufferSubData(target, offset, data);
+	}
+	
+	public void deleteBuffers(IntBuffer buffers) {
+		GL15.glDeleteBuffers(buffers);
+	}
+	
+	public void enableVertexAttribArray(int index) {
+		GL20.glEnableVertexAttribArray(index);
+	}
+	
+	public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+		GL20.glVertexAttribPointer(index, size, type, normalized, stride, offset);
+	}
+	
+	public void drawArrays(int mode, int first, int count) {
+		GL11.glDrawArrays(mode, first, count);
+	}
+	
+	public void drawElements(int mode, int count, int type, long offset) {
+		GL11.glDrawElements(mode, count, type, offset);
+	}
+	
+	public int genTexture() {
+		return GL11.glGenTextures();
+	}
+	
+	public void activeTexture(int unit) {
+		GL13.glActiveTexture(unit);
+	}
+	
+	public void bindTexture(int target, int texture) {
+		GL11.glBindTexture(target, texture);
+	}
+	
+	public void texParameteri(int target, int pname, int param) {
+		GL11.glTexParameteri(target, pname, param);
+	}
+	
+	public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, IntBuffer pixels) {
+		GL11.glTexImage2D(target, level, internalFormat, width, height, 0, format, type, pixels);
+	}
+	
+	public void deleteTexture(int texture) {
+		GL11.glDeleteTextures(texture);
+	}
+	
+	public int createShader(int type) {
+		return GL20.glCreateShader(type);
+	}
+	
+	public void shaderSource(int shader, String source) {
+		GL20.glShaderSource(shader, source);
+	}
+	
+	public void compileShader(int shader) {
+		GL20.glCompileShader(shader);
+	}
+	
+	public int getShaderi(int shader, int pname) {
+		return GL20.glGetShaderi(shader, pname);
+	}
+	
+	public String getShaderInfoLog(int shader, int length) {
+		return GL20.glGetShaderInfoLog(shader, length);
+	}
+	
+	public void deleteShader(int shader) {
+		GL20.glDeleteShader(shader);
+	}
+	
+	public int createProgram() {
+		return GL20.glCreateProgram();
+	}
+	
+	public void attachShader(int program, int shader) {
+		GL20.glAttachShader(program, shader);
+	}
+	
+	public void detachShader(int program, int shader) {
+		GL20.glDetachShader(program, shader);
+	}
+	
+	public void linkProgram(int program) {
+		GL20.glLinkProgram(program);
+	}
+	
+	public int getProgrami(int program, int pname) {
+		return GL20.glGetProgrami(program, pname);
+	}
+	
+	public String getProgramInfoLog(int program, int length) {
+		return GL20.glGetProgramInfoLog(program, length);
+	}
+	
+	public void useProgram(int program) {
+		GL20.glUseProgram(program);
+	}
+	
+	public void deleteProgram(int program) {
+		GL20.glDeleteProgram(program);
+	}
+	
+	public int getUniformLocation(int program, String name) {
+		return GL20.glGetUniformLocation(program, name);
+	}
+	
+	public void uniform1i(int location, int i) {
+		GL20.glUniform1i(location, i);
+	}
+	
+	public void uniform1f(int location, float f) {
+		GL20.glUniform1f(location, f);
+	}
+	
+	public void uniform2f(int location, float x, float y) {
+		GL20.glUniform2f(location, x, y);
+	}
+	
+	public void uniform3f(int location, float x, float y, float z) {
+		GL20.glUniform3f(location, x, y, z);
+	}
+	
+	public void uniform4f(int location, float x, float y, float z, float w) {
+		GL20.glUniform4f(location, x, y, z, w);
+	}
+	
+	public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer matrix) {
+		GL20.glUniformMatrix4fv(location, transpose, matrix);
+	}
+	
+	public int genQuery() {
+		return GL15.glGenQueries();
+	}
+	
+	public void deleteQuery(int query) {
+		GL15.glDeleteQueries(query);
+	}
+	
+	public void queryCounter(int query, int target) {
+		GL33.glQueryCounter(query, target);
+	}
+	
+	public int getQueryObjecti(int query, int pname) {
+		return GL15.glGetQueryObjecti(query, pname);
+	}
+	
+	public long getQueryObjectui64(int query, int pname) {
+		return GL33.glGetQueryObjectui64(query, pname);
+	}
+	
+	public void viewport(int x, int y, int width, int height) {
+		GL11.glViewport(x, y, width, height);
+	}
+	
+	public int genFramebuffer() {
+		return GL30.glGenFramebuffers();
+	}
+	
+	public void bindFramebuffer(int target, int framebuffer) {
+		GL30.glBindFramebuffer(target, framebuffer);
+	}
+	
+	public void framebufferRenderbuffer(int target, int attachment, int renderbufferTarget, int renderbuffer) {
+		GL30.glFramebufferRenderbuffer(target, attachment, renderbufferTarget, renderbuffer);
+	}
+	
+	public int checkFramebufferStatus(int target) {
+		return GL30.glCheckFramebufferStatus(target);
+	}
+	
+	public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
+		GL30.glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+	}
+	
+	public void deleteFramebuffer(int framebuffer) {
+		GL30.glDeleteFramebuffers(framebuffer);
+	}
+	
+	public int genRenderbuffer() {
+		return GL30.glGenRenderbuffers();
+	}
+	
+	public void bindRenderbuffer(int target, int renderbuffer) {
+		GL30.glBindRenderbuffer(target, renderbuffer);
+	}
+	
+	public void renderbufferStorage(int target, int internalFormat, int width, int height) {
+		GL30.glRenderbufferStorage(target, internalFormat, width, height);
+	}
+	
+	public void deleteRenderbuffer(int renderbuffer) {
+		GL30.glDeleteRenderbuffers(renderbuffer);
+	}
+}
@@ -0,0 +1,194 @@
+package apie.gfx.backend;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+/**
+ * 
+ * A backend that does nothing. Object names are handed out from a counter and every status query succeeds,
+ * so the engine's CPU-side render path can run without a window or a GPU.
+ * 
+ * @author SK
+ * 
+ */
+public class NullRenderBackend implements RenderBackend {
+	
+	private int nextName = 1;
+	
+	/**
+	 * 
+	 * Returns a new unique object name.
+	 * 
+	 * @return a new unique object name
+	 */
+	private int genName() {
+		return nextName++;
+	}
+	
+	public void endFrame() {}
+	
+	public void enable(int cap) {}
+	
+	public void disable(int cap) {}
+	
+	public void blendFunc(int sfactor, int dfactor) {}
+	
+	public void depthFunc(int func) {}
+	
+	public void depthMask(boolean flag) {}
+	
+	public void clearColor(float r, float g, float b, float a) {}
+	
+	public void clear(int mask) {}
+	
+	public String getString(int name) {
+		return "Null backend";
+	}
+	
+	public int genVertexArray() {
+		return genName();
+	}
+	
+	public void bindVertexArray(int vao) {}
+	
+	public void deleteVertexArray(int vao) {}
+	
+	public int genBuffer() {
+		return genName();
+	}
+	
+	public void bindBuffer(int target, int buffer) {}
+	
+	public void bufferData(int target, FloatBuffer data, int usage) {}
+	
+	public void bufferData(int target, IntBuffer data, int usage) {}
+	
+	public void bufferSubData(int target, long offset, FloatBuffer data) {}
+	
+	public void deleteBuffers(IntBuffer buffers) {}
+	
+	public void enableVertexAttribArray(int index) {}
+	
+	public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {}
+	
+	public void drawArrays(int mode, int first, int count) {}
+	
+	public void drawElements(int mode, int count, int type, long offset) {}
+	
+	public int genTexture() {
+		return genName();
+	}
+	
+	public void activeTexture(int unit) {}
+	
+	public void bindTexture(int target, int texture) {}
+	
+	public void texParameteri(int target, int pname, int param) {}
+	
+	public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, IntBuffer pixels) {}
+	
+	public void deleteTexture(int texture) {}
+	
+	public int createShader(int type) {
+		return genName();
+	}
+	
+	public void shaderSource(int shader, String source) {}
+	
+	public void compileShader(int shader) {}
+	
+	public int getShaderi(int shader, int pname) {
+		return GL11.GL_TRUE;
+	}
+	
+	public String getShaderInfoLog(int shader, int length) {
+		return "";
+	}
+	
+	public void deleteShader(int shader) {}
+	
+	public int createProgram() {
+		return genName();
+	}
+	
+	public void attachShader(int program, int shader) {}
+	
+	public void detachShader(int program, int shader) {}
+	
+	public void linkProgram(int program) {}
+	
+	public int getProgrami(int program, int pname) {
+		return GL11.GL_TRUE;
+	}
+	
+	public String getProgramInfoLog(int program, int length) {
+		return "";
+	}
+	
+	public void useProgram(int program) {}
+	
+	public void deleteProgram(int program) {}
+	
+	public int getUniformLocation(int program, String name) {
+		return genName();
+	}
+	
+	public void uniform1i(int location, int i) {}
+	
+	public void uniform1f(int location, float f) {}
+	
+	public void uniform2f(int location, float x, float y) {}
+	
+	public void uniform3f(int location, float x, float y, float z) {}
+	
+	public void uniform4f(int location, float x, float y, float z, float w) {}
+	
+	public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer matrix) {}
+	
+	public int genQuery() {
+		return genName();
+	}
+	
+	public void deleteQuery(int query) {}
+	
+	public void queryCounter(int query, int target) {}
+	
+	public int getQueryObjecti(int query, int pname) {
+		return GL11.GL_TRUE;
+	}
+	
+	public long getQueryObjectui64(int query, int pname) {
+		return 0;
+	}
+	
+	public void viewport(int x, int y, int width, int height) {}
+	
+	public int genFramebuffer() {
+		return genName();
+	}
+	
+	public void bindFramebuffer(int target, int framebuffer) {}
+	
+	public void framebufferRenderbuffer(int target, int attachment, int renderbufferTarget, int renderbuffer) {}
+	
+	public int checkFramebufferStatus(int target) {
+		return GL30.GL_FRAMEBUFFER_COMPLETE;
+	}
+	
+	public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {}
+	
+	public void deleteFramebuffer(int framebuffer) {}
+	
+	public int genRenderbuffer() {
+		return genName();
+	}
+	
+	public void bindRenderbuffer(int target, int renderbuffer) {}
+	
+	public void renderbufferStorage(int target, int internalFormat, int width, int height) {}
+	
+	public void deleteRenderbuffer(int renderbuffer) {}
+}
@@ -0,0 +1,488 @@
+package apie.gfx.backend;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * 
+ * A backend that counts draw calls, state changes and uploaded bytes per frame before forwarding
+ * every call to another backend. Wrap a {@link NullRenderBackend} to profile headlessly,
+ * or a {@link GLRenderBackend} to profile a running game.
+ * <p>
+ * Counters for the frame in progress are moved to the "last frame" counters on {@link #endFrame()}.
+ * 
+ * @author SK
+ * 
+ */
+public class RecordingRenderBackend implements RenderBackend {
+	
+	private final RenderBackend delegate;
+	
+	//The frame in progress
+	private int drawCalls;
+	private long vertices;
+	private int stateChanges;
+	private int uniformUploads;
+	private long uploadedBytes;
+	
+	//The previous complete frame
+	private int lastDrawCalls;
+	private long lastVertices;
+	private int lastStateChanges;
+	private int lastUniformUploads;
+	private long lastUploadedBytes;
+	
+	private long frames;
+	
+	/**
+	 * 
+	 * Constructs a recording backend that does not forward to any graphics driver.
+	 * 
+	 */
+	public RecordingRenderBackend() {
+		this(new NullRenderBackend());
+	}
+	
+	/**
+	 * 
+	 * Constructs a recording backend that forwards every call to the specified backend.
+	 * 
+	 * @param delegate - the backend to forward to
+	 */
+	public RecordingRenderBackend(RenderBackend delegate) {
+		this.delegate = delegate;
+	}
+	
+	public void endFrame() {
+		lastDrawCalls = drawCalls;
+		lastVertices = vertices;
+		lastStateChanges = stateChanges;
+		lastUniformUploads = uniformUploads;
+		lastUploadedBytes = uploadedBytes;
+		frames++;
+		
+		reset();
+		
+		delegate.endFrame();
+	}
+	
+	/**
+	 * 
+	 * Clears the counters of the frame in progress.
+	 * 
+	 * @return this recording backend instance
+	 */
+	public RecordingRenderBackend reset() {
+		drawCalls = 0;
+		vertices = 0;
+		stateChanges = 0;
+		uniformUploads = 0;
+		uploadedBytes = 0;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of draw calls issued during the previous frame.
+	 * 
+	 * @return the number of draw calls of the previous frame
+	 */
+	public int getDrawCalls() {
+		return lastDrawCalls;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of vertices (or indices for indexed draws) submitted during the previous frame.
+	 * 
+	 * @return the number of vertices of the previous frame
+	 */
+	public long getVertices() {
+		return lastVertices;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of binds, capability toggles and blend function changes during the previous frame.
+	 * 
+	 * @return the number of state changes of the previous frame
+	 */
+	public int getStateChanges() {
+		return lastStateChanges;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of uniform uploads during the previous frame.
+	 * 
+	 * @return the number of uniform uploads of the previous frame
+	 */
+	public int getUniformUploads() {
+		return lastUniformUploads;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of bytes uploaded to buffers, textures and uniforms during the previous frame.
+	 * 
+	 * @return the number of bytes uploaded during the previous frame
+	 */
+	public long getUploadedBytes() {
+		return lastUploadedBytes;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of draw calls issued so far during the frame in progress.
+	 * 
+	 * @return the number of draw calls of the current frame
+	 */
+	public int getCurrentDrawCalls() {
+		return drawCalls;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of state changes so far during the frame in progress.
+	 * 
+	 * @return the number of state changes of the current frame
+	 */
+	public int getCurrentStateChanges() {
+		return stateChanges;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of bytes uploaded so far during the frame in progress.
+	 * 
+	 * @return the number of bytes uploaded during the current frame
+	 */
+	public long getCurrentUploadedBytes() {
+		return uploadedBytes;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of frames completed since this backend was created.
+	 * 
+	 * @return the number of completed frames
+	 */
+	public long getFrames() {
+		return frames;
+	}
+	
+	/**
+	 * 
+	 * Returns the backend calls are forwarded to.
+	 * 
+	 * @return the backend calls are forwarded to
+	 */
+	public RenderBackend getDelegate() {
+		return delegate;
+	}
+	
+	/**
+	 * 
+	 * Returns a summary of the previous frame.
+	 * 
+	 * @return a summary of the previous frame
+	 */
+	public String toString() {
+		return "Draw calls: " + lastDrawCalls + "\tVertices: " + lastVertices + "\tState changes: " + lastStateChanges
+				+ "\tUniforms: " + lastUniformUploads + "\tUploaded bytes: " + lastUploadedBytes;
+	}
+	
+	public void enable(int cap) {
+		stateChanges++;
+		delegate.enable(cap);
+	}
+	
+	public void disable(int cap) {
+		stateChanges++;
+		delegate.disable(cap);
+	}
+	
+	public void blendFunc(int sfactor, int dfactor) {
+		stateChanges++;
+		delegate.blendFunc(sfactor, dfactor);
+	}
+	
+	public void depthFunc(int func) {
+		stateChanges++;
+		delegate.depthFunc(func);
+	}
+	
+	public void depthMask(boolean flag) {
+		stateChanges++;
+		delegate.depthMask(flag);
+	}
+	
+	public void clearColor(float r, float g, float b, float a) {
+		stateChanges++;
+		delegate.clearColor(r, g, b, a);
+	}
+	
+	public void clear(int mask) {
+		delegate.clear(mask);
+	}
+	
+	public String getString(int name) {
+		return delegate.getString(name);
+	}
+	
+	public int genVertexArray() {
+		return delegate.genVertexArray();
+	}
+	
+	public void bindVertexArray(int vao) {
+		stateChanges++;
+		delegate.bindVertexArray(vao);
+	}
+	
+	public void deleteVertexArray(int vao) {
+		delegate.deleteVertexArray(vao);
+	}
+	
+	public int genBuffer() {
+		return delegate.genBuffer();
+	}
+	
+	public void bindBuffer(int target, int buffer) {
+		stateChanges++;
+		delegate.bindBuffer(target, buffer);
+	}
+	
+	public void bufferData(int target, FloatBuffer data, int usage) {
+		uploadedBytes += (long)data.remaining() * Float.BYTES;
+		delegate.bufferData(target, data, usage);
+	}
+	
+	public void bufferData(int target, IntBuffer data, int usage) {
+		uploadedBytes += (long)data.remaining() * Integer.BYTES;
+		delegate.bufferData(target, data, usage);
+	}
+	
+	public void bufferSubData(int target, long offset, FloatBuffer data) {
+		uploadedBytes += (long)data.remaining() * Float.BYTES;
+		delegate.bufferSubData(target, offset, data);
+	}
+	
+	public void deleteBuffers(IntBuffer buffers) {
+		delegate.deleteBuffers(buffers);
+	}
+	
+	public void enableVertexAttribArray(int index) {
+		stateChanges++;
+		delegate.enableVertexAttribArray(index);
+	}
+	
+	public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset) {
+		stateChanges++;
+		delegate.vertexAttribPointer(index, size, type, normalized, stride, offset);
+	}
+	
+	public void drawArrays(int mode, int first, int count) {
+		drawCalls++;
+		vertices += count;
+		delegate.drawArrays(mode, first, count);
+	}
+	
+	public void drawElements(int mode, int count, int type, long offset) {
+		drawCalls++;
+		vertices += count;
+		delegate.drawElements(mode, count, type, offset);
+	}
+	
+	public int genTexture() {
+		return delegate.genTexture();
+	}
+	
+	public void activeTexture(int unit) {
+		stateChanges++;
+		delegate.activeTexture(unit);
+	}
+	
+	public void bindTexture(int target, int texture) {
+		stateChanges++;
+		delegate.bindTexture(target, texture);
+	}
+	
+	public void texParameteri(int target, int pname, int param) {
+		stateChanges++;
+		delegate.texParameteri(target, pname, param);
+	}
+	
+	public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, IntBuffer pixels) {
+		uploadedBytes += (long)pixels.remaining() * Integer.BYTES;
+		delegate.texImage2D(target, level, internalFormat, width, height, format, type, pixels);
+	}
+	
+	public void deleteTexture(int texture) {
+		delegate.deleteTexture(texture);
+	}
+	
+	public int createShader(int type) {
+		return delegate.createShader(type);
+	}
+	
+	public void shaderSource(int shader, String source) {
+		delegate.shaderSource(shader, source);
+	}
+	
+	public void compileShader(int shader) {
+		delegate.compileShader(shader);
+	}
+	
+	public int getShaderi(int shader, int pname) {
+		return delegate.getShaderi(shader, pname);
+	}
+	
+	public String getShaderInfoLog(int shader, int length) {
+		return delegate.getShaderInfoLog(shader, length);
+	}
+	
+	public void deleteShader(int shader) {
+		delegate.deleteShader(shader);
+	}
+	
+	public int createProgram() {
+		return delegate.createProgram();
+	}
+	
+	public void attachShader(int program, int shader) {
+		delegate.attachShader(program, shader);
+	}
+	
+	public void detachShader(int program, int shader) {
+		delegate.detachShader(program, shader);
+	}
+	
+	public void linkProgram(int program) {
+		delegate.linkProgram(program);
+	}
+	
+	public int getProgrami(int program, int pname) {
+		return delegate.getProgrami(program, pname);
+	}
+	
+	public String getProgramInfoLog(int program, int length) {
+		return delegate.getProgramInfoLog(program, length);
+	}
+	
+	public void useProgram(int program) {
+		stateChanges++;
+		delegate.useProgram(program);
+	}
+	
+	public void deleteProgram(int program) {
+		delegate.deleteProgram(program);
+	}
+	
+	public int getUniformLocation(int program, String name) {
+		return delegate.getUniformLocation(program, name);
+	}
+	
+	public void uniform1i(int location, int i) {
+		uniformUploads++;
+		uploadedBytes += Integer.BYTES;
+		delegate.uniform1i(location, i);
+	}
+	
+	public void uniform1f(int location, float f) {
+		uniformUploads++;
+		uploadedBytes += Float.BYTES;
+		delegate.uniform1f(location, f);
+	}
+	
+	public void uniform2f(int location, float x, float y) {
+		uniformUploads++;
+		uploadedBytes += 2 * Float.BYTES;
+		delegate.uniform2f(location, x, y);
+	}
+	
+	public void uniform3f(int location, float x, float y, float z) {
+		uniformUploads++;
+		uploadedBytes += 3 * Float.BYTES;
+		delegate.uniform3f(location, x, y, z);
+	}
+	
+	public void uniform4f(int location, float x, float y, float z, float w) {
+		uniformUploads++;
+		uploadedBytes += 4 * Float.BYTES;
+		delegate.uniform4f(location, x, y, z, w);
+	}
+	
+	public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer matrix) {
+		uniformUploads++;
+		uploadedBytes += (long)matrix.remaining() * Float.BYTES;
+		delegate.uniformMatrix4fv(location, transpose, matrix);
+	}
+	
+	public int genQuery() {
+		return delegate.genQuery();
+	}
+	
+	public void deleteQuery(int query) {
+		delegate.deleteQuery(query);
+	}
+	
+	public void queryCounter(int query, int target) {
+		delegate.queryCounter(query, target);
+	}
+	
+	public int getQueryObjecti(int query, int pname) {
+		return delegate.getQueryObjecti(query, pname);
+	}
+	
+	public long getQueryObjectui64(int query, int pname) {
+		return delegate.getQueryObjectui64(query, pname);
+	}
+	
+	public void viewport(int x, int y, int width, int height) {
+		stateChanges++;
+		delegate.viewport(x, y, width, height);
+	}
+	
+	public int genFramebuffer() {
+		return delegate.genFramebuffer();
+	}
+	
+	public void bindFramebuffer(int target, int framebuffer) {
+		stateChanges++;
+		delegate.bindFramebuffer(target, framebuffer);
+	}
+	
+	public void framebufferRenderbuffer(int target, int attachment, int renderbufferTarget, int renderbuffer) {
+		delegate.framebufferRenderbuffer(target, attachment, renderbufferTarget, renderbuffer);
+	}
+	
+	public int checkFramebufferStatus(int target) {
+		return delegate.checkFramebufferStatus(target);
+	}
+	
+	public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
+		drawCalls++;
+		delegate.blitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+	}
+	
+	public void deleteFramebuffer(int framebuffer) {
+		delegate.deleteFramebuffer(framebuffer);
+	}
+	
+	public int genRenderbuffer() {
+		return delegate.genRenderbuffer();
+	}
+	
+	public void bindRenderbuffer(int target, int renderbuffer) {
+		stateChanges++;
+		delegate.bindRenderbuffer(target, renderbuffer);
+	}
+	
+	public void renderbufferStorage(int target, int internalFormat, int width, int height) {
+		delegate.renderbufferStorage(target, internalFormat, width, height);
+	}
+	
+	public void deleteRenderbuffer(int renderbuffer) {
+		delegate.deleteRenderbuffer(renderbuffer);
+	}
+}
@@ -0,0 +1,490 @@
+package apie.gfx.backend;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * 
+ * The set of graphics calls the engine makes. Meshes, textures, shader programs and renderers
+ * only talk to the graphics driver through the backend returned by {@link Backend#get()}.
+ * <p>
+ * All enumerations and object names follow OpenGL conventions, so GL constants may be passed straight through.
+ * 
+ * @author SK
+ * 
+ */
+public interface RenderBackend {
+	
+	//Frame
+	
+	/**
+	 * 
+	 * Called once at the end of each frame, just before the buffers are swapped.
+	 * 
+	 */
+	public void endFrame();
+	
+	//State
+	
+	/**
+	 * 
+	 * Mirrors {@code glEnable}.
+	 * 
+	 */
+	public void enable(int cap);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDisable}.
+	 * 
+	 */
+	public void disable(int cap);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBlendFunc}.
+	 * 
+	 */
+	public void blendFunc(int sfactor, int dfactor);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDepthFunc}.
+	 * 
+	 */
+	public void depthFunc(int func);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDepthMask}.
+	 * 
+	 */
+	public void depthMask(boolean flag);
+	
+	/**
+	 * 
+	 * Mirrors {@code glClearColor}.
+	 * 
+	 */
+	public void clearColor(float r, float g, float b, float a);
+	
+	/**
+	 * 
+	 * Mirrors {@code glClear}.
+	 * 
+	 */
+	public void clear(int mask);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetString}.
+	 * 
+	 */
+	public String getString(int name);
+	
+	//Vertex arrays and buffers
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenVertexArrays}.
+	 * 
+	 */
+	public int genVertexArray();
+	
+	/**
+	 * 
+	 * Mirrors {@code glBindVertexArray}.
+	 * 
+	 */
+	public void bindVertexArray(int vao);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteVertexArrays}.
+	 * 
+	 */
+	public void deleteVertexArray(int vao);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenBuffers}.
+	 * 
+	 */
+	public int genBuffer();
+	
+	/**
+	 * 
+	 * Mirrors {@code glBindBuffer}.
+	 * 
+	 */
+	public void bindBuffer(int target, int buffer);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBufferData}.
+	 * 
+	 */
+	public void bufferData(int target, FloatBuffer data, int usage);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBufferData}.
+	 * 
+	 */
+	public void bufferData(int target, IntBuffer data, int usage);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBufferSubData}.
+	 * 
+	 */
+	public void bufferSubData(int target, long offset, FloatBuffer data);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteBuffers}.
+	 * 
+	 */
+	public void deleteBuffers(IntBuffer buffers);
+	
+	/**
+	 * 
+	 * Mirrors {@code glEnableVertexAttribArray}.
+	 * 
+	 */
+	public void enableVertexAttribArray(int index);
+	
+	/**
+	 * 
+	 * Mirrors {@code glVertexAttribPointer}.
+	 * 
+	 */
+	public void vertexAttribPointer(int index, int size, int type, boolean normalized, int stride, long offset);
+	
+	//Drawing
+	
+	/**
+	 * 
+	 * Mirrors {@code glDrawArrays}.
+	 * 
+	 */
+	public void drawArrays(int mode, int first, int count);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDrawElements}.
+	 * 
+	 */
+	public void drawElements(int mode, int count, int type, long offset);
+	
+	//Textures
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenTextures}.
+	 * 
+	 */
+	public int genTexture();
+	
+	/**
+	 * 
+	 * Mirrors {@code glActiveTexture}.
+	 * 
+	 */
+	public void activeTexture(int unit);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBindTexture}.
+	 * 
+	 */
+	public void bindTexture(int target, int texture);
+	
+	/**
+	 * 
+	 * Mirrors {@code glTexParameteri}.
+	 * 
+	 */
+	public void texParameteri(int target, int pname, int param);
+	
+	/**
+	 * 
+	 * Mirrors {@code glTexImage2D}.
+	 * 
+	 */
+	public void texImage2D(int target, int level, int internalFormat, int width, int height, int format, int type, IntBuffer pixels);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteTextures}.
+	 * 
+	 */
+	public void deleteTexture(int texture);
+	
+	//Shaders
+	
+	/**
+	 * 
+	 * Mirrors {@code glCreateShader}.
+	 * 
+	 */
+	public int createShader(int type);
+	
+	/**
+	 * 
+	 * Mirrors {@code glShaderSource}.
+	 * 
+	 */
+	public void shaderSource(int shader, String source);
+	
+	/**
+	 * 
+	 * Mirrors {@code glCompileShader}.
+	 * 
+	 */
+	public void compileShader(int shader);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetShaderi}.
+	 * 
+	 */
+	public int getShaderi(int shader, int pname);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetShaderInfoLog}.
+	 * 
+	 */
+	public String getShaderInfoLog(int shader, int length);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteShader}.
+	 * 
+	 */
+	public void deleteShader(int shader);
+	
+	/**
+	 * 
+	 * Mirrors {@code glCreateProgram}.
+	 * 
+	 */
+	public int createProgram();
+	
+	/**
+	 * 
+	 * Mirrors {@code glAttachShader}.
+	 * 
+	 */
+	public void attachShader(int program, int shader);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDetachShader}.
+	 * 
+	 */
+	public void detachShader(int program, int shader);
+	
+	/**
+	 * 
+	 * Mirrors {@code glLinkProgram}.
+	 * 
+	 */
+	public void linkProgram(int program);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetProgrami}.
+	 * 
+	 */
+	public int getProgrami(int program, int pname);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetProgramInfoLog}.
+	 * 
+	 */
+	public String getProgramInfoLog(int program, int length);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUseProgram}.
+	 * 
+	 */
+	public void useProgram(int program);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteProgram}.
+	 * 
+	 */
+	public void deleteProgram(int program);
+	
+	//Uniforms
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetUniformLocation}.
+	 * 
+	 */
+	public int getUniformLocation(int program, String name);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniform1i}.
+	 * 
+	 */
+	public void uniform1i(int location, int i);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniform1f}.
+	 * 
+	 */
+	public void uniform1f(int location, float f);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniform2f}.
+	 * 
+	 */
+	public void uniform2f(int location, float x, float y);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniform3f}.
+	 * 
+	 */
+	public void uniform3f(int location, float x, float y, float z);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniform4f}.
+	 * 
+	 */
+	public void uniform4f(int location, float x, float y, float z, float w);
+	
+	/**
+	 * 
+	 * Mirrors {@code glUniformMatrix4fv}.
+	 * 
+	 */
+	public void uniformMatrix4fv(int location, boolean transpose, FloatBuffer matrix);
+	
+	//Framebuffers
+	
+	/**
+	 * 
+	 * Mirrors {@code glViewport}.
+	 * 
+	 */
+	public void viewport(int x, int y, int width, int height);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenFramebuffers}.
+	 * 
+	 */
+	public int genFramebuffer();
+	
+	/**
+	 * 
+	 * Mirrors {@code glBindFramebuffer}.
+	 * 
+	 */
+	public void bindFramebuffer(int target, int framebuffer);
+	
+	/**
+	 * 
+	 * Mirrors {@code glFramebufferRenderbuffer}.
+	 * 
+	 */
+	public void framebufferRenderbuffer(int target, int attachment, int renderbufferTarget, int renderbuffer);
+	
+	/**
+	 * 
+	 * Mirrors {@code glCheckFramebufferStatus}.
+	 * 
+	 */
+	public int checkFramebufferStatus(int target);
+	
+	/**
+	 * 
+	 * Mirrors {@code glBlitFramebuffer}.
+	 * 
+	 */
+	public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteFramebuffers}.
+	 * 
+	 */
+	public void deleteFramebuffer(int framebuffer);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenRenderbuffers}.
+	 * 
+	 */
+	public int genRenderbuffer();
+	
+	/**
+	 * 
+	 * Mirrors {@code glBindRenderbuffer}.
+	 * 
+	 */
+	public void bindRenderbuffer(int target, int renderbuffer);
+	
+	/**
+	 * 
+	 * Mirrors {@code glRenderbufferStorage}.
+	 * 
+	 */
+	public void renderbufferStorage(int target, int internalFormat, int width, int height);
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteRenderbuffers}.
+	 * 
+	 */
+	public void deleteRenderbuffer(int renderbuffer);
+	
+	//Queries
+	
+	/**
+	 * 
+	 * Mirrors {@code glGenQueries}.
+	 * 
+	 */
+	public int genQuery();
+	
+	/**
+	 * 
+	 * Mirrors {@code glDeleteQueries}.
+	 * 
+	 */
+	public void deleteQuery(int query);
+	
+	/**
+	 * 
+	 * Mirrors {@code glQueryCounter}.
+	 * 
+	 */
+	public void queryCounter(int query, int target);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetQueryObjecti}.
+	 * 
+	 */
+	public int getQueryObjecti(int query, int pname);
+	
+	/**
+	 * 
+	 * Mirrors {@code glGetQueryObjectui64}.
+	 * 
+	 */
+	public long getQueryObjectui64(int query, int pname);
+}
@@ -21,6 +21,7 @@ public class FontShaderProgram extends ShaderProgram {
 	protected void registerUniformLocations() {
 		registerUniformLocation("m_projection");
 		registerUniformLocation("m_transform");
+		registerUniformLocation("f_layer");
 		registerUniformLocation("t_sampler");
 		registerUniformLocation("width");
 		registerUniformLocation("edge");
@@ -77,11 +77,16 @@ public class Button extends GUIElement {
 	 * @return this button instance
 	 */
 	public Button setFont(FontRenderer fontRenderer) {
+		if(this.fontRenderer != null)
+			this.fontRenderer.setParent(null);
+		
 		this.fontRenderer = fontRenderer;
 		
+		//Positioned relative to the button, so the text follows it
+		fontRenderer.setParent(renderer);
 		fontRenderer.setPosition(
-				renderer.getX() - fontRenderer.getWidth() / 2,
-				renderer.getY() + fontRenderer.getAverageHeight()
+				-fontRenderer.getWidth() / 2,
+				fontRenderer.getAverageHeight()
 		);
 		
 		return this;
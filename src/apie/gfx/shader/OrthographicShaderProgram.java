@@ -17,6 +17,9 @@ import apie.util.Util;
 
 public class OrthographicShaderProgram extends ShaderProgram {
 	
+	//Layers are mapped into clip space depth from this range, higher layers being closer to the viewer
+	public static final float DEPTH_RANGE = 1024;
+	
 	private static float left, right, bottom, top;
 	private static final Matrix4f projection = new Matrix4f();
 	
@@ -36,6 +39,7 @@ public class OrthographicShaderProgram extends ShaderProgram {
 		registerUniformLocation("m_projection");
 		registerUniformLocation("m_transform");
 		registerUniformLocation("m_view");
+		registerUniformLocation("f_layer");
 		registerUniformLocation("t_sampler");
 	}
 	
@@ -61,7 +65,7 @@ public class OrthographicShaderProgram extends ShaderProgram {
 		
 		projection.set(0, 0, 2f/(right-left));	projection.set(1, 0, 0);				projection.set(2, 0, 0);	projection.set(3, 0, -((right+left)/(right-left)));
 		projection.set(0, 1, 0);				projection.set(1, 1, 2f/(top-bottom));	projection.set(2, 1, 0);	projection.set(3, 1, -((top+bottom)/(top-bottom)));
-		projection.set(0, 2, 0);				projection.set(1, 2, 0);		 		projection.set(2, 2, 1);	projection.set(3, 2, 0);
+		projection.set(0, 2, 0);				projection.set(1, 2, 0);		 		projection.set(2, 2, -1f/DEPTH_RANGE);	projection.set(3, 2, 0);
 		projection.set(0, 3, 0);				projection.set(1, 3, 0);		 		projection.set(2, 3, 0);	projection.set(3, 3, 1);
 		
 		return projection;
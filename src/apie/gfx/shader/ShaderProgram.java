@@ -13,6 +13,7 @@ import org.lwjgl.opengl.GL30;
 import org.lwjgl.opengl.GL31;
 
 import apie.gfx.Vertex;
+import apie.gfx.backend.Backend;
 import apie.gfx.shader.StructDefiner.GLSLType;
 import apie.math.Matrix4f;
 import apie.math.Vector2f;
@@ -44,24 +45,24 @@ public abstract class ShaderProgram {
 		int vsh = createShader(vshp, GL_VERTEX_SHADER);
 		int fsh = createShader(fshp, GL_FRAGMENT_SHADER);
 		
-		id = glCreateProgram();
+		id = Backend.get().createProgram();
 		
-		glAttachShader(id, vsh);
-		glAttachShader(id, fsh);
+		Backend.get().attachShader(id, vsh);
+		Backend.get().attachShader(id, fsh);
 		
-		glLinkProgram(id);
+		Backend.get().linkProgram(id);
 		
-		if(glGetProgrami(id, GL_LINK_STATUS) == GL_FALSE) {
+		if(Backend.get().getProgrami(id, GL_LINK_STATUS) == GL_FALSE) {
 			System.err.println("Error linking shader program \"" + id + "\"");
 			System.err.println("-------------------------------- START --------------------------------");
-			System.err.println(glGetProgramInfoLog(id, glGetProgrami(id, GL_INFO_LOG_LENGTH)));
+			System.err.println(Backend.get().getProgramInfoLog(id, Backend.get().getProgrami(id, GL_INFO_LOG_LENGTH)));
 			System.err.println("--------------------------------  END  --------------------------------");
 		}
 		
-		glDetachShader(id, vsh);
-		glDetachShader(id, fsh);
-		glDeleteShader(vsh);
-		glDeleteShader(fsh);
+		Backend.get().detachShader(id, vsh);
+		Backend.get().detachShader(id, fsh);
+		Backend.get().deleteShader(vsh);
+		Backend.get().deleteShader(fsh);
 		
 		ul = new HashMap<>();
 		registerUniformLocations();
@@ -77,14 +78,14 @@ public abstract class ShaderProgram {
 	 */
 	private int createShader(String path, int type) {
 		
-		int shader = glCreateShader(type);
-		glShaderSource(shader, Loader.loadSource(path));
-		glCompileShader(shader);
+		int shader = Backend.get().createShader(type);
+		Backend.get().shaderSource(shader, Loader.loadSource(path));
+		Backend.get().compileShader(shader);
 		
-		if(glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+		if(Backend.get().getShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
 			System.err.println("Error in " + (type == GL_VERTEX_SHADER ? "vertex" : "fragment") + " shader at \"" + path + "\"");
 			System.err.println("-------------------------------- START --------------------------------");
-			System.err.println(glGetShaderInfoLog(shader, glGetShaderi(shader, GL_INFO_LOG_LENGTH)));
+			System.err.println(Backend.get().getShaderInfoLog(shader, Backend.get().getShaderi(shader, GL_INFO_LOG_LENGTH)));
 			System.err.println("--------------------------------  END  --------------------------------");
 		}
 	
@@ -99,7 +100,7 @@ public abstract class ShaderProgram {
 	public void bind() {
 		if(id == currentProgram)
 			return;
-		glUseProgram(id);
+		Backend.get().useProgram(id);
 		currentProgram = id;
 	}
 	
@@ -129,23 +130,23 @@ public abstract class ShaderProgram {
 			FloatBuffer buffer = Util.createFloatBuffer(vertices.length * vertices[0].getComponent(i).getDimension());
 			
 			for(Vertex v : vertices) {
-				buffer.put(v.getComponent(i).getData());
+				v.getComponent(i).store(buffer);
 			}
 			
 			buffer.flip();
 			
-			int vbo = GL15.glGenBuffers();
+			int vbo = Backend.get().genBuffer();
 			
 			vbos.put(vbo);
 			
-			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+			Backend.get().bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
 			
-			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, usage);
+			Backend.get().bufferData(GL15.GL_ARRAY_BUFFER, buffer, usage);
 			
-			GL20.glEnableVertexAttribArray(i);
-			GL20.glVertexAttribPointer(i, vertices[0].getComponent(i).getDimension(), GL11.GL_FLOAT, false, 0, 0);
+			Backend.get().enableVertexAttribArray(i);
+			Backend.get().vertexAttribPointer(i, vertices[0].getComponent(i).getDimension(), GL11.GL_FLOAT, false, 0, 0);
 			
-			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+			Backend.get().bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
 		}
 		
 		vbos.flip();
@@ -223,7 +224,7 @@ public abstract class ShaderProgram {
 	 * @return
 	 */
 	private int getUniformLocation(String uniform) {
-		return glGetUniformLocation(id, uniform);
+		return Backend.get().getUniformLocation(id, uniform);
 	}
 	
 	/**
@@ -236,7 +237,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendMatrix(String target, Matrix4f matrix) {
 		bind();
-		glUniformMatrix4fv(ul.get(target), false, Util.toFloatBuffer(matrix));
+		Backend.get().uniformMatrix4fv(ul.get(target), false, Util.toFloatBuffer(matrix));
 		return this;
 	}
 	
@@ -264,7 +265,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendInt(String target, int i) {
 		bind();
-		glUniform1i(ul.get(target), i);
+		Backend.get().uniform1i(ul.get(target), i);
 		return this;
 	}
 	
@@ -292,7 +293,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendFloat(String target, float f) {
 		bind();
-		glUniform1f(ul.get(target), f);
+		Backend.get().uniform1f(ul.get(target), f);
 		return this;
 	}
 	
@@ -320,7 +321,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendVec2(String target, Vector2f vec2) {
 		bind();
-		glUniform2f(ul.get(target), vec2.getX(), vec2.getY());
+		Backend.get().uniform2f(ul.get(target), vec2.getX(), vec2.getY());
 		return this;
 	}
 	
@@ -348,7 +349,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendVec3(String target, Vector3f vec3) {
 		bind();
-		glUniform3f(ul.get(target), vec3.getX(), vec3.getY(), vec3.getZ());
+		Backend.get().uniform3f(ul.get(target), vec3.getX(), vec3.getY(), vec3.getZ());
 		return this;
 	}
 	
@@ -376,7 +377,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendVec4(String target, Vector4f vec4) {
 		bind();
-		glUniform4f(ul.get(target), vec4.getX(), vec4.getY(), vec4.getZ(), vec4.getW());
+		Backend.get().uniform4f(ul.get(target), vec4.getX(), vec4.getY(), vec4.getZ(), vec4.getW());
 		return this;
 	}
 	
@@ -416,19 +417,19 @@ public abstract class ShaderProgram {
 			case FLOAT:
 			case INT:
 			case DOUBLE:
-				glUniform1f(ul.get(location), data[offset]);
+				Backend.get().uniform1f(ul.get(location), data[offset]);
 				break;
 			case VEC2:
-				glUniform2f(ul.get(location), data[offset], data[offset + 1]);
+				Backend.get().uniform2f(ul.get(location), data[offset], data[offset + 1]);
 				break;
 			case VEC3:
-				glUniform3f(ul.get(location), data[offset], data[offset + 1], data[offset + 2]);
+				Backend.get().uniform3f(ul.get(location), data[offset], data[offset + 1], data[offset + 2]);
 				break;
 			case VEC4:
-				glUniform4f(ul.get(location), data[offset], data[offset + 1], data[offset + 2], data[offset + 3]);
+				Backend.get().uniform4f(ul.get(location), data[offset], data[offset + 1], data[offset + 2], data[offset + 3]);
 				break;
 			case MAT4:
-				glUniformMatrix4fv(ul.get(location), false, Util.toFloatBuffer(Arrays.copyOfRange(data, offset, offset + GLSLType.MAT4.LENGTH - 1)));
+				Backend.get().uniformMatrix4fv(ul.get(location), false, Util.toFloatBuffer(Arrays.copyOfRange(data, offset, offset + GLSLType.MAT4.LENGTH - 1)));
 				break;
 			}
 			offset += type.LENGTH;
@@ -461,7 +462,7 @@ public abstract class ShaderProgram {
 	 */
 	public ShaderProgram sendBoolean(String target, boolean bool) {
 		bind();
-		glUniform1i(ul.get(target), bool ? GL11.GL_TRUE : GL11.GL_FALSE);
+		Backend.get().uniform1i(ul.get(target), bool ? GL11.GL_TRUE : GL11.GL_FALSE);
 		return this;
 	}
 	
@@ -485,7 +486,7 @@ public abstract class ShaderProgram {
 	 * 
 	 */
 	public void destroy() {
-		glDeleteProgram(id);
+		Backend.get().deleteProgram(id);
 		System.out.println("Destroyed program with ID: " + id);
 	}
 	
@@ -39,7 +39,8 @@ public class Animation  {
 	public void update(float dt) {
 		deltaStack += dt;
 		if(deltaStack > 1f / speed) {
-			deltaStack = 0;
+			//Carry the remainder so playback does not drift
+			deltaStack -= 1f / speed;
 			dynTex.swap(indices[mark]);
 			if(mark < indices.length - 1)
 				if(indices[mark + 1] == -1)
@@ -0,0 +1,432 @@
+package apie.gfx.texture;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * Advances many sprite animations at once. Instead of one {@link Animation} object per sprite,
+ * all instance state is kept in parallel primitive arrays and updated in a single pass.
+ * <p>
+ * Clips are defined once with {@link #addClip(SpriteSheet, float, boolean, int...)} and instances are started
+ * with {@link #play(int)}. Time left over when a frame ends is carried into the next frame, so playback never drifts
+ * regardless of frame rate. Rather than swapping textures, the system writes the atlas UV rectangle of each
+ * instance's current frame to {@link #getUVs()}, which a batch renderer can read directly.
+ * 
+ * @author SK
+ * 
+ */
+public class AnimationSystem {
+	
+	/**
+	 * 
+	 * Receives the events attached to clip frames with {@link AnimationSystem#setEvent(int, int, int)}.
+	 * 
+	 */
+	public interface EventListener {
+		
+		/**
+		 * 
+		 * Called when an instance enters a frame with an event attached.
+		 * 
+		 * @param instance - the instance that entered the frame
+		 * @param event - the event attached to the frame
+		 */
+		public void onEvent(int instance, int event);
+	}
+	
+	public static final int NO_EVENT = -1;
+	
+	private static final int DEFAULT_CAPACITY = 64;
+	
+	//Clips
+	private int clipCount;
+	private int[] clipStart = new int[8];
+	private int[] clipLength = new int[8];
+	private float[] clipFrameTime = new float[8];
+	private boolean[] clipLoop = new boolean[8];
+	private boolean[] clipHasEvents = new boolean[8];
+	private Texture[] clipAtlas = new Texture[8];
+	
+	//Frames of all clips, four UV components and one event per frame
+	private int frameCount;
+	private float[] frameUVs = new float[32];
+	private int[] frameEvents = new int[8];
+	
+	//Instances
+	private int instanceCount;
+	private int[] clip;
+	private int[] frame;
+	private float[] elapsed;
+	private float[] speed;
+	private boolean[] playing;
+	private boolean[] alive;
+	private float[] uvs;
+	
+	private int[] free;
+	private int freeCount;
+	
+	private EventListener listener;
+	
+	/**
+	 * 
+	 * Constructs a new animation system with the default initial capacity.
+	 * 
+	 */
+	public AnimationSystem() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * 
+	 * Constructs a new animation system. The capacity grows as needed.
+	 * 
+	 * @param capacity - the initial number of instances to allocate room for
+	 */
+	public AnimationSystem(int capacity) {
+		capacity = Math.max(1, capacity);
+		clip = new int[capacity];
+		frame = new int[capacity];
+		elapsed = new float[capacity];
+		speed = new float[capacity];
+		playing = new boolean[capacity];
+		alive = new boolean[capacity];
+		uvs = new float[capacity * 4];
+		free = new int[capacity];
+	}
+	
+	/**
+	 * 
+	 * Defines a new clip. The sprite sheet must have been loaded with {@link SpriteSheet#loadAtlas(String)}.
+	 * 
+	 * @param sheet - the sprite sheet to take frames from
+	 * @param fps - the number of frames shown per second
+	 * @param loop - whether to restart after the last frame or stop on it
+	 * @param indices - the sprite sheet indices of each frame
+	 * @return the id of the new clip
+	 */
+	public int addClip(SpriteSheet sheet, float fps, boolean loop, int... indices) {
+		if(fps <= 0)
+			throw new IllegalArgumentException("Clip frame rate must be positive");
+		if(indices.length == 0)
+			throw new IllegalArgumentException("Clip must contain at least one frame");
+		
+		if(clipCount == clipStart.length) {
+			int n = clipCount * 2;
+			clipStart = Arrays.copyOf(clipStart, n);
+			clipLength = Arrays.copyOf(clipLength, n);
+			clipFrameTime = Arrays.copyOf(clipFrameTime, n);
+			clipLoop = Arrays.copyOf(clipLoop, n);
+			clipHasEvents = Arrays.copyOf(clipHasEvents, n);
+			clipAtlas = Arrays.copyOf(clipAtlas, n);
+		}
+		
+		if(frameCount + indices.length > frameEvents.length) {
+			int n = Math.max(frameEvents.length * 2, frameCount + indices.length);
+			frameEvents = Arrays.copyOf(frameEvents, n);
+			frameUVs = Arrays.copyOf(frameUVs, n * 4);
+		}
+		
+		for(int i = 0; i < indices.length; i++) {
+			sheet.getUV(indices[i], frameUVs, (frameCount + i) * 4);
+			frameEvents[frameCount + i] = NO_EVENT;
+		}
+		
+		int c = clipCount++;
+		clipStart[c] = frameCount;
+		clipLength[c] = indices.length;
+		clipFrameTime[c] = 1f / fps;
+		clipLoop[c] = loop;
+		clipAtlas[c] = sheet.getAtlas();
+		
+		frameCount += indices.length;
+		
+		return c;
+	}
+	
+	/**
+	 * 
+	 * Attaches an event to a frame of a clip. The event is reported to the listener every time an instance enters the frame.
+	 * 
+	 * @param clip - the clip to attach the event to
+	 * @param frame - the frame within the clip
+	 * @param event - the event to report, or {@link #NO_EVENT} to remove it
+	 * @return this animation system instance
+	 */
+	public AnimationSystem setEvent(int clip, int frame, int event) {
+		checkClip(clip);
+		if(frame < 0 || frame >= clipLength[clip])
+			throw new IllegalArgumentException("Frame " + frame + " is outside of clip " + clip);
+		
+		frameEvents[clipStart[clip] + frame] = event;
+		
+		clipHasEvents[clip] = false;
+		for(int i = 0; i < clipLength[clip]; i++)
+			if(frameEvents[clipStart[clip] + i] != NO_EVENT)
+				clipHasEvents[clip] = true;
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Sets the listener receiving frame events.
+	 * 
+	 * @param listener - the listener to set, or null to ignore events
+	 * @return this animation system instance
+	 */
+	public AnimationSystem setListener(EventListener listener) {
+		this.listener = listener;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Starts a new instance of the specified clip from its first frame.
+	 * 
+	 * @param clip - the clip to play
+	 * @return the id of the new instance
+	 */
+	public int play(int clip) {
+		checkClip(clip);
+		
+		int i;
+		if(freeCount > 0) {
+			i = free[--freeCount];
+		} else {
+			if(instanceCount == alive.length)
+				grow();
+			i = instanceCount++;
+		}
+		
+		alive[i] = true;
+		speed[i] = 1;
+		setClip(i, clip);
+		
+		return i;
+	}
+	
+	/**
+	 * 
+	 * Switches an instance to another clip and restarts it from the first frame.
+	 * 
+	 * @param instance - the instance to switch
+	 * @param clip - the clip to switch to
+	 * @return this animation system instance
+	 */
+	public AnimationSystem setClip(int instance, int clip) {
+		checkInstance(instance);
+		checkClip(clip);
+		
+		this.clip[instance] = clip;
+		frame[instance] = 0;
+		elapsed[instance] = 0;
+		playing[instance] = true;
+		System.arraycopy(frameUVs, clipStart[clip] * 4, uvs, instance * 4, 4);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Removes an instance. Its id may be reused by a later call to {@link #play(int)}.
+	 * 
+	 * @param instance - the instance to remove
+	 */
+	public void remove(int instance) {
+		checkInstance(instance);
+		
+		alive[instance] = false;
+		playing[instance] = false;
+		
+		if(freeCount == free.length)
+			free = Arrays.copyOf(free, free.length * 2);
+		free[freeCount++] = instance;
+	}
+	
+	/**
+	 * 
+	 * Advances all playing instances.
+	 * 
+	 * @param dt - the time passed since the previous update
+	 */
+	public void update(float dt) {
+		for(int i = 0; i < instanceCount; i++) {
+			if(!playing[i])
+				continue;
+			
+			float e = elapsed[i] + dt * speed[i];
+			int c = clip[i];
+			float t = clipFrameTime[c];
+			
+			if(e < t) {
+				elapsed[i] = e;
+				continue;
+			}
+			
+			int f = frame[i];
+			int length = clipLength[c];
+			
+			if(clipHasEvents[c] && listener != null) {
+				//Step frame by frame so no event is skipped
+				while(e >= t) {
+					e -= t;
+					if(++f == length) {
+						if(clipLoop[c]) {
+							f = 0;
+						} else {
+							f = length - 1;
+							e = 0;
+							playing[i] = false;
+							break;
+						}
+					}
+					
+					int event = frameEvents[clipStart[c] + f];
+					if(event != NO_EVENT)
+						listener.onEvent(i, event);
+				}
+			} else {
+				int steps = (int)(e / t);
+				e -= steps * t;
+				f += steps;
+				
+				if(f >= length) {
+					if(clipLoop[c]) {
+						f %= length;
+					} else {
+						f = length - 1;
+						e = 0;
+						playing[i] = false;
+					}
+				}
+			}
+			
+			frame[i] = f;
+			elapsed[i] = e;
+			System.arraycopy(frameUVs, (clipStart[c] + f) * 4, uvs, i * 4, 4);
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns the UV rectangles of all instances, four floats per instance: sMin, tMin, sMax, tMax.
+	 * The rectangle of instance i starts at index i * 4. The array is reused and may be replaced when the system grows.
+	 * 
+	 * @return the UV rectangles of all instances
+	 */
+	public float[] getUVs() {
+		return uvs;
+	}
+	
+	/**
+	 * 
+	 * Returns the atlas texture frames of the specified clip are taken from.
+	 * 
+	 * @param clip - the clip
+	 * @return the atlas texture of the clip
+	 */
+	public Texture getAtlas(int clip) {
+		checkClip(clip);
+		return clipAtlas[clip];
+	}
+	
+	/**
+	 * 
+	 * Sets the playback speed multiplier of an instance.
+	 * 
+	 * @param instance - the instance
+	 * @param speed - the multiplier to set
+	 * @return this animation system instance
+	 */
+	public AnimationSystem setSpeed(int instance, float speed) {
+		checkInstance(instance);
+		this.speed[instance] = speed;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Pauses or resumes an instance.
+	 * 
+	 * @param instance - the instance
+	 * @param playing - whether or not the instance should advance
+	 * @return this animation system instance
+	 */
+	public AnimationSystem setPlaying(int instance, boolean playing) {
+		checkInstance(instance);
+		this.playing[instance] = playing;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether or not an instance is advancing. Non-looping instances stop on their last frame.
+	 * 
+	 * @param instance - the instance
+	 * @return true if the instance is playing
+	 */
+	public boolean isPlaying(int instance) {
+		checkInstance(instance);
+		return playing[instance];
+	}
+	
+	/**
+	 * 
+	 * Returns the current frame of an instance within its clip.
+	 * 
+	 * @param instance - the instance
+	 * @return the current frame of the instance
+	 */
+	public int getFrame(int instance) {
+		checkInstance(instance);
+		return frame[instance];
+	}
+	
+	/**
+	 * 
+	 * Returns the clip an instance is playing.
+	 * 
+	 * @param instance - the instance
+	 * @return the clip of the instance
+	 */
+	public int getClip(int instance) {
+		checkInstance(instance);
+		return clip[instance];
+	}
+	
+	/**
+	 * 
+	 * Returns the number of instance slots in use, including removed ones awaiting reuse.
+	 * 
+	 * @return the number of instance slots in use
+	 */
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+	
+	/**
+	 * 
+	 * Doubles the capacity of all instance arrays.
+	 * 
+	 */
+	private void grow() {
+		int n = alive.length * 2;
+		clip = Arrays.copyOf(clip, n);
+		frame = Arrays.copyOf(frame, n);
+		elapsed = Arrays.copyOf(elapsed, n);
+		speed = Arrays.copyOf(speed, n);
+		playing = Arrays.copyOf(playing, n);
+		alive = Arrays.copyOf(alive, n);
+		uvs = Arrays.copyOf(uvs, n * 4);
+	}
+	
+	private void checkClip(int clip) {
+		if(clip < 0 || clip >= clipCount)
+			throw new IllegalArgumentException("No clip with id " + clip);
+	}
+	
+	private void checkInstance(int instance) {
+		if(instance < 0 || instance >= instanceCount || !alive[instance])
+			throw new IllegalArgumentException("No instance with id " + instance);
+	}
+}
@@ -10,6 +10,9 @@ public class SpriteSheet {
 
 	private Texture[][] textures;
 	
+	//The whole sheet as a single texture, for UV based rendering
+	private Texture atlas;
+	
 	private int totalWidth;
 	private int totalHeight;
 	
@@ -81,6 +84,54 @@ public class SpriteSheet {
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Loads the whole sprite sheet as a single atlas texture. Sprites are then addressed by UV rectangles
+	 * from {@link #getUV(int, float[], int)} instead of by binding a separate texture per sprite.
+	 * 
+	 * @param path - the path of the sprite sheet
+	 * @return this sprite sheet instance
+	 */
+	public SpriteSheet loadAtlas(String path) {
+		atlas = new Texture(path);
+		totalWidth = atlas.getWidth();
+		totalHeight = atlas.getHeight();
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes the UV rectangle of the specified sprite within the atlas as sMin, tMin, sMax, tMax,
+	 * matching the texture coordinate order of {@link apie.gfx.QuadRenderer}.
+	 * 
+	 * @param index - the index of the sprite, counted row by row
+	 * @param dest - the array to write to
+	 * @param offset - the offset in the array to start writing at
+	 */
+	public void getUV(int index, float[] dest, int offset) {
+		if(totalWidth == 0 || totalHeight == 0)
+			throw new IllegalStateException("Sprite sheet has no loaded image to take UV coordinates from");
+		
+		int x = index % spritesX;
+		int y = index / spritesX;
+		
+		dest[offset] = (float)(x * frameWidth) / totalWidth;
+		dest[offset + 1] = (float)(y * frameHeight) / totalHeight;
+		dest[offset + 2] = (float)((x + 1) * frameWidth) / totalWidth;
+		dest[offset + 3] = (float)((y + 1) * frameHeight) / totalHeight;
+	}
+	
+	/**
+	 * 
+	 * Returns the atlas texture of this sprite sheet, or null if {@link #loadAtlas(String)} has not been called.
+	 * 
+	 * @return the atlas texture of this sprite sheet
+	 */
+	public Texture getAtlas() {
+		return atlas;
+	}
+	
 	/**
 	 * 
 	 * Binds the specified sprite for render usage.
@@ -7,6 +7,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
 import org.lwjgl.opengl.GL13;
 
+import apie.gfx.backend.Backend;
 import apie.library.Library;
 import apie.util.Loader;
 import apie.util.Util;
@@ -91,21 +92,21 @@ public class Texture {
 		if(pixels.length != width * height)
 			throw new IllegalArgumentException("Pixel array not compatible with specified width and height");
 		
-		id = GL11.glGenTextures();
+		id = Backend.get().genTexture();
 		
-		GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-		GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+		Backend.get().bindTexture(GL11.GL_TEXTURE_2D, id);
+		Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+		Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
 		
 		if(repeat) {
-			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
+			Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
+			Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
 		} else {
-			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
-			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+			Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
+			Backend.get().texParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
 		}
 		
-		GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL12.GL_BGRA, GL11.GL_UNSIGNED_BYTE, Util.toIntBuffer(pixels));
+		Backend.get().texImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, GL12.GL_BGRA, GL11.GL_UNSIGNED_BYTE, Util.toIntBuffer(pixels));
 		
 		System.out.println("Generated new texture with ID: " + id);
 		
@@ -125,8 +126,8 @@ public class Texture {
 			throw new IllegalArgumentException("Texture target must be in range 0 - 31");
 		}
 		
-		GL13.glActiveTexture(GL13.GL_TEXTURE0 + texTarget);
-		GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+		Backend.get().activeTexture(GL13.GL_TEXTURE0 + texTarget);
+		Backend.get().bindTexture(GL11.GL_TEXTURE_2D, id);
 		return this;
 	}
 	
@@ -151,7 +152,7 @@ public class Texture {
 	public Texture setParameters(int param, int... pnames) {
 		bind();
 		for(int i : pnames)
-			GL11.glTexParameteri(GL11.GL_TEXTURE_2D, i, param);
+			Backend.get().texParameteri(GL11.GL_TEXTURE_2D, i, param);
 		return this;
 	}
 	
@@ -186,8 +187,8 @@ public class Texture {
 			throw new InvalidParameterException("Target must be in range 0 - 31");
 		}
 		
-		GL13.glActiveTexture(GL13.GL_TEXTURE0 + target);
-		GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+		Backend.get().activeTexture(GL13.GL_TEXTURE0 + target);
+		Backend.get().bindTexture(GL11.GL_TEXTURE_2D, 0);
 	}
 	
 	/**
@@ -226,7 +227,7 @@ public class Texture {
 	 * 
 	 */
 	public void destroy() {
-		GL11.glDeleteTextures(id);
+		Backend.get().deleteTexture(id);
 		System.out.println("Destroyed texture with ID: " + id);
 	}
 	
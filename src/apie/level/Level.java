@@ -11,6 +11,8 @@ import java.util.Scanner;
 
 import apie.debug.Debug;
 import apie.entity.EntityManager;
+import apie.gfx.RenderQueue;
+import apie.gfx.StaticBatch;
 import apie.physics.PhysicsEngine;
 import apie.util.Loader;
 
@@ -24,6 +26,14 @@ public class Level {
 	
 	protected PhysicsEngine pe;
 	
+	//Assets defined as static, baked into staticBatch once the level is loaded
+	protected ArrayList<Asset> staticAssets;
+	
+	protected StaticBatch staticBatch;
+	
+	//Whether asset renderers were offset for interpolation last frame and need resetting once it is disabled
+	private boolean interpolated;
+	
 	public Level(String path) {
 		loadLevel(path);
 	}
@@ -35,6 +45,8 @@ public class Level {
 		scriptEnvironment = new ScriptEnvironment(this);
 		
 		pe = new PhysicsEngine();
+		
+		staticAssets = new ArrayList<>();
 //		
 //		String source = Loader.loadSource(path);
 //		System.out.println(source);
@@ -114,6 +126,28 @@ public class Level {
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		}
+		
+		pe.buildStaticTree();
+		bakeStaticAssets();
+	}
+	
+	/**
+	 * 
+	 * Merges the renderers of all static assets into a static batch. Baked assets are hidden
+	 * but keep their bodies, so they still collide. Assets that cannot be baked are drawn normally.
+	 * 
+	 */
+	private void bakeStaticAssets() {
+		if(staticBatch != null)
+			staticBatch.destroy();
+		
+		staticBatch = new StaticBatch();
+		
+		for(Asset a : staticAssets)
+			if(a.getRenderer() != null && staticBatch.add(a.getRenderer()))
+				a.setVisible(false);
+		
+		staticBatch.bake();
 	}
 	
 	private int execCmd(String name, ArrayList<String> args) {
@@ -131,9 +165,29 @@ public class Level {
 	}
 	
 	public void draw() {
+		interpolate();
+		staticBatch.draw();
 		assetManager.draw();
 	}
 	
+	public void draw(RenderQueue queue) {
+		interpolate();
+		staticBatch.draw(queue);
+		assetManager.draw(queue);
+	}
+	
+	/**
+	 * 
+	 * Offsets the renderers of the assets to draw them between the last two physics steps, if the physics engine interpolates.
+	 * 
+	 */
+	private void interpolate() {
+		boolean interpolate = pe.isInterpolating();
+		if(interpolate || interpolated)
+			assetManager.interpolate(interpolate ? pe.getAlpha() : 1);
+		interpolated = interpolate;
+	}
+	
 	protected ScriptEnvironment getScriptEnvironment() {
 		return scriptEnvironment;
 	}
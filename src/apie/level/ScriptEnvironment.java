@@ -110,7 +110,7 @@ public class ScriptEnvironment {
 			if(TYPE == TYPE_LEVEL)
 				System.err.println("Cannot define renderer for a level");
 			else if(TYPE == TYPE_ASSET)
-				asset.getRenderer().setTexture(new Texture(p[0]));
+				asset.getRenderer().setTexture(loadTexture(p[0]));
 			break;
 			
 		//Define static
@@ -120,6 +120,7 @@ public class ScriptEnvironment {
 			else if(TYPE == TYPE_ASSET) {
 				asset.setBody(new Body(asset.transform, Float.parseFloat(p[0]), Float.parseFloat(p[1])).setAbsolute(true));
 				level.pe.addBody(asset.getBody());
+				level.staticAssets.add(asset);
 			}
 			break;
 		
@@ -162,4 +163,23 @@ public class ScriptEnvironment {
 		}
 			
 	}
+	
+	/**
+	 * 
+	 * Returns the texture at the specified path, loading and registering it the first time it is requested.
+	 * Sharing texture instances between assets allows their static geometry to be baked together.
+	 * 
+	 * @param path - the path of the texture
+	 * @return the texture at the specified path
+	 */
+	private Texture loadTexture(String path) {
+		Texture texture = Texture.get(path);
+		
+		if(texture == null) {
+			texture = new Texture(path);
+			Texture.register(path, texture);
+		}
+		
+		return texture;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package apie.math;
+
+/**
+ * 
+ * Approximations of the trigonometric and square root functions used by the math and physics hot paths.
+ * <p>
+ * {@link #sin(float)}, {@link #cos(float)} and {@link #atan2(float, float)} follow the global {@link Accuracy}:
+ * in {@link Accuracy#EXACT} mode they return the {@link Math} result rounded to float, in {@link Accuracy#FAST} mode
+ * they use the table and polynomial approximations below. The approximations can also be called directly.
+ * <p>
+ * {@link #invSqrt(float)} uses the hardware square root in both modes. On current JVMs a float square root and a
+ * division are about twice as fast as the bit-level approximation with the two Newton steps needed for physics accuracy.
+ * {@link #invSqrtFast(float)} remains for targets without a fast square root instruction.
+ * <p>
+ * Error bounds, measured by {@link FastMathBenchmark} over the documented input ranges:
+ * <ul>
+ * <li>{@link #sinTable(float)} and {@link #cosTable(float)}: absolute error below 4e-7 for |x| up to 1e4</li>
+ * <li>{@link #sinPoly(float)} and {@link #cosPoly(float)}: absolute error below 2e-7 for |x| up to 1e4</li>
+ * <li>{@link #atan2Poly(float, float)}: absolute error below 2.5e-6 radians</li>
+ * <li>{@link #invSqrtFast(float)}: relative error below 5e-6 for positive normal inputs</li>
+ * </ul>
+ * 
+ * @author SK
+ * 
+ */
+public final class FastMath {
+	
+	public static final float PI = (float)Math.PI;
+	public static final float TWO_PI = (float)(Math.PI * 2);
+	public static final float HALF_PI = (float)(Math.PI / 2);
+	public static final float DEG_TO_RAD = (float)(Math.PI / 180);
+	public static final float RAD_TO_DEG = (float)(180 / Math.PI);
+	
+	/**
+	 * 
+	 * The accuracy of the mode-dependent functions.
+	 * 
+	 */
+	public static enum Accuracy {
+		/** Results of the {@link Math} functions rounded to float. */
+		EXACT,
+		/** Results of the table and polynomial approximations. */
+		FAST;
+	}
+	
+	private static Accuracy accuracy = Accuracy.FAST;
+	private static boolean fast = true;
+	
+	//Sine over one full turn, with one extra entry so interpolation never wraps
+	private static final int TABLE_BITS = 12;
+	private static final int TABLE_SIZE = 1 << TABLE_BITS;
+	private static final int TABLE_MASK = TABLE_SIZE - 1;
+	private static final double TABLE_SCALE = TABLE_SIZE / (Math.PI * 2);
+	private static final float[] SIN_TABLE = new float[TABLE_SIZE + 1];
+	
+	static {
+		for(int i = 0; i <= TABLE_SIZE; i++)
+			SIN_TABLE[i] = (float)Math.sin(i * Math.PI * 2 / TABLE_SIZE);
+	}
+	
+	private static final float TWO_OVER_PI = (float)(2 / Math.PI);
+	private static final float HALF_PI_1 = 1.5703125f, HALF_PI_2 = 4.837512969970703125e-4f, HALF_PI_3 = 7.54978995489188216e-8f;
+	
+	//Minimax coefficients on [-pi/4, pi/4]
+	private static final float S1 = -1.6666654611E-1f, S2 = 8.3321608736E-3f, S3 = -1.9515295891E-4f;
+	private static final float C1 = 4.166664568298827E-2f, C2 = -1.388731625493765E-3f, C3 = 2.443315711809948E-5f;
+	
+	//Minimax coefficients of atan on [-1, 1]
+	private static final float A1 = 0.99997726f, A3 = -0.33262347f, A5 = 0.19354346f, A7 = -0.11643287f, A9 = 0.05265332f, A11 = -0.01172120f;
+	
+	/**
+	 * 
+	 * Sets the accuracy of the mode-dependent functions.
+	 * 
+	 * @param accuracy - the accuracy to use
+	 */
+	public static final void setAccuracy(Accuracy accuracy) {
+		if(accuracy == null)
+			throw new IllegalArgumentException("Accuracy cannot be null");
+		
+		FastMath.accuracy = accuracy;
+		fast = accuracy == Accuracy.FAST;
+	}
+	
+	/**
+	 * 
+	 * Returns the accuracy of the mode-dependent functions.
+	 * 
+	 * @return the current accuracy
+	 */
+	public static final Accuracy getAccuracy() {
+		return accuracy;
+	}
+	
+	/**
+	 * 
+	 * Returns the sine of the specified angle according to the current accuracy.
+	 * 
+	 * @param x - the angle in radians
+	 * @return the sine of the angle
+	 */
+	public static final float sin(float x) {
+		return fast ? sinTable(x) : (float)Math.sin(x);
+	}
+	
+	/**
+	 * 
+	 * Returns the cosine of the specified angle according to the current accuracy.
+	 * 
+	 * @param x - the angle in radians
+	 * @return the cosine of the angle
+	 */
+	public static final float cos(float x) {
+		return fast ? cosTable(x) : (float)Math.cos(x);
+	}
+	
+	/**
+	 * 
+	 * Returns the angle of the point (x, y) according to the current accuracy.
+	 * 
+	 * @param y - the y coordinate
+	 * @param x - the x coordinate
+	 * @return the angle in radians, in the range -pi to pi
+	 */
+	public static final float atan2(float y, float x) {
+		return fast ? atan2Poly(y, x) : (float)Math.atan2(y, x);
+	}
+	
+	/**
+	 * 
+	 * Returns the inverse square root of the specified value, computed in float precision.
+	 * 
+	 * @param x - the value, must be positive
+	 * @return 1 / sqrt(x)
+	 */
+	public static final float invSqrt(float x) {
+		return 1 / (float)Math.sqrt(x);
+	}
+	
+	/**
+	 * 
+	 * Returns the sine of the specified angle, linearly interpolated from a table of 4096 samples per turn.
+	 * 
+	 * @param x - the angle in radians
+	 * @return the approximate sine of the angle
+	 */
+	public static final float sinTable(float x) {
+		//Scaled in double so the fraction keeps its precision for large angles
+		double f = x * TABLE_SCALE;
+		int i = (int)f;
+		if(f < i)
+			i--;
+		
+		float t = (float)(f - i);
+		i &= TABLE_MASK;
+		float a = SIN_TABLE[i];
+		return a + (SIN_TABLE[i + 1] - a) * t;
+	}
+	
+	/**
+	 * 
+	 * Returns the cosine of the specified angle, linearly interpolated from a table of 4096 samples per turn.
+	 * 
+	 * @param x - the angle in radians
+	 * @return the approximate cosine of the angle
+	 */
+	public static final float cosTable(float x) {
+		//A quarter turn is exactly TABLE_SIZE / 4 entries, so the offset adds no error of its own
+		double f = x * TABLE_SCALE + (TABLE_SIZE >> 2);
+		int i = (int)f;
+		if(f < i)
+			i--;
+		
+		float t = (float)(f - i);
+		i &= TABLE_MASK;
+		float a = SIN_TABLE[i];
+		return a + (SIN_TABLE[i + 1] - a) * t;
+	}
+	
+	/**
+	 * 
+	 * Returns the sine of the specified angle, computed from minimax polynomials after reduction to [-pi/4, pi/4].
+	 * 
+	 * @param x - the angle in radians
+	 * @return the approximate sine of the angle
+	 */
+	public static final float sinPoly(float x) {
+		return poly(x, 0);
+	}
+	
+	/**
+	 * 
+	 * Returns the cosine of the specified angle, computed from minimax polynomials after reduction to [-pi/4, pi/4].
+	 * 
+	 * @param x - the angle in radians
+	 * @return the approximate cosine of the angle
+	 */
+	public static final float cosPoly(float x) {
+		return poly(x, 1);
+	}
+	
+	/**
+	 * 
+	 * Reduces the angle to [-pi/4, pi/4] and evaluates the sine or cosine polynomial for its quadrant.
+	 * A cosine is a sine a quarter turn ahead, so it only shifts the quadrant.
+	 * 
+	 * @param x - the angle in radians
+	 * @param shift - 0 for the sine, 1 for the cosine
+	 * @return the approximate sine or cosine of the angle
+	 */
+	private static float poly(float x, int shift) {
+		float f = x * TWO_OVER_PI;
+		int q = (int)(f < 0 ? f - 0.5f : f + 0.5f);
+		
+		//Cody-Waite reduction: pi/2 is split in three parts so each product is exact for moderate q
+		float r = x - q * HALF_PI_1 - q * HALF_PI_2 - q * HALF_PI_3;
+		q += shift;
+		
+		//Both polynomials are evaluated and blended so the quadrant is selected without a branch
+		float s = sinReduced(r);
+		float v = s + (cosReduced(r) - s) * (q & 1);
+		return v * (1 - (q & 2));
+	}
+	
+	/**
+	 * 
+	 * Returns the sine of an angle in [-pi/4, pi/4].
+	 * 
+	 * @param r - the reduced angle
+	 * @return the approximate sine
+	 */
+	private static float sinReduced(float r) {
+		float z = r * r;
+		return r + r * z * (S1 + z * (S2 + z * S3));
+	}
+	
+	/**
+	 * 
+	 * Returns the cosine of an angle in [-pi/4, pi/4].
+	 * 
+	 * @param r - the reduced angle
+	 * @return the approximate cosine
+	 */
+	private static float cosReduced(float r) {
+		float z = r * r;
+		return 1 - 0.5f * z + z * z * (C1 + z * (C2 + z * C3));
+	}
+	
+	/**
+	 * 
+	 * Returns the angle of the point (x, y), computed from a minimax polynomial for atan on [-1, 1].
+	 * 
+	 * @param y - the y coordinate
+	 * @param x - the x coordinate
+	 * @return the approximate angle in radians, in the range -pi to pi
+	 */
+	public static final float atan2Poly(float y, float x) {
+		float ax = Math.abs(x), ay = Math.abs(y);
+		
+		if(ax == 0 && ay == 0)
+			return 0;
+		
+		//Evaluate atan on the ratio that is at most 1 and mirror the result into the right octant
+		boolean swap = ay > ax;
+		float t = swap ? ax / ay : ay / ax;
+		float z = t * t;
+		float a = t * (A1 + z * (A3 + z * (A5 + z * (A7 + z * (A9 + z * A11)))));
+		
+		if(swap)
+			a = HALF_PI - a;
+		if(x < 0)
+			a = PI - a;
+		return y < 0 ? -a : a;
+	}
+	
+	/**
+	 * 
+	 * Returns the inverse square root of the specified value from the bit-level initial guess refined by two Newton steps.
+	 * 
+	 * @param x - the value, must be positive
+	 * @return the approximate 1 / sqrt(x)
+	 */
+	public static final float invSqrtFast(float x) {
+		float half = 0.5f * x;
+		float y = Float.intBitsToFloat(0x5f375a86 - (Float.floatToRawIntBits(x) >> 1));
+		y *= 1.5f - half * y * y;
+		y *= 1.5f - half * y * y;
+		return y;
+	}
+}
@@ -0,0 +1,131 @@
+package apie.math;
+
+import java.util.Random;
+
+import apie.debug.Benchmark;
+
+/**
+ * 
+ * Measures the maximum error of every {@link FastMath} approximation against the {@link Math} functions,
+ * and compares their speed. Run with a server VM: java -cp bin apie.math.FastMathBenchmark
+ * 
+ * @author SK
+ * 
+ */
+public final class FastMathBenchmark {
+	
+	private static final int COUNT = 100_000;
+	private static final int SAMPLES = 10_000_000;
+	
+	public static final void main(String[] args) {
+		Random random = new Random(1);
+		
+		float[] angles = new float[COUNT];
+		float[] xs = new float[COUNT];
+		float[] ys = new float[COUNT];
+		float[] values = new float[COUNT];
+		
+		for(int i = 0; i < COUNT; i++) {
+			angles[i] = (random.nextFloat() * 2 - 1) * 100;
+			xs[i] = random.nextFloat() * 2 - 1;
+			ys[i] = random.nextFloat() * 2 - 1;
+			values[i] = random.nextFloat() * 1000 + 1e-3f;
+		}
+		
+		//Errors
+		double sinTable = 0, cosTable = 0, sinPoly = 0, cosPoly = 0, atan2 = 0, invSqrt = 0;
+		
+		for(int i = 0; i < SAMPLES; i++) {
+			float x = (random.nextFloat() * 2 - 1) * 1e4f;
+			double sin = Math.sin(x), cos = Math.cos(x);
+			sinTable = Math.max(sinTable, Math.abs(FastMath.sinTable(x) - sin));
+			cosTable = Math.max(cosTable, Math.abs(FastMath.cosTable(x) - cos));
+			sinPoly = Math.max(sinPoly, Math.abs(FastMath.sinPoly(x) - sin));
+			cosPoly = Math.max(cosPoly, Math.abs(FastMath.cosPoly(x) - cos));
+			
+			float y = random.nextFloat() * 2 - 1, z = random.nextFloat() * 2 - 1;
+			atan2 = Math.max(atan2, Math.abs(FastMath.atan2Poly(y, z) - Math.atan2(y, z)));
+			
+			float v = Float.intBitsToFloat(random.nextInt(0x7f000000 - 0x00800000) + 0x00800000);
+			double exact = 1 / Math.sqrt(v);
+			invSqrt = Math.max(invSqrt, Math.abs(FastMath.invSqrtFast(v) - exact) / exact);
+		}
+		
+		System.out.printf("Max abs error  sinTable %.3g  cosTable %.3g  sinPoly %.3g  cosPoly %.3g  atan2Poly %.3g%n",
+				sinTable, cosTable, sinPoly, cosPoly, atan2);
+		System.out.printf("Max rel error  invSqrtFast %.3g%n", invSqrt);
+		
+		//Speed
+		Benchmark.compare("sin, table", new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float a : angles)
+					sum += (float)Math.sin(a);
+				Benchmark.consume(sum);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float a : angles)
+					sum += FastMath.sinTable(a);
+				Benchmark.consume(sum);
+			}
+		});
+		
+		Benchmark.compare("sin, polynomial", new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float a : angles)
+					sum += (float)Math.sin(a);
+				Benchmark.consume(sum);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float a : angles)
+					sum += FastMath.sinPoly(a);
+				Benchmark.consume(sum);
+			}
+		});
+		
+		Benchmark.compare("atan2, polynomial", new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(int i = 0; i < COUNT; i++)
+					sum += (float)Math.atan2(ys[i], xs[i]);
+				Benchmark.consume(sum);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(int i = 0; i < COUNT; i++)
+					sum += FastMath.atan2Poly(ys[i], xs[i]);
+				Benchmark.consume(sum);
+			}
+		});
+		
+		Benchmark.compare("inverse sqrt", new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float v : values)
+					sum += 1 / (float)Math.sqrt(v);
+				Benchmark.consume(sum);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				float sum = 0;
+				for(float v : values)
+					sum += FastMath.invSqrtFast(v);
+				Benchmark.consume(sum);
+			}
+		});
+	}
+}
@@ -0,0 +1,311 @@
+package apie.math;
+
+/**
+ * 
+ * A 2D affine matrix: the upper 2x2 linear part and a translation, six floats in total.
+ * <p>
+ * Points are transformed as x' = a * x + c * y + tx, y' = b * x + d * y + ty, so (a, b) and (c, d) are the first
+ * and second columns, laid out the same way as the upper left of a column-major {@link Matrix4f}.
+ * Transforms, the scene graph and static batching work in this form; a 4x4 matrix is only filled in when it is sent to a shader.
+ * <p>
+ * All operations are done in place or written to a destination matrix, none of them allocate.
+ * 
+ * @author SK
+ * 
+ */
+public class Matrix3x2f {
+	
+	public float a, b, c, d, tx, ty;
+	
+	/**
+	 * 
+	 * Constructs a new identity matrix.
+	 * 
+	 */
+	public Matrix3x2f() {
+		identity();
+	}
+	
+	/**
+	 * 
+	 * Constructs a new matrix with the specified values.
+	 * 
+	 * @param a - the first column's x component
+	 * @param b - the first column's y component
+	 * @param c - the second column's x component
+	 * @param d - the second column's y component
+	 * @param tx - the translation on the x-axis
+	 * @param ty - the translation on the y-axis
+	 */
+	public Matrix3x2f(float a, float b, float c, float d, float tx, float ty) {
+		set(a, b, c, d, tx, ty);
+	}
+	
+	/**
+	 * 
+	 * Loads the identity matrix.
+	 * 
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f identity() {
+		return set(1, 0, 0, 1, 0, 0);
+	}
+	
+	/**
+	 * 
+	 * Sets the values of this matrix.
+	 * 
+	 * @param a - the first column's x component
+	 * @param b - the first column's y component
+	 * @param c - the second column's x component
+	 * @param d - the second column's y component
+	 * @param tx - the translation on the x-axis
+	 * @param ty - the translation on the y-axis
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f set(float a, float b, float c, float d, float tx, float ty) {
+		this.a = a;
+		this.b = b;
+		this.c = c;
+		this.d = d;
+		this.tx = tx;
+		this.ty = ty;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Sets the values of this matrix to those of the specified one.
+	 * 
+	 * @param m - the matrix to copy
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f set(Matrix3x2f m) {
+		return set(m.a, m.b, m.c, m.d, m.tx, m.ty);
+	}
+	
+	/**
+	 * 
+	 * Sets this matrix to the 2D part of the specified 4x4 matrix.
+	 * 
+	 * @param m - the matrix to copy from
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f set(Matrix4f m) {
+		float[] v = m.matrix;
+		return set(v[0], v[1], v[4], v[5], v[12], v[13]);
+	}
+	
+	/**
+	 * 
+	 * Sets this matrix to the composition of a translation, a rotation and a scale, applied in reverse order.
+	 * 
+	 * @param x - the translation on the x-axis
+	 * @param y - the translation on the y-axis
+	 * @param sin - the sine of the rotation
+	 * @param cos - the cosine of the rotation
+	 * @param scaleX - the scale on the x-axis
+	 * @param scaleY - the scale on the y-axis
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f setTransform(float x, float y, float sin, float cos, float scaleX, float scaleY) {
+		return set(cos * scaleX, sin * scaleX, -sin * scaleY, cos * scaleY, x, y);
+	}
+	
+	/**
+	 * 
+	 * Sets this matrix to the composition of a translation, a rotation and a scale, applied in reverse order.
+	 * 
+	 * @param x - the translation on the x-axis
+	 * @param y - the translation on the y-axis
+	 * @param rotation - the z-axis rotation in degrees
+	 * @param scaleX - the scale on the x-axis
+	 * @param scaleY - the scale on the y-axis
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f setTransform(float x, float y, float rotation, float scaleX, float scaleY) {
+		float r = rotation * FastMath.DEG_TO_RAD;
+		return setTransform(x, y, FastMath.sin(r), FastMath.cos(r), scaleX, scaleY);
+	}
+	
+	/**
+	 * 
+	 * Multiplies this matrix with the specified right one, so the right matrix is applied first.
+	 * 
+	 * @param right - the right matrix to multiply with
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f mul(Matrix3x2f right) {
+		return mul(right, this);
+	}
+	
+	/**
+	 * 
+	 * Multiplies this matrix with the specified right one and stores the result in the destination matrix.
+	 * The destination may be either of the operands.
+	 * 
+	 * @param right - the right matrix to multiply with
+	 * @param dest - the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix3x2f mul(Matrix3x2f right, Matrix3x2f dest) {
+		float na = a * right.a + c * right.b;
+		float nb = b * right.a + d * right.b;
+		float nc = a * right.c + c * right.d;
+		float nd = b * right.c + d * right.d;
+		float ntx = a * right.tx + c * right.ty + tx;
+		float nty = b * right.tx + d * right.ty + ty;
+		return dest.set(na, nb, nc, nd, ntx, nty);
+	}
+	
+	/**
+	 * 
+	 * Returns the determinant of the linear part of this matrix.
+	 * 
+	 * @return the determinant of this matrix
+	 */
+	public float determinant() {
+		return a * d - b * c;
+	}
+	
+	/**
+	 * 
+	 * Inverts this matrix.
+	 * 
+	 * @return this matrix instance
+	 */
+	public Matrix3x2f invert() {
+		return invert(this);
+	}
+	
+	/**
+	 * 
+	 * Stores the inverse of this matrix in the destination matrix. The destination may be this matrix.
+	 * 
+	 * @param dest - the matrix to store the inverse in
+	 * @return the destination matrix
+	 */
+	public Matrix3x2f invert(Matrix3x2f dest) {
+		float det = determinant();
+		
+		if(det == 0)
+			throw new IllegalStateException("A singular matrix cannot be inverted");
+		
+		float inv = 1 / det;
+		float na = d * inv;
+		float nb = -b * inv;
+		float nc = -c * inv;
+		float nd = a * inv;
+		return dest.set(na, nb, nc, nd, -(na * tx + nc * ty), -(nb * tx + nd * ty));
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinate of the specified point transformed by this matrix.
+	 * 
+	 * @param x - the x coordinate of the point
+	 * @param y - the y coordinate of the point
+	 * @return the transformed x coordinate
+	 */
+	public float transformX(float x, float y) {
+		return a * x + c * y + tx;
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinate of the specified point transformed by this matrix.
+	 * 
+	 * @param x - the x coordinate of the point
+	 * @param y - the y coordinate of the point
+	 * @return the transformed y coordinate
+	 */
+	public float transformY(float x, float y) {
+		return b * x + d * y + ty;
+	}
+	
+	/**
+	 * 
+	 * Transforms the specified point by this matrix in place.
+	 * 
+	 * @param point - the point to transform
+	 * @return the specified point
+	 */
+	public Vector2f transformPoint(Vector2f point) {
+		return transformPoint(point, point);
+	}
+	
+	/**
+	 * 
+	 * Transforms the specified point by this matrix and stores the result in the destination vector.
+	 * 
+	 * @param point - the point to transform
+	 * @param dest - the vector to store the result in
+	 * @return the destination vector
+	 */
+	public Vector2f transformPoint(Vector2f point, Vector2f dest) {
+		float x = point.x;
+		float y = point.y;
+		return dest.set(a * x + c * y + tx, b * x + d * y + ty);
+	}
+	
+	/**
+	 * 
+	 * Transforms the specified direction by the linear part of this matrix and stores the result in the destination vector.
+	 * 
+	 * @param direction - the direction to transform
+	 * @param dest - the vector to store the result in
+	 * @return the destination vector
+	 */
+	public Vector2f transformDirection(Vector2f direction, Vector2f dest) {
+		float x = direction.x;
+		float y = direction.y;
+		return dest.set(a * x + c * y, b * x + d * y);
+	}
+	
+	/**
+	 * 
+	 * Writes this matrix to the specified 4x4 matrix. Only the 2D part is written,
+	 * so the z-axis and projective entries of the destination are left as they are.
+	 * 
+	 * @param dest - the matrix to write to
+	 * @return the destination matrix
+	 */
+	public Matrix4f get(Matrix4f dest) {
+		float[] m = dest.matrix;
+		m[0 + 0 * 4] = a;
+		m[1 + 0 * 4] = b;
+		m[0 + 1 * 4] = c;
+		m[1 + 1 * 4] = d;
+		m[0 + 3 * 4] = tx;
+		m[1 + 3 * 4] = ty;
+		return dest;
+	}
+	
+	/**
+	 * 
+	 * Writes the six values of this matrix to the specified array in the order a, b, c, d, tx, ty.
+	 * 
+	 * @param dest - the array to write to
+	 * @param offset - the index to start writing at
+	 * @return the specified array
+	 */
+	public float[] get(float[] dest, int offset) {
+		dest[offset] = a;
+		dest[offset + 1] = b;
+		dest[offset + 2] = c;
+		dest[offset + 3] = d;
+		dest[offset + 4] = tx;
+		dest[offset + 5] = ty;
+		return dest;
+	}
+	
+	/**
+	 * 
+	 * Returns a representative string of this matrix.
+	 * 
+	 * @return a representative string of this matrix
+	 */
+	public String toString() {
+		return a + "\t" + c + "\t" + tx + "\n" + b + "\t" + d + "\t" + ty + "\n";
+	}
+}
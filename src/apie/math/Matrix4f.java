@@ -48,26 +48,69 @@ public class Matrix4f {
 	
 	/**
 	 * 
-	 * Multiplies this matrix with the specified right one.
+	 * Multiplies this matrix with the specified right one, so the right matrix is applied first.
 	 * 
 	 * @param right - the right matrix to multiply with
 	 * @return this matrix instance
 	 */
 	public Matrix4f multiply(Matrix4f right) {
-		float[] result = new float[16];
+		return multiply(right, this);
+	}
+	
+	/**
+	 * 
+	 * Multiplies this matrix with the specified right one and stores the result in the destination matrix.
+	 * The destination may be either of the operands.
+	 * 
+	 * @param right - the right matrix to multiply with
+	 * @param dest - the matrix to store the result in
+	 * @return the destination matrix
+	 */
+	public Matrix4f multiply(Matrix4f right, Matrix4f dest) {
+		float[] l = matrix, r = right.matrix, m = dest.matrix;
 		
-		for(int i = 0; i < 4; i++) {
-			for(int j = 0; j < 4; j++) {
-				for(int k = 0; k < 4; k++) {
-					result[i*4+j] += matrix[k+i*4] * right.toFloatArray()[j+k*4];
-				}
-			}
+		float l00 = l[0], l01 = l[1], l02 = l[2], l03 = l[3];
+		float l10 = l[4], l11 = l[5], l12 = l[6], l13 = l[7];
+		float l20 = l[8], l21 = l[9], l22 = l[10], l23 = l[11];
+		float l30 = l[12], l31 = l[13], l32 = l[14], l33 = l[15];
+		
+		for(int i = 0; i < 16; i += 4) {
+			float r0 = r[i], r1 = r[i + 1], r2 = r[i + 2], r3 = r[i + 3];
+			m[i] = l00 * r0 + l10 * r1 + l20 * r2 + l30 * r3;
+			m[i + 1] = l01 * r0 + l11 * r1 + l21 * r2 + l31 * r3;
+			m[i + 2] = l02 * r0 + l12 * r1 + l22 * r2 + l32 * r3;
+			m[i + 3] = l03 * r0 + l13 * r1 + l23 * r2 + l33 * r3;
 		}
 		
-		matrix = result;
+		return dest;
+	}
+	
+	/**
+	 * 
+	 * Sets the values of this matrix to those of the specified one.
+	 * 
+	 * @param m - the matrix to copy
+	 * @return this matrix instance
+	 */
+	public Matrix4f set(Matrix4f m) {
+		System.arraycopy(m.matrix, 0, matrix, 0, 16);
+		
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Sets this matrix to the specified 2D affine matrix. The z-axis and projective entries are set to identity.
+	 * 
+	 * @param m - the affine matrix to set
+	 * @return this matrix instance
+	 */
+	public Matrix4f set(Matrix3x2f m) {
+		loadIdentity();
+		
+		return m.get(this);
+	}
+	
 	/**
 	 * 
 	 * Translates this matrix with the specified vector.
@@ -76,7 +119,7 @@ public class Matrix4f {
 	 * @return this matrix instance
 	 */
 	public Matrix4f translate(Vector2f vec2) {
-		return translate(new Vector3f(vec2.getX(), vec2.getY(), 0));
+		return translate(vec2.x, vec2.y, 0);
 	}
 	
 	/**
@@ -87,9 +130,22 @@ public class Matrix4f {
 	 * @return this matrix instance
 	 */
 	public Matrix4f translate(Vector3f vec3) {
-		matrix[0 + 3 * 4] += vec3.getX();
-		matrix[1 + 3 * 4] += vec3.getY();
-		matrix[2 + 3 * 4] += vec3.getZ();
+		return translate(vec3.x, vec3.y, vec3.z);
+	}
+	
+	/**
+	 * 
+	 * Translates this matrix.
+	 * 
+	 * @param x - the translation on the x-axis
+	 * @param y - the translation on the y-axis
+	 * @param z - the translation on the z-axis
+	 * @return this matrix instance
+	 */
+	public Matrix4f translate(float x, float y, float z) {
+		matrix[0 + 3 * 4] += x;
+		matrix[1 + 3 * 4] += y;
+		matrix[2 + 3 * 4] += z;
 		
 		return this;
 	}
@@ -115,9 +171,9 @@ public class Matrix4f {
 	 */
 	public Matrix4f rotate(float angle) {
 		
-		float r = (float)Math.toRadians(angle);
-		float sin = (float)Math.sin(r);
-		float cos = (float)Math.cos(r);
+		float r = angle * FastMath.DEG_TO_RAD;
+		float sin = FastMath.sin(r);
+		float cos = FastMath.cos(r);
 		
 		matrix[0 + 0 * 4] = cos;
 		matrix[0 + 1 * 4] = -sin;
@@ -0,0 +1,193 @@
+package apie.math;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * 
+ * Computes the world matrices of all parented transforms. Called once per frame by the GameStateManager, after the
+ * current state has been updated and before it is drawn.
+ * <p>
+ * Every transform that is part of a hierarchy is stored in flat arrays in breadth-first order, so each parent comes
+ * before its children and all world matrices are computed in a single pass. A world matrix is only recomposed if the
+ * transform's own version changed or its parent's world matrix was recomposed this pass, so unchanged subtrees cost
+ * one comparison per node. Transforms without parent or children are not part of the graph at all.
+ * <p>
+ * Transforms are held weakly, by their {@link TransformPool} slot, so a hierarchy that is no longer referenced anywhere
+ * else is garbage collected and its slots reclaimed. The graph drops it at the next update.
+ * 
+ * @author SK
+ * 
+ */
+public final class SceneGraph {
+	
+	//Every transform that has had children, roots are picked from these on rebuild
+	private static final Set<Transform> parents = Collections.newSetFromMap(new WeakHashMap<Transform, Boolean>());
+	
+	private static boolean structureChanged;
+	
+	//Nodes in breadth-first order, stored as pool slots so collected transforms are not kept alive
+	private static int count;
+	private static int[] slots = new int[64];
+	private static int[] parentIndex = new int[64];
+	private static int[] versions = new int[64];
+	private static boolean[] changed = new boolean[64];
+	
+	private static int recomposed;
+	
+	/**
+	 * 
+	 * Recomputes the world matrices of all transforms that have changed, along with those of their descendants.
+	 * 
+	 */
+	public static final void update() {
+		boolean force = false;
+		
+		if(structureChanged) {
+			rebuild();
+			force = true;
+		}
+		
+		recomposed = 0;
+		
+		for(int i = 0; i < count; i++) {
+			Transform t = TransformPool.getTransform(slots[i]);
+			
+			//The transform was collected, and its slot possibly reused, so the graph is laid out again next update
+			if(t == null || t.graphIndex != i) {
+				changed[i] = false;
+				structureChanged = true;
+				continue;
+			}
+			
+			int p = parentIndex[i];
+			int v = t.getVersion();
+			
+			if(!force && v == versions[i] && (p < 0 || !changed[p])) {
+				changed[i] = false;
+				continue;
+			}
+			
+			Matrix3x2f local = t.getAffine();
+			
+			if(p < 0)
+				t.worldAffine.set(local);
+			else
+				t.parent.worldAffine.mul(local, t.worldAffine);
+			
+			t.worldStale = true;
+			
+			versions[i] = v;
+			changed[i] = true;
+			recomposed++;
+		}
+	}
+	
+	/**
+	 * 
+	 * Rebuilds the breadth-first node order if the hierarchy has changed since the last update.
+	 * Called by transforms before they hand out a world matrix, so newly parented transforms are never left at the origin.
+	 * 
+	 */
+	static final void ensureBuilt() {
+		if(structureChanged)
+			update();
+	}
+	
+	/**
+	 * 
+	 * Flags the hierarchy as changed. Called by transforms when their parent is set.
+	 * 
+	 * @param parent - the new parent, or null if a transform was detached
+	 */
+	static final void structureChanged(Transform parent) {
+		if(parent != null)
+			parents.add(parent);
+		structureChanged = true;
+	}
+	
+	/**
+	 * 
+	 * Lays out all hierarchies breadth-first in the flat arrays.
+	 * 
+	 */
+	private static void rebuild() {
+		for(int i = 0; i < count; i++) {
+			Transform t = TransformPool.getTransform(slots[i]);
+			if(t != null && t.graphIndex == i)
+				t.graphIndex = -1;
+		}
+		count = 0;
+		
+		ArrayList<Transform> roots = new ArrayList<>();
+		for(Iterator<Transform> it = parents.iterator(); it.hasNext();) {
+			Transform t = it.next();
+			if(t.children == null || t.children.isEmpty())
+				it.remove();
+			else if(t.parent == null)
+				roots.add(t);
+		}
+		
+		for(Transform root : roots) {
+			int head = count;
+			add(root, -1);
+			
+			//The arrays double as the breadth-first queue
+			while(head < count) {
+				Transform t = TransformPool.getTransform(slots[head]);
+				if(t.children != null)
+					for(Transform c : t.children)
+						add(c, head);
+				head++;
+			}
+		}
+		
+		structureChanged = false;
+	}
+	
+	/**
+	 * 
+	 * Appends a node to the flat arrays.
+	 * 
+	 * @param t - the transform to append
+	 * @param parent - the index of the parent node, or -1 for a root
+	 */
+	private static void add(Transform t, int parent) {
+		if(count == slots.length) {
+			int n = count * 2;
+			slots = Arrays.copyOf(slots, n);
+			parentIndex = Arrays.copyOf(parentIndex, n);
+			versions = Arrays.copyOf(versions, n);
+			changed = Arrays.copyOf(changed, n);
+		}
+		
+		t.graphIndex = count;
+		slots[count] = t.getSlot();
+		parentIndex[count] = parent;
+		count++;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of transforms in the graph.
+	 * 
+	 * @return the number of transforms in the graph
+	 */
+	public static final int getNodeCount() {
+		return count;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of world matrices recomposed during the latest update.
+	 * 
+	 * @return the number of recomposed world matrices
+	 */
+	public static final int getRecomposedCount() {
+		return recomposed;
+	}
+}
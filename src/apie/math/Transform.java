@@ -1,10 +1,48 @@
 package apie.math;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 
+ * A 2D position, z-axis rotation and scale.
+ * <p>
+ * The composed matrix is cached and only recomposed after the transform has changed. Every change also increments
+ * a version counter, so consumers can tell whether anything they derived from the transform is stale by comparing
+ * a single integer.
+ * <p>
+ * The position, rotation and scale themselves are stored in the {@link TransformPool}, a transform is a handle to
+ * one of its slots.
+ * <p>
+ * The matrices are kept as {@link Matrix3x2f} affine matrices. The 4x4 forms returned by {@link #getMatrix()} and
+ * {@link #getWorldMatrix()} are only filled in when requested, which is when they are sent to a shader.
+ * <p>
+ * A transform may have a parent, in which case its position, rotation and scale are relative to the parent.
+ * The resulting world matrix is computed by the {@link SceneGraph}.
+ * 
+ */
 public class Transform {
 	
-	public Vector2f pos;
-	public float rotation;
-	public Vector2f scale;
+	//The slot in the TransformPool holding position, rotation and scale
+	private final int slot;
+	
+	private final Matrix3x2f local = new Matrix3x2f();
+	private final Matrix4f matrix = Matrix4f.IDENTITY();
+	private boolean matrixStale = true;
+	private int composedVersion;
+	
+	//The rotation the cached sine and cosine were computed from
+	private float cachedRotation = Float.NaN;
+	private float sin, cos;
+	
+	//Hierarchy, maintained together with the SceneGraph
+	Transform parent;
+	ArrayList<Transform> children;
+	final Matrix3x2f worldAffine = new Matrix3x2f();
+	final Matrix4f world = Matrix4f.IDENTITY();
+	boolean worldStale = true;
+	int graphIndex = -1;
 	
 	/**
 	 * 
@@ -12,7 +50,8 @@ public class Transform {
 	 * 
 	 */
 	public Transform() {
-		this(new Vector2f());
+		slot = TransformPool.allocate(this);
+		composedVersion = TransformPool.getVersion(slot) - 1;
 	}
 	
 	/**
@@ -23,7 +62,8 @@ public class Transform {
 	 * @param y - the y coordinate of this transform
 	 */
 	public Transform(float x, float y) {
-		this(new Vector2f(x, y));
+		this();
+		setPosition(x, y);
 	}
 	
 	/**
@@ -44,37 +84,218 @@ public class Transform {
 	 * @param rotation - the z-axis rotation of this matrix
 	 */
 	public Transform(Vector2f position, float rotation) {
-		this(position, rotation, new Vector2f(1, 1));
+		this();
+		setPosition(position);
+		setRotation(rotation);
 	}
 	
 	/**
 	 * 
 	 * Constructs a new transform with the specified position, rotation and scale.
+	 * The vectors are copied, later changes to them do not affect this transform.
 	 * 
 	 * @param position - the position of this transform
 	 * @param rotation - the z-axis rotation of this matrix
 	 * @param scale - the scale of this matrix
 	 */
 	public Transform(Vector2f position, float rotation, Vector2f scale) {
-		this.pos = position;
-		this.scale = scale;
+		this(position, rotation);
+		setScale(scale);
+	}
+	
+	/**
+	 * 
+	 * Returns the slot in the {@link TransformPool} that holds the position, rotation and scale of this transform.
+	 * 
+	 * @return the pool slot of this transform
+	 */
+	public int getSlot() {
+		return slot;
 	}
 	
 	/**
 	 * 
-	 * Returns a composed matrix from this transform.
+	 * Returns the composed translation, rotation and scale matrix of this transform.
+	 * The matrix is cached and shared, so it must not be modified.
 	 * 
-	 * @return a composed matrix from this transform
+	 * @return the composed matrix of this transform
 	 */
 	public Matrix4f getMatrix() {
-		Matrix4f matrix = new Matrix4f();
-		matrix = Matrix4f.IDENTITY();
+		getAffine();
 		
-		matrix.translate(pos).rotate(rotation).scale(scale);
+		if(matrixStale) {
+			local.get(matrix);
+			matrixStale = false;
+		}
 		
 		return matrix;
 	}
 	
+	/**
+	 * 
+	 * Returns the composed translation, rotation and scale of this transform as an affine matrix.
+	 * The matrix is cached and shared, so it must not be modified.
+	 * 
+	 * @return the composed affine matrix of this transform
+	 */
+	public Matrix3x2f getAffine() {
+		int version = TransformPool.getVersion(slot);
+		
+		if(version != composedVersion) {
+			float rotation = TransformPool.getRotations()[slot];
+			if(rotation != cachedRotation) {
+				float r = rotation * FastMath.DEG_TO_RAD;
+				sin = FastMath.sin(r);
+				cos = FastMath.cos(r);
+				cachedRotation = rotation;
+			}
+			
+			local.setTransform(TransformPool.getXs()[slot], TransformPool.getYs()[slot], sin, cos,
+					TransformPool.getScaleXs()[slot], TransformPool.getScaleYs()[slot]);
+			
+			composedVersion = version;
+			matrixStale = true;
+		}
+		
+		return local;
+	}
+	
+	/**
+	 * 
+	 * Returns the world matrix of this transform, which includes the transforms of all its ancestors.
+	 * The matrix is current as of the latest {@link SceneGraph#update()}. It is cached and shared, so it must not be modified.
+	 * 
+	 * @return the world matrix of this transform
+	 */
+	public Matrix4f getWorldMatrix() {
+		if(!inGraph())
+			return getMatrix();
+		
+		if(worldStale) {
+			worldAffine.get(world);
+			worldStale = false;
+		}
+		
+		return world;
+	}
+	
+	/**
+	 * 
+	 * Returns the world matrix of this transform as an affine matrix, which includes the transforms of all its ancestors.
+	 * The matrix is current as of the latest {@link SceneGraph#update()}. It is cached and shared, so it must not be modified.
+	 * 
+	 * @return the affine world matrix of this transform
+	 */
+	public Matrix3x2f getWorldAffine() {
+		return inGraph() ? worldAffine : getAffine();
+	}
+	
+	/**
+	 * 
+	 * Returns whether this transform is laid out in the scene graph, building the graph first if the hierarchy has changed.
+	 * 
+	 * @return whether this transform is part of the scene graph
+	 */
+	private boolean inGraph() {
+		if(graphIndex < 0 && parent == null && (children == null || children.isEmpty()))
+			return false;
+		
+		SceneGraph.ensureBuilt();
+		
+		return graphIndex >= 0;
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinate of this transform in world space.
+	 * 
+	 * @return the world x coordinate of this transform
+	 */
+	public float getWorldX() {
+		return getWorldAffine().tx;
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinate of this transform in world space.
+	 * 
+	 * @return the world y coordinate of this transform
+	 */
+	public float getWorldY() {
+		return getWorldAffine().ty;
+	}
+	
+	/**
+	 * 
+	 * Sets the parent of this transform. The position, rotation and scale of this transform become relative to the parent.
+	 * A transform is kept alive by its parent until it is detached by setting a null parent.
+	 * 
+	 * @param parent - the parent to set, or null to detach this transform
+	 * @return this transform instance
+	 */
+	public Transform setParent(Transform parent) {
+		if(parent == this.parent)
+			return this;
+		
+		for(Transform t = parent; t != null; t = t.parent)
+			if(t == this)
+				throw new IllegalArgumentException("A transform cannot be parented to itself or one of its descendants");
+		
+		if(this.parent != null)
+			this.parent.children.remove(this);
+		
+		this.parent = parent;
+		
+		if(parent != null) {
+			if(parent.children == null)
+				parent.children = new ArrayList<>();
+			parent.children.add(this);
+		}
+		
+		SceneGraph.structureChanged(parent);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the parent of this transform.
+	 * 
+	 * @return the parent of this transform, or null if it has none
+	 */
+	public Transform getParent() {
+		return parent;
+	}
+	
+	/**
+	 * 
+	 * Returns the children of this transform.
+	 * 
+	 * @return an unmodifiable list of the children of this transform
+	 */
+	public List<Transform> getChildren() {
+		return children == null ? Collections.<Transform>emptyList() : Collections.unmodifiableList(children);
+	}
+	
+	/**
+	 * 
+	 * Returns the version of this transform. The version is incremented every time the transform changes.
+	 * 
+	 * @return the version of this transform
+	 */
+	public int getVersion() {
+		return TransformPool.getVersion(slot);
+	}
+	
+	/**
+	 * 
+	 * Marks the cached matrix as stale and increments the version.
+	 * 
+	 */
+	private void changed() {
+		TransformPool.changed(slot);
+	}
+	
 	/**
 	 * 
 	 * Sets the z-axis rotation of this transform.
@@ -83,11 +304,21 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setRotation(float rotation) {
-		this.rotation = rotation;
-		rotation %= 360;
+		TransformPool.getRotations()[slot] = rotation % 360;
+		changed();
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Returns the z-axis rotation of this transform.
+	 * 
+	 * @return the rotation of this transform in degrees
+	 */
+	public float getRotation() {
+		return TransformPool.getRotations()[slot];
+	}
+	
 	/**
 	 * 
 	 * Rotates this transform around the z-axis.
@@ -96,8 +327,9 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform rotate(float rotation) {
-		this.rotation += rotation;
-		this.rotation %= 360;
+		float[] r = TransformPool.getRotations();
+		r[slot] = (r[slot] + rotation) % 360;
+		changed();
 		return this;
 	}
 	
@@ -121,7 +353,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setScaleX(float scale) {
-		this.scale.setX(scale);
+		TransformPool.getScaleXs()[slot] = scale;
+		changed();
 		return this;
 	}
 	
@@ -133,7 +366,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setScaleY(float scale) {
-		this.scale.setY(scale);
+		TransformPool.getScaleYs()[slot] = scale;
+		changed();
 		return this;
 	}
 	
@@ -146,7 +380,10 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setScale(float x, float y) {
-		return setScale(new Vector2f(x, y));
+		TransformPool.getScaleXs()[slot] = x;
+		TransformPool.getScaleYs()[slot] = y;
+		changed();
+		return this;
 	}
 	
 	/**
@@ -157,9 +394,7 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setScale(Vector2f scale) {
-		this.scale.setX(scale.getX());
-		this.scale.setY(scale.getY());
-		return this;
+		return setScale(scale.getX(), scale.getY());
 	}
 	
 	/**
@@ -169,7 +404,7 @@ public class Transform {
 	 * @return the x component of this transform's scale
 	 */
 	public float getScaleX() {
-		return scale.getX();
+		return TransformPool.getScaleXs()[slot];
 	}
 	
 	/**
@@ -179,7 +414,7 @@ public class Transform {
 	 * @return the y component of this transform's scale
 	 */
 	public float getScaleY() {
-		return scale.getY();
+		return TransformPool.getScaleYs()[slot];
 	}
 	
 	/**
@@ -202,7 +437,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform addScaleX(float scale) {
-		this.scale.setX(this.scale.getX() + scale);
+		TransformPool.getScaleXs()[slot] += scale;
+		changed();
 		return this;
 	}
 	
@@ -214,7 +450,8 @@ public class Transform {
 	 * @return
 	 */
 	public Transform addScaleY(float scale) {
-		this.scale.setY(this.scale.getY() + scale);
+		TransformPool.getScaleYs()[slot] += scale;
+		changed();
 		return this;
 	}
 	
@@ -227,7 +464,10 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform addScale(float x, float y) {
-		return addScale(new Vector2f(x, y));
+		TransformPool.getScaleXs()[slot] += x;
+		TransformPool.getScaleYs()[slot] += y;
+		changed();
+		return this;
 	}
 	
 	/**
@@ -238,8 +478,7 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform addScale(Vector2f scale) {
-		this.scale.add(scale);
-		return this;
+		return addScale(scale.getX(), scale.getY());
 	}
 	
 	/**
@@ -250,8 +489,7 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform scale(float scalar) {
-		scale.scale(scalar);
-		return this;
+		return scale(scalar, scalar);
 	}
 	
 	/**
@@ -262,7 +500,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform scaleX(float scalar) {
-		this.scale.setX(this.scale.getX() * scalar);
+		TransformPool.getScaleXs()[slot] *= scalar;
+		changed();
 		return this;
 	}
 	
@@ -274,7 +513,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform scaleY(float scalar) {
-		this.scale.setY(this.scale.getY() * scalar);
+		TransformPool.getScaleYs()[slot] *= scalar;
+		changed();
 		return this;
 	}
 	
@@ -287,7 +527,10 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform scale(float x, float y) {
-		return scale(new Vector2f(x, y));
+		TransformPool.getScaleXs()[slot] *= x;
+		TransformPool.getScaleYs()[slot] *= y;
+		changed();
+		return this;
 	}
 	
 	/**
@@ -298,9 +541,7 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform scale(Vector2f scale) {
-		scaleX(scale.getX());
-		scaleY(scale.getY());
-		return this;
+		return scale(scale.getX(), scale.getY());
 	}
 	
 	/**
@@ -311,7 +552,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setX(float x) {
-		pos.setX(x);
+		TransformPool.getXs()[slot] = x;
+		changed();
 		return this;
 	}
 	
@@ -323,7 +565,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setY(float y) {
-		pos.setY(y);
+		TransformPool.getYs()[slot] = y;
+		changed();
 		return this;
 	}
 	
@@ -336,7 +579,10 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setPosition(float x, float y) {
-		return setPosition(new Vector2f(x, y));
+		TransformPool.getXs()[slot] = x;
+		TransformPool.getYs()[slot] = y;
+		changed();
+		return this;
 	}
 	
 	/**
@@ -347,9 +593,7 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform setPosition(Vector2f position) {
-		setX(position.getX());
-		setY(position.getY());
-		return this;
+		return setPosition(position.getX(), position.getY());
 	}
 	
 	/**
@@ -359,7 +603,7 @@ public class Transform {
 	 * @return the x coordinate of this transform
 	 */
 	public float getX() {
-		return pos.getX();
+		return TransformPool.getXs()[slot];
 	}
 	
 	/**
@@ -369,7 +613,7 @@ public class Transform {
 	 * @return the y coordinate of this transform
 	 */
 	public float getY() {
-		return pos.getY();
+		return TransformPool.getYs()[slot];
 	}
 	
 	/**
@@ -380,7 +624,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform translateX(float x) {
-		pos.setX(pos.getX() + x);
+		TransformPool.getXs()[slot] += x;
+		changed();
 		return this;
 	}
 	
@@ -392,7 +637,8 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform translateY(float y) {
-		pos.setY(pos.getY() + y);
+		TransformPool.getYs()[slot] += y;
+		changed();
 		return this;
 	}
 	
@@ -405,7 +651,10 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform translate(float x, float y) {
-		return translate(new Vector2f(x, y));
+		TransformPool.getXs()[slot] += x;
+		TransformPool.getYs()[slot] += y;
+		changed();
+		return this;
 	}
 	
 	/**
@@ -416,7 +665,6 @@ public class Transform {
 	 * @return this transform instance
 	 */
 	public Transform translate(Vector2f offset) {
-		pos.add(offset);
-		return this;
+		return translate(offset.getX(), offset.getY());
 	}
 }
\ No newline at end of file
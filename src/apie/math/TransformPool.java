@@ -0,0 +1,238 @@
+package apie.math;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * 
+ * Stores the position, rotation and scale of every {@link Transform} in contiguous primitive arrays.
+ * A transform is a handle to one slot of these arrays, so systems that process many transforms at once can
+ * iterate the arrays directly instead of chasing one object per transform across the heap.
+ * <p>
+ * Code that writes to the arrays directly must call {@link #changed(int)} for every slot it modified, so the
+ * transform recomposes its matrix and the {@link SceneGraph} picks up the change. The arrays are reallocated
+ * when the pool grows, so they must be fetched again after new transforms have been created.
+ * <p>
+ * Slots are reclaimed once their transform has been garbage collected and reused for new transforms.
+ * 
+ * @author SK
+ * 
+ */
+public final class TransformPool {
+	
+	private static final int INITIAL_CAPACITY = 256;
+	
+	private static float[] x = new float[INITIAL_CAPACITY];
+	private static float[] y = new float[INITIAL_CAPACITY];
+	private static float[] rotation = new float[INITIAL_CAPACITY];
+	private static float[] scaleX = new float[INITIAL_CAPACITY];
+	private static float[] scaleY = new float[INITIAL_CAPACITY];
+	private static int[] versions = new int[INITIAL_CAPACITY];
+	
+	//The transform owning each slot, cleared references are queued for reuse
+	private static Slot[] owners = new Slot[INITIAL_CAPACITY];
+	private static final ReferenceQueue<Transform> collected = new ReferenceQueue<>();
+	
+	private static int[] free = new int[INITIAL_CAPACITY];
+	private static int freeCount;
+	private static int highWaterMark;
+	private static int size;
+	
+	/**
+	 * 
+	 * A weak reference from a slot to its transform.
+	 * 
+	 */
+	private static final class Slot extends WeakReference<Transform> {
+		
+		final int index;
+		
+		Slot(Transform t, int index) {
+			super(t, collected);
+			this.index = index;
+		}
+	}
+	
+	/**
+	 * 
+	 * Allocates a slot for the specified transform, initialized to the identity transform.
+	 * 
+	 * @param t - the transform to allocate a slot for
+	 * @return the index of the allocated slot
+	 */
+	static final int allocate(Transform t) {
+		reclaim();
+		
+		int slot;
+		if(freeCount > 0) {
+			slot = free[--freeCount];
+		} else {
+			if(highWaterMark == x.length)
+				grow(highWaterMark * 2);
+			slot = highWaterMark++;
+		}
+		
+		x[slot] = 0;
+		y[slot] = 0;
+		rotation[slot] = 0;
+		scaleX[slot] = 1;
+		scaleY[slot] = 1;
+		versions[slot]++;
+		owners[slot] = new Slot(t, slot);
+		size++;
+		
+		return slot;
+	}
+	
+	/**
+	 * 
+	 * Returns the slots of all garbage collected transforms to the free list.
+	 * 
+	 */
+	private static void reclaim() {
+		Reference<? extends Transform> ref;
+		while((ref = collected.poll()) != null) {
+			int slot = ((Slot)ref).index;
+			
+			//The slot may have been reused already if the reference was enqueued late
+			if(owners[slot] != ref)
+				continue;
+			
+			owners[slot] = null;
+			free[freeCount++] = slot;
+			size--;
+		}
+	}
+	
+	/**
+	 * 
+	 * Grows all arrays to the specified capacity.
+	 * 
+	 * @param capacity - the new capacity
+	 */
+	private static void grow(int capacity) {
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		rotation = Arrays.copyOf(rotation, capacity);
+		scaleX = Arrays.copyOf(scaleX, capacity);
+		scaleY = Arrays.copyOf(scaleY, capacity);
+		versions = Arrays.copyOf(versions, capacity);
+		owners = Arrays.copyOf(owners, capacity);
+		free = Arrays.copyOf(free, capacity);
+	}
+	
+	/**
+	 * 
+	 * Marks the specified slot as changed. Must be called after writing to the arrays directly.
+	 * 
+	 * @param slot - the slot that changed
+	 */
+	public static final void changed(int slot) {
+		versions[slot]++;
+	}
+	
+	/**
+	 * 
+	 * Returns the version of the specified slot. The version is incremented every time the slot changes.
+	 * 
+	 * @param slot - the slot to get the version of
+	 * @return the version of the slot
+	 */
+	public static final int getVersion(int slot) {
+		return versions[slot];
+	}
+	
+	/**
+	 * 
+	 * Returns the transform owning the specified slot.
+	 * 
+	 * @param slot - the slot to get the transform of
+	 * @return the transform owning the slot, or null if the slot is free
+	 */
+	public static final Transform getTransform(int slot) {
+		Slot owner = owners[slot];
+		return owner == null ? null : owner.get();
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinates of all slots.
+	 * 
+	 * @return the x coordinate array
+	 */
+	public static final float[] getXs() {
+		return x;
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinates of all slots.
+	 * 
+	 * @return the y coordinate array
+	 */
+	public static final float[] getYs() {
+		return y;
+	}
+	
+	/**
+	 * 
+	 * Returns the z-axis rotations of all slots in degrees.
+	 * 
+	 * @return the rotation array
+	 */
+	public static final float[] getRotations() {
+		return rotation;
+	}
+	
+	/**
+	 * 
+	 * Returns the x-axis scales of all slots.
+	 * 
+	 * @return the x-axis scale array
+	 */
+	public static final float[] getScaleXs() {
+		return scaleX;
+	}
+	
+	/**
+	 * 
+	 * Returns the y-axis scales of all slots.
+	 * 
+	 * @return the y-axis scale array
+	 */
+	public static final float[] getScaleYs() {
+		return scaleY;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of slots in use.
+	 * 
+	 * @return the number of slots in use
+	 */
+	public static final int getSize() {
+		return size;
+	}
+	
+	/**
+	 * 
+	 * Returns one past the highest slot index ever allocated. Every slot in use is below this index.
+	 * 
+	 * @return one past the highest allocated slot index
+	 */
+	public static final int getHighWaterMark() {
+		return highWaterMark;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of slots the arrays currently hold.
+	 * 
+	 * @return the capacity of the pool
+	 */
+	public static final int getCapacity() {
+		return x.length;
+	}
+}
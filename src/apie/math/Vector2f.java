@@ -1,7 +1,20 @@
 package apie.math;
 
+import java.nio.FloatBuffer;
+
+/**
+ * 
+ * A 2-component vector stored in plain fields.
+ * <p>
+ * Besides the in-place operations inherited from {@link VectorXf}, which return this vector,
+ * there are component overloads and destination variants ({@code addInto}, {@code subInto}, {@code scaleInto})
+ * that write their result to another vector, so hot code never has to clone.
+ * 
+ */
 public class Vector2f extends VectorXf {
 	
+	public float x, y;
+	
 	/**
 	 * 
 	 * Constructs a new Vector2f with components(0,0).
@@ -19,7 +32,8 @@ public class Vector2f extends VectorXf {
 	 * @param y - the initial y component of this vector
 	 */
 	public Vector2f(float x, float y) {
-		super(x, y);
+		this.x = x;
+		this.y = y;
 	}
 	
 	/**
@@ -29,7 +43,7 @@ public class Vector2f extends VectorXf {
 	 * @return the x component of this vector
 	 */
 	public float getX() {
-		return this.getN(0);
+		return x;
 	}
 	
 	/**
@@ -39,7 +53,7 @@ public class Vector2f extends VectorXf {
 	 * @return the y component of this vector
 	 */
 	public float getY() {
-		return this.getN(1);
+		return y;
 	}
 	
 	/**
@@ -49,7 +63,7 @@ public class Vector2f extends VectorXf {
 	 * @param x - the new x value to be set
 	 */
 	public void setX(float x) {
-		setN(0, x);
+		this.x = x;
 	}
 	
 	/**
@@ -59,6 +73,272 @@ public class Vector2f extends VectorXf {
 	 * @param y - the new y value to be set
 	 */
 	public void setY(float y) {
-		setN(1, y);
+		this.y = y;
+	}
+	
+	/**
+	 * 
+	 * Sets all components of this vector.
+	 * 
+	 * @param x - the x component to set
+	 * @param y - the y component to set
+	 * @return this vector instance
+	 */
+	public Vector2f set(float x, float y) {
+		this.x = x;
+		this.y = y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Copies the components of the specified vector into this one.
+	 * 
+	 * @param v - the vector to copy
+	 * @return this vector instance
+	 */
+	public Vector2f set(Vector2f v) {
+		x = v.x;
+		y = v.y;
+		return this;
+	}
+	
+	public float getN(int n) {
+		switch(n) {
+		case 0:
+			return x;
+		case 1:
+			return y;
+		default:
+			throw new IndexOutOfBoundsException("Component " + n + " out of range for a 2-component vector");
+		}
+	}
+	
+	public void setN(int n, float f) {
+		switch(n) {
+		case 0:
+			x = f;
+			break;
+		case 1:
+			y = f;
+			break;
+		default:
+			throw new IndexOutOfBoundsException("Component " + n + " out of range for a 2-component vector");
+		}
+	}
+	
+	public int getDimension() {
+		return 2;
+	}
+	
+	/**
+	 * 
+	 * Returns the components of this vector as a new float array.
+	 * 
+	 * @return the components of this vector
+	 */
+	public float[] getData() {
+		return new float[]{x, y};
+	}
+	
+	public void store(FloatBuffer buffer) {
+		buffer.put(x);
+		buffer.put(y);
+	}
+	
+	public float getMagnitude() {
+		return (float)Math.sqrt(x * x + y * y);
+	}
+	
+	public float getMagnitudeSquared() {
+		return x * x + y * y;
+	}
+	
+	public Vector2f add(VectorXf v) {
+		if(v instanceof Vector2f)
+			return add((Vector2f)v);
+		
+		int n = Math.min(v.getDimension(), 2);
+		for(int i = 0; i < n; i++)
+			setN(i, getN(i) + v.getN(i));
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified vector to this one.
+	 * 
+	 * @param v - the vector to add
+	 * @return this vector instance
+	 */
+	public Vector2f add(Vector2f v) {
+		x += v.x;
+		y += v.y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified components to this one, component by component.
+	 * 
+	 * @param x - the x component to add
+	 * @param y - the y component to add
+	 * @return this vector instance
+	 */
+	public Vector2f add(float x, float y) {
+		this.x += x;
+		this.y += y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes the sum of this vector and the specified one to the destination vector. This vector is not changed.
+	 * 
+	 * @param v - the vector to add
+	 * @param dest - the vector to write the result to, may be this or v
+	 * @return the destination vector
+	 */
+	public Vector2f addInto(Vector2f v, Vector2f dest) {
+		dest.x = x + v.x;
+		dest.y = y + v.y;
+		return dest;
+	}
+	
+	public Vector2f sub(VectorXf v) {
+		if(v instanceof Vector2f)
+			return sub((Vector2f)v);
+		
+		int n = Math.min(v.getDimension(), 2);
+		for(int i = 0; i < n; i++)
+			setN(i, getN(i) - v.getN(i));
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Subtracts the specified vector from this one.
+	 * 
+	 * @param v - the vector to sub
+	 * @return this vector instance
+	 */
+	public Vector2f sub(Vector2f v) {
+		x -= v.x;
+		y -= v.y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Subtracts the specified components from this one, component by component.
+	 * 
+	 * @param x - the x component to sub
+	 * @param y - the y component to sub
+	 * @return this vector instance
+	 */
+	public Vector2f sub(float x, float y) {
+		this.x -= x;
+		this.y -= y;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes the difference of this vector and the specified one to the destination vector. This vector is not changed.
+	 * 
+	 * @param v - the vector to sub
+	 * @param dest - the vector to write the result to, may be this or v
+	 * @return the destination vector
+	 */
+	public Vector2f subInto(Vector2f v, Vector2f dest) {
+		dest.x = x - v.x;
+		dest.y = y - v.y;
+		return dest;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified vector multiplied by a scalar to this one, without modifying either argument.
+	 * 
+	 * @param v - the vector to add
+	 * @param s - the scalar to multiply v with
+	 * @return this vector instance
+	 */
+	public Vector2f addScaled(Vector2f v, float s) {
+		x += v.x * s;
+		y += v.y * s;
+		return this;
+	}
+	
+	public Vector2f scale(float f) {
+		x *= f;
+		y *= f;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes this vector scaled by the specified scalar to the destination vector. This vector is not changed.
+	 * 
+	 * @param f - the scalar to scale with
+	 * @param dest - the vector to write the result to, may be this
+	 * @return the destination vector
+	 */
+	public Vector2f scaleInto(float f, Vector2f dest) {
+		dest.x = x * f;
+		dest.y = y * f;
+		return dest;
+	}
+	
+	public float dot(VectorXf v) {
+		if(v instanceof Vector2f)
+			return dot((Vector2f)v);
+		
+		int n = Math.min(v.getDimension(), 2);
+		float s = 0;
+		for(int i = 0; i < n; i++)
+			s += getN(i) * v.getN(i);
+		return s;
+	}
+	
+	/**
+	 * 
+	 * Returns the dot product of the specified vector and this one.
+	 * 
+	 * @param v - the vector to dot with this vector
+	 * @return the dot product
+	 */
+	public float dot(Vector2f v) {
+		return x * v.x + y * v.y;
+	}
+	
+	/**
+	 * 
+	 * Returns the dot product of the specified components and this vector.
+	 * 
+	 * @param x - the x component to dot with
+	 * @param y - the y component to dot with
+	 * @return the dot product
+	 */
+	public float dot(float x, float y) {
+		return this.x * x + this.y * y;
+	}
+	
+	public Vector2f normalize() {
+		return scale(FastMath.invSqrt(x * x + y * y));
+	}
+	
+	/**
+	 * 
+	 * Returns a copy of this vector.
+	 * 
+	 * @return a copy of this vector instance
+	 */
+	public Vector2f clone() {
+		return new Vector2f(x, y);
+	}
+	
+	public String toString() {
+		return x + "\t" + y;
 	}
-}
\ No newline at end of file
+}
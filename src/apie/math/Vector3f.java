@@ -1,7 +1,29 @@
 package apie.math;
 
+import java.nio.FloatBuffer;
+
+/**
+ * 
+ * A 3-component vector stored in plain fields.
+ * <p>
+ * Besides the in-place operations inherited from {@link VectorXf}, which return this vector,
+ * there are component overloads and destination variants ({@code addInto}, {@code subInto}, {@code scaleInto})
+ * that write their result to another vector, so hot code never has to clone.
+ * 
+ */
 public class Vector3f extends VectorXf {
 	
+	public float x, y, z;
+	
+	/**
+	 * 
+	 * Constructs a new Vector3f with components(0,0,0).
+	 * 
+	 */
+	public Vector3f() {
+		this(0, 0, 0);
+	}
+	
 	/**
 	 * 
 	 * Constructs a new Vector3f.
@@ -11,7 +33,9 @@ public class Vector3f extends VectorXf {
 	 * @param z - the initial z component of this vector
 	 */
 	public Vector3f(float x, float y, float z) {
-		super(x, y, z);
+		this.x = x;
+		this.y = y;
+		this.z = z;
 	}
 	
 	/**
@@ -21,7 +45,7 @@ public class Vector3f extends VectorXf {
 	 * @return the x component of this vector
 	 */
 	public float getX() {
-		return this.getN(0);
+		return x;
 	}
 	
 	/**
@@ -31,7 +55,7 @@ public class Vector3f extends VectorXf {
 	 * @return the y component of this vector
 	 */
 	public float getY() {
-		return this.getN(1);
+		return y;
 	}
 	
 	/**
@@ -41,7 +65,7 @@ public class Vector3f extends VectorXf {
 	 * @return the z component of this vector
 	 */
 	public float getZ() {
-		return this.getN(2);
+		return z;
 	}
 	
 	/**
@@ -51,7 +75,7 @@ public class Vector3f extends VectorXf {
 	 * @param x - the new x value to be set
 	 */
 	public void setX(float x) {
-		setN(0, x);
+		this.x = x;
 	}
 	
 	/**
@@ -61,7 +85,7 @@ public class Vector3f extends VectorXf {
 	 * @param y - the new y value to be set
 	 */
 	public void setY(float y) {
-		setN(1, y);
+		this.y = y;
 	}
 	
 	/**
@@ -71,6 +95,293 @@ public class Vector3f extends VectorXf {
 	 * @param z - the new z value to be set
 	 */
 	public void setZ(float z) {
-		setN(2, z);
+		this.z = z;
+	}
+	
+	/**
+	 * 
+	 * Sets all components of this vector.
+	 * 
+	 * @param x - the x component to set
+	 * @param y - the y component to set
+	 * @param z - the z component to set
+	 * @return this vector instance
+	 */
+	public Vector3f set(float x, float y, float z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Copies the components of the specified vector into this one.
+	 * 
+	 * @param v - the vector to copy
+	 * @return this vector instance
+	 */
+	public Vector3f set(Vector3f v) {
+		x = v.x;
+		y = v.y;
+		z = v.z;
+		return this;
+	}
+	
+	public float getN(int n) {
+		switch(n) {
+		case 0:
+			return x;
+		case 1:
+			return y;
+		case 2:
+			return z;
+		default:
+			throw new IndexOutOfBoundsException("Component " + n + " out of range for a 3-component vector");
+		}
+	}
+	
+	public void setN(int n, float f) {
+		switch(n) {
+		case 0:
+			x = f;
+			break;
+		case 1:
+			y = f;
+			break;
+		case 2:
+			z = f;
+			break;
+		default:
+			throw new IndexOutOfBoundsException("Component " + n + " out of range for a 3-component vector");
+		}
+	}
+	
+	public int getDimension() {
+		return 3;
+	}
+	
+	/**
+	 * 
+	 * Returns the components of this vector as a new float array.
+	 * 
+	 * @return the components of this vector
+	 */
+	public float[] getData() {
+		return new float[]{x, y, z};
+	}
+	
+	public void store(FloatBuffer buffer) {
+		buffer.put(x);
+		buffer.put(y);
+		buffer.put(z);
+	}
+	
+	public float getMagnitude() {
+		return (float)Math.sqrt(x * x + y * y + z * z);
+	}
+	
+	public float getMagnitudeSquared() {
+		return x * x + y * y + z * z;
+	}
+	
+	public Vector3f add(VectorXf v) {
+		if(v instanceof Vector3f)
+			return add((Vector3f)v);
+		
+		int n = Math.min(v.getDimension(), 3);
+		for(int i = 0; i < n; i++)
+			setN(i, getN(i) + v.getN(i));
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified vector to this one.
+	 * 
+	 * @param v - the vector to add
+	 * @return this vector instance
+	 */
+	public Vector3f add(Vector3f v) {
+		x += v.x;
+		y += v.y;
+		z += v.z;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified components to this one, component by component.
+	 * 
+	 * @param x - the x component to add
+	 * @param y - the y component to add
+	 * @param z - the z component to add
+	 * @return this vector instance
+	 */
+	public Vector3f add(float x, float y, float z) {
+		this.x += x;
+		this.y += y;
+		this.z += z;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes the sum of this vector and the specified one to the destination vector. This vector is not changed.
+	 * 
+	 * @param v - the vector to add
+	 * @param dest - the vector to write the result to, may be this or v
+	 * @return the destination vector
+	 */
+	public Vector3f addInto(Vector3f v, Vector3f dest) {
+		dest.x = x + v.x;
+		dest.y = y + v.y;
+		dest.z = z + v.z;
+		return dest;
+	}
+	
+	public Vector3f sub(VectorXf v) {
+		if(v instanceof Vector3f)
+			return sub((Vector3f)v);
+		
+		int n = Math.min(v.getDimension(), 3);
+		for(int i = 0; i < n; i++)
+			setN(i, getN(i) - v.getN(i));
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Subtracts the specified vector from this one.
+	 * 
+	 * @param v - the vector to sub
+	 * @return this vector instance
+	 */
+	public Vector3f sub(Vector3f v) {
+		x -= v.x;
+		y -= v.y;
+		z -= v.z;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Subtracts the specified components from this one, component by component.
+	 * 
+	 * @param x - the x component to sub
+	 * @param y - the y component to sub
+	 * @param z - the z component to sub
+	 * @return this vector instance
+	 */
+	public Vector3f sub(float x, float y, float z) {
+		this.x -= x;
+		this.y -= y;
+		this.z -= z;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes the difference of this vector and the specified one to the destination vector. This vector is not changed.
+	 * 
+	 * @param v - the vector to sub
+	 * @param dest - the vector to write the result to, may be this or v
+	 * @return the destination vector
+	 */
+	public Vector3f subInto(Vector3f v, Vector3f dest) {
+		dest.x = x - v.x;
+		dest.y = y - v.y;
+		dest.z = z - v.z;
+		return dest;
+	}
+	
+	/**
+	 * 
+	 * Adds the specified vector multiplied by a scalar to this one, without modifying either argument.
+	 * 
+	 * @param v - the vector to add
+	 * @param s - the scalar to multiply v with
+	 * @return this vector instance
+	 */
+	public Vector3f addScaled(Vector3f v, float s) {
+		x += v.x * s;
+		y += v.y * s;
+		z += v.z * s;
+		return this;
+	}
+	
+	public Vector3f scale(float f) {
+		x *= f;
+		y *= f;
+		z *= f;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Writes this vector scaled by the specified scalar to the destination vector. This vector is not changed.
+	 * 
+	 * @param f - the scalar to scale with
+	 * @param dest - the vector to write the result to, may be this
+	 * @return the destination vector
+	 */
+	public Vector3f scaleInto(float f, Vector3f dest) {
+		dest.x = x * f;
+		dest.y = y * f;
+		dest.z = z * f;
+		return dest;
+	}
+	
+	public float dot(VectorXf v) {
+		if(v instanceof Vector3f)
+			return dot((Vector3f)v);
+		
+		int n = Math.min(v.getDimension(), 3);
+		float s = 0;
+		for(int i = 0; i < n; i++)
+			s += getN(i) * v.getN(i);
+		return s;
+	}
+	
+	/**
+	 * 
+	 * Returns the dot product of the specified vector and this one.
+	 * 
+	 * @param v - the vector to dot with this vector
+	 * @return the dot product
+	 */
+	public float dot(Vector3f v) {
+		return x * v.x + y * v.y + z * v.z;
+	}
+	
+	/**
+	 * 
+	 * Returns the dot product of the specified components and this vector.
+	 * 
+	 * @param x - the x component to dot with
+	 * @param y - the y component to dot with
+	 * @param z - the z component to dot with
+	 * @return the dot product
+	 */
+	public float dot(float x, float y, float z) {
+		return this.x * x + this.y * y + this.z * z;
+	}
+	
+	public Vector3f normalize() {
+		return scale(FastMath.invSqrt(x * x + y * y + z * z));
+	}
+	
+	/**
+	 * 
+	 * Returns a copy of this vector.
+	 * 
+	 * @return a copy of this vector instance
+	 */
+	public Vector3f clone() {
+		return new Vector3f(x, y, z);
+	}
+	
+	public String toString() {
+		return x + "\t" + y + "\t" + z;
 	}
-}
\ No newline at end of file
+}
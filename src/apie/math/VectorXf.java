@@ -1,5 +1,7 @@
 package apie.math;
 
+import java.nio.FloatBuffer;
+
 import apie.debug.Debug;
 
 public class VectorXf {
@@ -17,6 +19,14 @@ public class VectorXf {
 		vals = f;
 	}
 	
+	/**
+	 * 
+	 * Constructor for fixed-size subclasses that store their components in fields.
+	 * Such subclasses must override every method accessing the component array.
+	 * 
+	 */
+	protected VectorXf() {}
+	
 	/**
 	 * 
 	 * Returns the vectors distance from origin.
@@ -71,6 +81,16 @@ public class VectorXf {
 		return vals;
 	}
 	
+	/**
+	 * 
+	 * Writes each component of this vector to the specified buffer.
+	 * 
+	 * @param buffer - the buffer to write to
+	 */
+	public void store(FloatBuffer buffer) {
+		buffer.put(vals);
+	}
+	
 	/**
 	 * 
 	 * Tells you how many dimensions the vector has.
@@ -102,10 +122,10 @@ public class VectorXf {
 	 * @param v - the vector you want to add to this vector
 	 */
 	public VectorXf add(VectorXf v) {
-		float smallest = (v.vals.length < this.vals.length) ? v.vals.length : this.vals.length;
+		int smallest = Math.min(v.getDimension(), vals.length);
 		
 		for(int i = 0; i < smallest; i++) {
-			this.vals[i] += v.vals[i];
+			this.vals[i] += v.getN(i);
 		}
 		return this;
 	}
@@ -117,10 +137,10 @@ public class VectorXf {
 	 * @param v - the vector you want to subtract from this one
 	 */
 	public VectorXf sub(VectorXf v) {
-		float smallest = (v.vals.length < this.vals.length) ? v.vals.length : this.vals.length;
+		int smallest = Math.min(v.getDimension(), vals.length);
 		
 		for(int i = 0; i < smallest; i++) {
-			this.vals[i] -= v.vals[i];
+			this.vals[i] -= v.getN(i);
 		}
 		return this;
 	}
@@ -132,10 +152,10 @@ public class VectorXf {
 	 * @param v - the vector you want to dot with this vector
 	 */
 	public float dot(VectorXf v) {
-		float smallest = (v.vals.length < this.vals.length) ? v.vals.length : this.vals.length;
+		int smallest = Math.min(v.getDimension(), vals.length);
 		float s = 0;
 		for(int i = 0; i < smallest; i++) {
-			s += this.vals[i] * v.vals[i];
+			s += this.vals[i] * v.getN(i);
 		}	
 		return s;
 	}
@@ -186,7 +206,7 @@ public class VectorXf {
 	 * @return returns a vector with length 1
 	 */
 	public VectorXf normalize() {
-		return this.scale(1/this.getMagnitude());
+		return this.scale(FastMath.invSqrt(getMagnitudeSquared()));
 	}
 	
 	
@@ -0,0 +1,183 @@
+package apie.math.simd;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import apie.debug.Benchmark;
+
+/**
+ * 
+ * Measures what auto-vectorization gains on the bulk kernels, and checks that they match a plain scalar loop bit for bit.
+ * <p>
+ * The kernels are timed in this VM, then the same kernels are timed in a second VM started with {@code -XX:-UseSuperWord},
+ * which compiles the same loops without SIMD instructions. The speed-up printed is the ratio between the two.
+ * Run with a server VM: java -cp bin apie.math.simd.KernelBenchmark
+ * 
+ * @author SK
+ * 
+ */
+public final class KernelBenchmark {
+	
+	private static final int COUNT = 100_000;
+	
+	//Passed to the second VM, which only times the kernels and prints each result on a line starting with this
+	private static final String MEASURE_ONLY = "--measure";
+	
+	public static final void main(String[] args) throws IOException, InterruptedException {
+		if(args.length > 0 && args[0].equals(MEASURE_ONLY)) {
+			for(Map.Entry<String, Double> e : measure().entrySet())
+				System.out.println(MEASURE_ONLY + " " + e.getKey() + "=" + e.getValue());
+			
+			return;
+		}
+		
+		System.out.println("Points: " + COUNT);
+		System.out.println("Transform matches scalar loop: " + check());
+		
+		System.out.println("With superword:");
+		Map<String, Double> vectorized = measure();
+		
+		System.out.println("Without superword:");
+		Map<String, Double> scalar = measureWithoutSuperWord();
+		
+		for(Map.Entry<String, Double> e : vectorized.entrySet()) {
+			Double baseline = scalar.get(e.getKey());
+			if(baseline != null)
+				System.out.printf("%-40s %12.2fx%n", e.getKey() + " speed-up", baseline / e.getValue());
+		}
+	}
+	
+	/**
+	 * 
+	 * Checks the affine kernel against a plain scalar loop.
+	 * 
+	 * @return true if every transformed point is bit-identical
+	 */
+	private static boolean check() {
+		Random random = new Random(1);
+		
+		float[] xs = new float[COUNT];
+		float[] ys = new float[COUNT];
+		for(int i = 0; i < COUNT; i++) {
+			xs[i] = random.nextFloat() * 1280;
+			ys[i] = random.nextFloat() * 720;
+		}
+		
+		float[] outX = new float[COUNT];
+		float[] outY = new float[COUNT];
+		
+		float r = (float)Math.toRadians(30);
+		float a = (float)Math.cos(r) * 2, b = (float)Math.sin(r) * 2, c = -(float)Math.sin(r) * 3, d = (float)Math.cos(r) * 3;
+		float tx = 100, ty = 50;
+		
+		Kernels.transform(a, b, c, d, tx, ty, xs, ys, outX, outY, 0, COUNT);
+		boolean identical = true;
+		for(int i = 0; i < COUNT; i++) {
+			float x = a * xs[i] + c * ys[i] + tx;
+			float y = b * xs[i] + d * ys[i] + ty;
+			identical &= Float.floatToIntBits(x) == Float.floatToIntBits(outX[i]) && Float.floatToIntBits(y) == Float.floatToIntBits(outY[i]);
+		}
+		
+		return identical;
+	}
+	
+	/**
+	 * 
+	 * Times every kernel in this VM.
+	 * 
+	 * @return the average time of one call of each kernel in nanoseconds, by kernel name
+	 */
+	private static Map<String, Double> measure() {
+		Random random = new Random(1);
+		
+		float[] xs = new float[COUNT];
+		float[] ys = new float[COUNT];
+		float[] vx = new float[COUNT];
+		float[] vy = new float[COUNT];
+		for(int i = 0; i < COUNT; i++) {
+			xs[i] = random.nextFloat() * 1280;
+			ys[i] = random.nextFloat() * 720;
+			vx[i] = random.nextFloat() * 100 - 50;
+			vy[i] = random.nextFloat() * 100 - 50;
+		}
+		
+		float[] outX = new float[COUNT];
+		float[] outY = new float[COUNT];
+		float[] bounds = new float[2];
+		
+		float r = (float)Math.toRadians(30);
+		float a = (float)Math.cos(r) * 2, b = (float)Math.sin(r) * 2, c = -(float)Math.sin(r) * 3, d = (float)Math.cos(r) * 3;
+		float tx = 100, ty = 50;
+		
+		Map<String, Double> times = new LinkedHashMap<String, Double>();
+		
+		times.put("Affine transform", Benchmark.measure("Affine transform", new Runnable() {
+			@Override
+			public void run() {
+				Kernels.transform(a, b, c, d, tx, ty, xs, ys, outX, outY, 0, COUNT);
+				Benchmark.consume(outX[COUNT - 1]);
+			}
+		}));
+		
+		times.put("Integrate", Benchmark.measure("Integrate", new Runnable() {
+			@Override
+			public void run() {
+				Kernels.integrate(xs, ys, vx, vy, 1e-6f, 0, COUNT);
+				Benchmark.consume(xs[0]);
+			}
+		}));
+		
+		times.put("Project", Benchmark.measure("Project", new Runnable() {
+			@Override
+			public void run() {
+				Kernels.project(xs, ys, 0.6f, 0.8f, outX, 0, COUNT);
+				Benchmark.consume(outX[COUNT - 1]);
+			}
+		}));
+		
+		times.put("Project bounds", Benchmark.measure("Project bounds", new Runnable() {
+			@Override
+			public void run() {
+				Kernels.projectBounds(xs, ys, 0.6f, 0.8f, 0, COUNT, bounds);
+				Benchmark.consume(bounds[1] - bounds[0]);
+			}
+		}));
+		
+		return times;
+	}
+	
+	/**
+	 * 
+	 * Times every kernel in a second VM with superword disabled.
+	 * 
+	 * @return the average time of one call of each kernel in nanoseconds, by kernel name
+	 */
+	private static Map<String, Double> measureWithoutSuperWord() throws IOException, InterruptedException {
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process process = new ProcessBuilder(java, "-XX:-UseSuperWord", "-cp", System.getProperty("java.class.path"),
+				KernelBenchmark.class.getName(), MEASURE_ONLY).redirectErrorStream(true).start();
+		
+		Map<String, Double> times = new LinkedHashMap<String, Double>();
+		
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				if(line.startsWith(MEASURE_ONLY + " ")) {
+					int split = line.lastIndexOf('=');
+					times.put(line.substring(MEASURE_ONLY.length() + 1, split), Double.parseDouble(line.substring(split + 1)));
+				} else {
+					System.out.println(line);
+				}
+			}
+		}
+		
+		process.waitFor();
+		
+		return times;
+	}
+}
@@ -0,0 +1,150 @@
+package apie.math.simd;
+
+import apie.math.Matrix3x2f;
+
+/**
+ * 
+ * Bulk float kernels over structure-of-arrays data: x and y coordinates in separate arrays.
+ * <p>
+ * Each kernel is a single counted loop with no branches, no allocation and no calls,
+ * the shape HotSpot's superword optimization compiles to SIMD instructions. Every element is computed
+ * with the same operations in the same order as the equivalent scalar code, so results are bit-identical
+ * whether or not the loop ends up vectorized.
+ * <p>
+ * Whether a loop is vectorized is up to the VM. The element-wise kernels are the shape superword handles best.
+ * The min/max reduction in {@link #projectBounds(float[], float[], float, float, int, int, float[])} is not expected to
+ * vectorize on Java 8. Its gain over per-object code comes from the flat arrays, not from SIMD.
+ * 
+ * @author SK
+ * 
+ */
+public final class Kernels {
+	
+	/**
+	 * 
+	 * Transforms points by a 2D affine matrix: x' = a * x + c * y + tx, y' = b * x + d * y + ty.
+	 * The output arrays may be the same as the input arrays.
+	 * 
+	 * @param a - the first column's x component
+	 * @param b - the first column's y component
+	 * @param c - the second column's x component
+	 * @param d - the second column's y component
+	 * @param tx - the translation on the x-axis
+	 * @param ty - the translation on the y-axis
+	 * @param xs - the x coordinates to transform
+	 * @param ys - the y coordinates to transform
+	 * @param outX - the array to write transformed x coordinates to
+	 * @param outY - the array to write transformed y coordinates to
+	 * @param offset - the index of the first point
+	 * @param count - the number of points
+	 */
+	public static final void transform(float a, float b, float c, float d, float tx, float ty,
+			float[] xs, float[] ys, float[] outX, float[] outY, int offset, int count) {
+		int end = offset + count;
+		for(int i = offset; i < end; i++) {
+			float x = xs[i];
+			float y = ys[i];
+			outX[i] = a * x + c * y + tx;
+			outY[i] = b * x + d * y + ty;
+		}
+	}
+	
+	/**
+	 * 
+	 * Transforms points by the 2D part of a column-major 4x4 matrix, as used by {@link apie.math.Matrix4f}.
+	 * 
+	 * @param m - the 16 values of the matrix in column-major order
+	 * @param xs - the x coordinates to transform
+	 * @param ys - the y coordinates to transform
+	 * @param outX - the array to write transformed x coordinates to
+	 * @param outY - the array to write transformed y coordinates to
+	 * @param offset - the index of the first point
+	 * @param count - the number of points
+	 */
+	public static final void transform(float[] m, float[] xs, float[] ys, float[] outX, float[] outY, int offset, int count) {
+		transform(m[0], m[1], m[4], m[5], m[12], m[13], xs, ys, outX, outY, offset, count);
+	}
+	
+	/**
+	 * 
+	 * Transforms points by the specified affine matrix.
+	 * 
+	 * @param m - the matrix to transform with
+	 * @param xs - the x coordinates to transform
+	 * @param ys - the y coordinates to transform
+	 * @param outX - the array to write transformed x coordinates to
+	 * @param outY - the array to write transformed y coordinates to
+	 * @param offset - the index of the first point
+	 * @param count - the number of points
+	 */
+	public static final void transform(Matrix3x2f m, float[] xs, float[] ys, float[] outX, float[] outY, int offset, int count) {
+		transform(m.a, m.b, m.c, m.d, m.tx, m.ty, xs, ys, outX, outY, offset, count);
+	}
+	
+	/**
+	 * 
+	 * Integrates positions by velocity: p += v * dt.
+	 * 
+	 * @param px - the x positions
+	 * @param py - the y positions
+	 * @param vx - the x velocities
+	 * @param vy - the y velocities
+	 * @param dt - the time step
+	 * @param offset - the index of the first element
+	 * @param count - the number of elements
+	 */
+	public static final void integrate(float[] px, float[] py, float[] vx, float[] vy, float dt, int offset, int count) {
+		int end = offset + count;
+		for(int i = offset; i < end; i++) {
+			px[i] += vx[i] * dt;
+			py[i] += vy[i] * dt;
+		}
+	}
+	
+	/**
+	 * 
+	 * Projects points onto an axis: out = x * ax + y * ay.
+	 * The axis is not normalized, so a scaled axis projects scaled points.
+	 * 
+	 * @param xs - the x coordinates
+	 * @param ys - the y coordinates
+	 * @param ax - the axis' x component
+	 * @param ay - the axis' y component
+	 * @param out - the array to write projections to
+	 * @param offset - the index of the first point
+	 * @param count - the number of points
+	 */
+	public static final void project(float[] xs, float[] ys, float ax, float ay, float[] out, int offset, int count) {
+		int end = offset + count;
+		for(int i = offset; i < end; i++)
+			out[i] = xs[i] * ax + ys[i] * ay;
+	}
+	
+	/**
+	 * 
+	 * Projects points onto an axis and writes the smallest and largest projection to dest[0] and dest[1].
+	 * The min/max reduction is not expected to vectorize, see the class documentation.
+	 * 
+	 * @param xs - the x coordinates
+	 * @param ys - the y coordinates
+	 * @param ax - the axis' x component
+	 * @param ay - the axis' y component
+	 * @param offset - the index of the first point
+	 * @param count - the number of points, at least one
+	 * @param dest - the array to write the bounds to
+	 */
+	public static final void projectBounds(float[] xs, float[] ys, float ax, float ay, int offset, int count, float[] dest) {
+		float min = Float.POSITIVE_INFINITY;
+		float max = Float.NEGATIVE_INFINITY;
+		
+		int end = offset + count;
+		for(int i = offset; i < end; i++) {
+			float d = xs[i] * ax + ys[i] * ay;
+			min = Math.min(min, d);
+			max = Math.max(max, d);
+		}
+		
+		dest[0] = min;
+		dest[1] = max;
+	}
+}
@@ -1,8 +1,10 @@
 package apie.physics;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 
-import apie.debug.Debug;
+import apie.math.FastMath;
 import apie.math.Transform;
 import apie.math.Vector2f;
 import apie.math.VectorXf;
@@ -17,10 +19,48 @@ public class Body {
 
 	boolean trigger;
 	boolean absolute;
+	boolean bullet;
+	
+	//Whether the body is kept in the static tree of its physics engine rather than in the broadphase
+	boolean inStaticTree;
+	
+	//The index of the body in its physics engine, which contacts refer to it by
+	int index = -1;
+	
+	//Sleeping bodies are skipped by the physics engine until something wakes them
+	boolean sleeping;
+	float sleepTime;
+	private int sleepVersion, sleepShapeVersion;
+	
+	//The transform version at the start of the previous step, and whether it has changed since
+	int stepVersion;
+	boolean moved;
+	
+	//The position at the start of the last step, and the transform version at its end, see getInterpolatedX(float)
+	float previousX, previousY;
+	int endVersion = -1;
+	
+	//Counts changes to the dimensions and collider, which move the bounds without changing the transform
+	int shapeVersion;
+	
+	//A unique id, gives pairs of bodies a stable order
+	private static int nextId;
+	final int id = nextId++;
+	
+	//World space geometry, see updateGeometry()
+	float[] worldX, worldY, worldNormalX, worldNormalY;
+	float minX, minY, maxX, maxY;
+	float sin, cos = 1;
+	private int geometryVersion;
+	private float geometryW = Float.NaN, geometryH = Float.NaN, geometryRotation;
+	private Collider geometryCollider;
 	
-	HashSet<String> collisionTags;
 	HashSet<String> myTags;
-	HashSet<Vector2f> collidingNormals;
+	
+	//Tags as bits indexed by interned tag ids, so exchanging tags between touching bodies each step allocates nothing
+	private static final HashMap<String, Integer> tagIds = new HashMap<>();
+	private long[] tagBits = new long[1];
+	private long[] collidingBits = new long[1];
 
 	float invMass;
 	float epsilon;
@@ -56,11 +96,8 @@ public class Body {
 		dim = new Vector2f(w, h);
 		vel = new Vector2f(0, 0);
 		
-		collisionTags = new HashSet<>();
 		myTags = new HashSet<>();
-		myTags.add("body");
-		
-		collidingNormals = new HashSet<>();
+		addTag("body");
 	}
 	
 	public Body(Transform transform, String name, float w, float h) {
@@ -100,24 +137,34 @@ public class Body {
 	 * @return whether or not there is a collision
 	 */
 	public boolean isCollidingWith(String tag) {
-		return collisionTags.contains(tag);
+		Integer id = tagIds.get(tag);
+		if(id == null || id >> 6 >= collidingBits.length)
+			return false;
+		
+		return (collidingBits[id >> 6] & 1L << id) != 0;
 	}
 	
 	/**
 	 * 
-	 * Adds a collision tag to this body.
-	 * A body can be checked through the {@link #isCollidingWith(Tag)}
-	 * to see the tags of bodies that are colliding.
+	 * Returns the id of the specified tag, giving it the next free id if it has none yet.
 	 * 
-	 * @param tag the tag to add to this body
+	 * @param tag the tag to get the id of
+	 * @return the id of the tag
 	 */
-	private void addCollidingTag(String tag) {
-		collisionTags.add(tag);
+	private static int tagId(String tag) {
+		Integer id = tagIds.get(tag);
+		if(id == null) {
+			id = tagIds.size();
+			tagIds.put(tag, id);
+		}
+		
+		return id;
 	}
 	
 	/**
 	 * 
-	 * Returns the collision tags that belong to this body.
+	 * Returns the collision tags that belong to this body. Tags must be added through {@link #addTag(String)},
+	 * adding them to the returned set directly does not make them seen by colliding bodies.
 	 * 
 	 * @return the collision tags of this body
 	 */
@@ -144,10 +191,11 @@ public class Body {
 	 */
 	public void addTag(String tag) {
 		myTags.add(tag);
-	}
-	
-	public void addNormal(Vector2f n) {
-		collidingNormals.add(n);
+		
+		int id = tagId(tag);
+		if(id >> 6 >= tagBits.length)
+			tagBits = Arrays.copyOf(tagBits, (id >> 6) + 1);
+		tagBits[id >> 6] |= 1L << id;
 	}
 	
 	/**
@@ -156,8 +204,8 @@ public class Body {
 	 * 
 	 */
 	protected void _clearTags() {
-		collisionTags.clear();
-		collidingNormals.clear();
+		for(int i = 0; i < collidingBits.length; i++)
+			collidingBits[i] = 0;
 	}
 	
 	/**
@@ -183,6 +231,7 @@ public class Body {
 	
 	public Body setCollider(Collider c) {
 		this.collider = c;
+		shapeVersion++;
 		return this;
 	}
 	
@@ -212,6 +261,31 @@ public class Body {
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Returns whether this body is a bullet.
+	 * 
+	 * @return whether or not this body uses continuous collision detection
+	 */
+	public boolean isBullet() {
+		return bullet;
+	}
+	
+	/**
+	 * 
+	 * Sets if this body is a bullet. Bullets are swept along their whole path every step and stopped at the first
+	 * absolute body in their way, so they cannot pass through thin walls no matter how fast they move or how long the step is.
+	 * The sweep uses bounding boxes, so it is exact for axis-aligned boxes only; a rotated bullet may stop short of a wall.
+	 * Sweeping costs more than a plain move, so only fast bodies should be bullets.
+	 * 
+	 * @param bullet - whether or not this body should use continuous collision detection
+	 * @return this Body instance
+	 */
+	public Body setBullet(boolean bullet) {
+		this.bullet = bullet;
+		return this;
+	}
+	
 	/**
 	 * 
 	 * Returns the inverse of this body's mass
@@ -292,17 +366,84 @@ public class Body {
 	 */
 	public Body setDim(Vector2f dim) {
 		this.dim = dim;
+		shapeVersion++;
 		return this;
 	}
 	
 	/**
 	 * 
-	 * Returns the position of this body.
+	 * Returns a copy of the position of this body. Changes to the copy do not move the body.
 	 * 
 	 * @return the position of this body
 	 */
 	public Vector2f getPos() {
-		return transform.pos;
+		return new Vector2f(transform.getX(), transform.getY());
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinate of this body.
+	 * 
+	 * @return the x coordinate of this body
+	 */
+	public float getX() {
+		return transform.getX();
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinate of this body.
+	 * 
+	 * @return the y coordinate of this body
+	 */
+	public float getY() {
+		return transform.getY();
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinate of this body at the start of the last physics step.
+	 * 
+	 * @return the previous x coordinate of this body
+	 */
+	public float getPreviousX() {
+		return previousX;
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinate of this body at the start of the last physics step.
+	 * 
+	 * @return the previous y coordinate of this body
+	 */
+	public float getPreviousY() {
+		return previousY;
+	}
+	
+	/**
+	 * 
+	 * Returns the x coordinate of this body blended between the start and the end of the last physics step, for drawing.
+	 * A body that has not been stepped yet, or was moved from outside since, is at its current position.
+	 * 
+	 * @param alpha - the blend factor, usually {@link PhysicsEngine#getAlpha()}
+	 * @return the interpolated x coordinate of this body
+	 */
+	public float getInterpolatedX(float alpha) {
+		float x = transform.getX();
+		return transform.getVersion() == endVersion ? previousX + (x - previousX) * alpha : x;
+	}
+	
+	/**
+	 * 
+	 * Returns the y coordinate of this body blended between the start and the end of the last physics step, for drawing.
+	 * A body that has not been stepped yet, or was moved from outside since, is at its current position.
+	 * 
+	 * @param alpha - the blend factor, usually {@link PhysicsEngine#getAlpha()}
+	 * @return the interpolated y coordinate of this body
+	 */
+	public float getInterpolatedY(float alpha) {
+		float y = transform.getY();
+		return transform.getVersion() == endVersion ? previousY + (y - previousY) * alpha : y;
 	}
 	
 	/**
@@ -313,7 +454,7 @@ public class Body {
 	 * @return this Body instance
 	 */
 	public Body setPos(Vector2f pos) {
-		transform.pos = pos;
+		transform.setPosition(pos);
 		return this;
 	}
 	
@@ -339,9 +480,56 @@ public class Body {
 	 */
 	public Body setVel(Vector2f vel) {
 		this.vel = vel;
+		wake();
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Returns whether this body is sleeping. A sleeping body has been at rest for a while along with every body it touches,
+	 * and is neither moved nor tested for collisions against other sleeping or absolute bodies until it is woken.
+	 * 
+	 * @return whether or not this body is sleeping
+	 */
+	public boolean isSleeping() {
+		return sleeping;
+	}
+	
+	/**
+	 * 
+	 * Wakes this body up. Bodies wake by themselves when pushed, given a velocity, moved, or hit by an awake body,
+	 * but changing the vector returned by {@link #getVel()} does not wake them.
+	 * 
+	 * @return this Body instance
+	 */
+	public Body wake() {
+		sleeping = false;
+		sleepTime = 0;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Puts this body to sleep, stopping it.
+	 * 
+	 */
+	void sleep() {
+		sleeping = true;
+		vel.set(0, 0);
+		sleepVersion = transform.getVersion();
+		sleepShapeVersion = shapeVersion;
+	}
+	
+	/**
+	 * 
+	 * Returns whether this body was moved or reshaped since it fell asleep.
+	 * 
+	 * @return true if the transform or shape changed while sleeping
+	 */
+	boolean movedWhileSleeping() {
+		return transform.getVersion() != sleepVersion || shapeVersion != sleepShapeVersion;
+	}
+	
 	/**
 	 * 
 	 * Nullifies the velocity of this body.
@@ -356,152 +544,141 @@ public class Body {
 	
 	/**
 	 * 
-	 * Checks if two bodies are colliding, you should probably not call this. The physics engine will handle this perfectly well.
+	 * Exchanges collision tags with a body this body is overlapping, so each can tell what it is colliding with.
 	 * 
-	 * @param body the other body you want to check for collision against
-	 * @param pe the physics engine where the check plays out
+	 * @param body the body this body is overlapping
 	 */
-protected void _checkCollision(Body body, PhysicsEngine pe) {
+	void _exchangeTags(Body body) {
+		body.addCollidingTags(tagBits);
+		addCollidingTags(body.tagBits);
+	}
 	
-	float depth = 0;
-	Vector2f normal = body.getPos();
-	Vector2f distance = (Vector2f) new Vector2f(body.getPos().getX() - this.getPos().getX(), body.getPos().getY() - this.getPos().getY());
+	/**
+	 * 
+	 * Marks the tags in the specified bits as colliding with this body.
+	 * 
+	 * @param bits the tag bits of a body this body is overlapping
+	 */
+	private void addCollidingTags(long[] bits) {
+		if(collidingBits.length < bits.length)
+			collidingBits = Arrays.copyOf(collidingBits, bits.length);
+		
+		for(int i = 0; i < bits.length; i++)
+			collidingBits[i] |= bits[i];
+	}
 	
-	//Collision Check
-	//My normals
-	for(Vector2f n : this.collider.getNormals()) {
-		float projection = distance.dot(n);
-
-		Vector2f a = this.collider.project(n, this.getDim().getX(), this.getDim().getY());
-		Vector2f b = body.collider.project(n, body.getDim().getX(), body.getDim().getY());
+	/**
+	 * 
+	 * Recomputes the world space vertices, edge normals and bounds of this body, unless its transform,
+	 * dimensions and collider are all unchanged since they were last computed.
+	 * 
+	 */
+	void updateGeometry() {
+		int version = transform.getVersion();
+		if(version == geometryVersion && dim.x == geometryW && dim.y == geometryH && collider == geometryCollider)
+			return;
 		
-		float d = 0;
-		float s = 0;
-		if (projection < 0) {
-			d = Math.abs(a.getX()) + Math.abs(b.getY());
-			s = -1;
-		} else {
-			d = Math.abs(b.getX()) + Math.abs(a.getY());
-			s = 1;
+		float rotation = transform.getRotation();
+		if(rotation != geometryRotation) {
+			float r = rotation * FastMath.DEG_TO_RAD;
+			sin = FastMath.sin(r);
+			cos = FastMath.cos(r);
+			geometryRotation = rotation;
 		}
-
-		projection = Math.abs(projection);
 		
-		if (Math.abs(projection) < d) {
-			if ((d - projection < depth) || depth == 0) {
-				depth = (d - projection);
-				normal = n;
-				normal.scale(-s);			}
-		} else {
-			return;
+		float[] lx = collider.xs;
+		float[] ly = collider.ys;
+		int n = lx.length;
+		if(worldX == null || worldX.length != n) {
+			worldX = new float[n];
+			worldY = new float[n];
+			worldNormalX = new float[n];
+			worldNormalY = new float[n];
 		}
-	}
-	
-	for(Vector2f n : body.collider.getNormals()) {
-		float projection = distance.dot(n);
-
-		Vector2f a = this.collider.project(n, this.getDim().getX(), this.getDim().getY());
-		Vector2f b = body.collider.project(n, body.getDim().getX(), body.getDim().getY());
 		
-		float d = 0;
-		float s = 0;
-		if (projection < 0) {
-			d = Math.abs(a.getX()) + Math.abs(b.getY());
-			s = -1;
-		} else {
-			d = Math.abs(b.getX()) + Math.abs(a.getY());
-			s = 1;
+		float x = transform.getX(), y = transform.getY();
+		float w = dim.x, h = dim.y;
+		
+		//The bounds always include the center, like the collider's own bounds
+		float x0 = x, y0 = y, x1 = x, y1 = y;
+		for(int i = 0; i < n; i++) {
+			float px = lx[i] * w;
+			float py = ly[i] * h;
+			float wx = x + cos * px - sin * py;
+			float wy = y + sin * px + cos * py;
+			worldX[i] = wx;
+			worldY[i] = wy;
+			x0 = Math.min(x0, wx);
+			y0 = Math.min(y0, wy);
+			x1 = Math.max(x1, wx);
+			y1 = Math.max(y1, wy);
 		}
-
-		projection = Math.abs(projection);
 		
-		if (Math.abs(projection) < d) {
-			if ((d - projection < depth) || depth == 0) {
-				depth = (d - projection);
-				normal = n;
-				normal.scale(-s);
+		//Edge normals, left as zero for degenerate edges so they are never used as an axis
+		for(int i = 0; i < n; i++) {
+			int j = i + 1 == n ? 0 : i + 1;
+			float ex = worldX[j] - worldX[i];
+			float ey = worldY[j] - worldY[i];
+			float lengthSquared = ex * ex + ey * ey;
+			if(lengthSquared == 0) {
+				worldNormalX[i] = 0;
+				worldNormalY[i] = 0;
+				continue;
 			}
-		} else {
-			return;
+			
+			float inv = FastMath.invSqrt(lengthSquared);
+			worldNormalX[i] = ey * inv;
+			worldNormalY[i] = -ex * inv;
 		}
+		
+		minX = x0;
+		minY = y0;
+		maxX = x1;
+		maxY = y1;
+		
+		geometryVersion = version;
+		geometryW = w;
+		geometryH = h;
+		geometryCollider = collider;
 	}
 	
-	//Add in all my tags
-	for(String t : myTags) {
-		body.addCollidingTag(t);
-	}
-	
-	//Add in the normal
-	this.addNormal(normal);
-	body.addNormal(normal);
-	
-	//Add in all the other bodies tags
-	for(String t : body.getTags()) {
-		addCollidingTag(t);
-	}
-	
-	//Make a collision event if necessary 
-	if(trigger || body.isTrigger()) return;
-	
-	Debug.log(normal);
-	
-	new Collision(pe, new Vector2f(normal.getX(), normal.getY()), depth, this, body);
-	return;
-}	
-	
-//	protected void _checkCollision(Body body, PhysicsEngine pe) {
-//		
-//		//Collision Check
-//		float overlapX = 0.5f * Math.abs(this.dim.getX() + body.dim.getX()) - Math.abs(this.transform.pos.getX() - body.transform.pos.getX());
-//		if(overlapX < 0) return;		
-//
-//		float overlapY = 0.5f * Math.abs(this.dim.getY() + body.dim.getY()) - Math.abs(this.transform.pos.getY() - body.transform.pos.getY());
-//		if(overlapY < 0) return;
-//		
-//		//Add in all my tags
-//		for(String t : myTags) {
-//			body.addCollidingTag(t);
-//		}
-//		
-//		//Add in all the other bodies tags
-//		for(String t : body.getTags()) {
-//			addCollidingTag(t);
-//		}
-//		
-//		//Make a collision event if necessary 
-//		if(trigger || body.isTrigger()) return;
-//		
-//		VectorXf distance = this.transform.pos.clone().sub(body.getPos());
-//		float depth = 0;
-//		
-//		if(Math.abs(distance.getN(0)) > Math.abs(distance.getN(1))) {
-//			distance.setN(1, 0);
-//			distance.scale(Math.abs(1/distance.getN(0)));
-//			depth = overlapX;
-//		}
-//		else {
-//			distance.setN(0, 0);
-//			distance.scale(Math.abs(1/distance.getN(1)));
-//			depth = overlapY;
-//		}
-//
-//		new Collision(pe, new Vector2f(distance.getN(0), distance.getN(1)), depth, this, body);
-//		return;
-//	}
-	
 	/**
 	 * 
-	 * Pushes this body with the specified force.
+	 * Pushes this body with the specified force. The force vector is not changed.
 	 * 
 	 * @param vectorXf the force to push this body with
 	 */
 	public void push(VectorXf vectorXf) {
-		vel.add(vectorXf.scale(invMass));
+		push(vectorXf.getN(0), vectorXf.getN(1));
+	}
+	
+	/**
+	 * 
+	 * Pushes this body with the specified force.
+	 * 
+	 * @param x the force on the x-axis
+	 * @param y the force on the y-axis
+	 */
+	public void push(float x, float y) {
 		if(absolute) {
-			this.vel.setX(0);
-			this.vel.setY(0);
+			freezeVelocity();
 			return;
 		}
+		vel.add(x * invMass, y * invMass);
+		wake();
+	}
+	
+	/**
+	 * 
+	 * Applies an impulse from the contact solver. Unlike {@link #push(float, float)} it does not wake the body,
+	 * since only bodies in awake islands are solved.
+	 * 
+	 * @param x the impulse on the x-axis
+	 * @param y the impulse on the y-axis
+	 */
+	void applyImpulse(float x, float y) {
+		vel.x += x * invMass;
+		vel.y += y * invMass;
 	}
 	
 	/**
@@ -512,6 +689,7 @@ protected void _checkCollision(Body body, PhysicsEngine pe) {
 	 */
 	public void addVel(VectorXf vel) {
 		this.vel.add(vel);
+		wake();
 	}
 	
 	/**
@@ -525,7 +703,51 @@ protected void _checkCollision(Body body, PhysicsEngine pe) {
 			freezeVelocity();
 			return;
 		}
-		transform.pos.add(vel.clone().scale(delta));
+		transform.translate(vel.x * delta, vel.y * delta);
+	}
+	
+	/**
+	 * 
+	 * Returns the left edge of this body's axis-aligned bounding box.
+	 * 
+	 * @return the minimum x coordinate of this body's bounds
+	 */
+	public float getMinX() {
+		updateGeometry();
+		return minX;
+	}
+	
+	/**
+	 * 
+	 * Returns the bottom edge of this body's axis-aligned bounding box.
+	 * 
+	 * @return the minimum y coordinate of this body's bounds
+	 */
+	public float getMinY() {
+		updateGeometry();
+		return minY;
+	}
+	
+	/**
+	 * 
+	 * Returns the right edge of this body's axis-aligned bounding box.
+	 * 
+	 * @return the maximum x coordinate of this body's bounds
+	 */
+	public float getMaxX() {
+		updateGeometry();
+		return maxX;
+	}
+	
+	/**
+	 * 
+	 * Returns the top edge of this body's axis-aligned bounding box.
+	 * 
+	 * @return the maximum y coordinate of this body's bounds
+	 */
+	public float getMaxY() {
+		updateGeometry();
+		return maxY;
 	}
 	
 	/**
@@ -542,13 +764,16 @@ protected void _checkCollision(Body body, PhysicsEngine pe) {
 	
 	/**
 	 * 
-	 * Checks whether or not a point is contained within this body.
+	 * Checks whether or not a point is contained within this body. The point is in world space.
 	 * 
 	 * @param point the point to check
 	 * @return true if the point is contained
 	 */
 	public boolean contains(Vector2f point) {
-		return point.getX() > transform.pos.getX() - dim.getX() / 2 && point.getX() < transform.pos.getX() + dim.getX() / 2
-				&& point.getY() > transform.pos.getY() - dim.getY() / 2 && point.getY() < transform.pos.getY() + dim.getY() / 2;
+		float x = transform.getWorldX();
+		float y = transform.getWorldY();
+		
+		return point.getX() > x - dim.getX() / 2 && point.getX() < x + dim.getX() / 2
+				&& point.getY() > y - dim.getY() / 2 && point.getY() < y + dim.getY() / 2;
 	}
 }
@@ -0,0 +1,90 @@
+package apie.physics;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * A growable list of body pairs, kept in two parallel arrays so it can be cleared and refilled every step without allocating.
+ * 
+ * @author SK
+ * 
+ */
+public final class BodyPairs {
+	
+	private Body[] a = new Body[64];
+	private Body[] b = new Body[64];
+	private int size;
+	
+	/**
+	 * 
+	 * Appends a pair to this list.
+	 * 
+	 * @param first - the first body of the pair
+	 * @param second - the second body of the pair
+	 */
+	public void add(Body first, Body second) {
+		if(size == a.length) {
+			a = Arrays.copyOf(a, size * 2);
+			b = Arrays.copyOf(b, size * 2);
+		}
+		
+		a[size] = first;
+		b[size] = second;
+		size++;
+	}
+	
+	/**
+	 * 
+	 * Returns the first body of the specified pair.
+	 * 
+	 * @param i - the index of the pair
+	 * @return the first body of the pair
+	 */
+	public Body getA(int i) {
+		return a[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the second body of the specified pair.
+	 * 
+	 * @param i - the index of the pair
+	 * @return the second body of the pair
+	 */
+	public Body getB(int i) {
+		return b[i];
+	}
+	
+	/**
+	 * 
+	 * Swaps the first and second body of the specified pair.
+	 * 
+	 * @param i - the index of the pair
+	 */
+	public void swap(int i) {
+		Body t = a[i];
+		a[i] = b[i];
+		b[i] = t;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of pairs in this list.
+	 * 
+	 * @return the number of pairs
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * 
+	 * Removes all pairs from this list.
+	 * 
+	 */
+	public void clear() {
+		Arrays.fill(a, 0, size, null);
+		Arrays.fill(b, 0, size, null);
+		size = 0;
+	}
+}
@@ -0,0 +1,74 @@
+package apie.physics;
+
+/**
+ * 
+ * Finds the pairs of bodies that may be colliding, so the exact and much more expensive collision check
+ * only runs on bodies that are close to each other.
+ * <p>
+ * Each step, the physics engine calls {@link #update()} once all bodies have moved, then {@link #findPairs(BodyPairs)}.
+ * Every pair of bodies whose bounding boxes overlap must be reported exactly once. Pairs whose boxes do not
+ * overlap may be reported, but a good broadphase reports few of them.
+ * 
+ * @author SK
+ * 
+ */
+public interface Broadphase {
+	
+	/**
+	 * 
+	 * Adds a body to this broadphase.
+	 * 
+	 * @param body - the body to add
+	 */
+	public void add(Body body);
+	
+	/**
+	 * 
+	 * Removes a body from this broadphase.
+	 * 
+	 * @param body - the body to remove
+	 */
+	public void remove(Body body);
+	
+	/**
+	 * 
+	 * Removes all bodies from this broadphase.
+	 * 
+	 */
+	public void clear();
+	
+	/**
+	 * 
+	 * Returns the number of bodies in this broadphase.
+	 * 
+	 * @return the number of bodies
+	 */
+	public int getBodyCount();
+	
+	/**
+	 * 
+	 * Refreshes the broadphase after bodies have moved.
+	 * 
+	 */
+	public void update();
+	
+	/**
+	 * 
+	 * Appends all candidate pairs to the specified list. The list is not cleared first.
+	 * 
+	 * @param pairs - the list to append the pairs to
+	 */
+	public void findPairs(BodyPairs pairs);
+	
+	/**
+	 * 
+	 * Reports every body whose bounding box overlaps the specified region. The bounds are as of the latest update.
+	 * 
+	 * @param x0 - the left edge of the region
+	 * @param y0 - the bottom edge of the region
+	 * @param x1 - the right edge of the region
+	 * @param y1 - the top edge of the region
+	 * @param callback - the callback to report the bodies to
+	 */
+	public void query(float x0, float y0, float x1, float y1, QueryCallback callback);
+}
@@ -0,0 +1,147 @@
+package apie.physics;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import apie.debug.Benchmark;
+
+/**
+ * 
+ * Times one physics step's worth of pair finding for every broadphase against the brute-force loop over all pairs,
+ * on scenes shaped like ours: a level with a wide floor and walls, a mostly resting pile of boxes, and a crowd where everything moves.
+ * Run with a server VM: java -cp bin apie.physics.BroadphaseBenchmark
+ * 
+ * @author SK
+ * 
+ */
+public final class BroadphaseBenchmark {
+	
+	private static final int ROUNDS = 200;
+	
+	public static final void main(String[] args) {
+		scene("Level, 500 bodies, 10% moving", level(500), 0.1f);
+		scene("Resting pile, 2000 bodies, 5% moving", pile(2000), 0.05f);
+		scene("Crowd, 2000 bodies, all moving", pile(2000), 1);
+		scene("Crowd, 10000 bodies, all moving", pile(10000), 1);
+	}
+	
+	/**
+	 * 
+	 * Times every broadphase and the brute-force loop on a scene.
+	 * 
+	 * @param name - the name of the scene
+	 * @param bodies - the bodies of the scene
+	 * @param moving - the fraction of bodies that move every step
+	 */
+	private static void scene(String name, ArrayList<Body> bodies, float moving) {
+		System.out.println(name);
+		
+		Body[] movers = new Body[(int)(bodies.size() * moving)];
+		for(int i = 0; i < movers.length; i++)
+			movers[i] = bodies.get(bodies.size() - 1 - i);
+		
+		BodyPairs pairs = new BodyPairs();
+		int[] round = new int[1];
+		
+		//Each step moves the movers back and forth by a few units, as bodies at rest jitter and walkers walk
+		Runnable step = new Runnable() {
+			@Override
+			public void run() {
+				float d = (round[0]++ & 1) == 0 ? 3 : -3;
+				for(Body b : movers)
+					b.transform.translate(d, d * 0.5f);
+			}
+		};
+		
+		if(bodies.size() <= 2000) {
+			Body[] all = bodies.toArray(new Body[bodies.size()]);
+			Benchmark.measure("  Brute force", new Runnable() {
+				@Override
+				public void run() {
+					step.run();
+					bruteForce(all, pairs);
+					Benchmark.consume(pairs.size());
+					pairs.clear();
+				}
+			}, ROUNDS / 4, ROUNDS);
+		}
+		
+		Broadphase[] broadphases = { new SpatialHashGrid(), new DynamicAABBTree(), new SweepAndPrune() };
+		for(Broadphase broadphase : broadphases) {
+			for(Body b : bodies)
+				broadphase.add(b);
+			
+			Benchmark.measure("  " + broadphase.getClass().getSimpleName(), new Runnable() {
+				@Override
+				public void run() {
+					step.run();
+					broadphase.update();
+					broadphase.findPairs(pairs);
+					Benchmark.consume(pairs.size());
+					pairs.clear();
+				}
+			}, ROUNDS / 4, ROUNDS);
+		}
+	}
+	
+	/**
+	 * 
+	 * Tests every pair of bodies, as the physics engine did before it had a broadphase.
+	 * 
+	 * @param bodies - the bodies to test
+	 * @param pairs - the list to append the overlapping pairs to
+	 */
+	private static void bruteForce(Body[] bodies, BodyPairs pairs) {
+		for(int i = 0; i < bodies.length; i++) {
+			Body a = bodies[i];
+			for(int j = i + 1; j < bodies.length; j++) {
+				Body b = bodies[j];
+				if(a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX() && a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY())
+					pairs.add(a, b);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Builds a level like res/level/test.level: a 1280 wide floor and two walls, with boxes of varying size scattered above.
+	 * 
+	 * @param count - the number of bodies
+	 * @return the bodies of the level
+	 */
+	private static ArrayList<Body> level(int count) {
+		Random random = new Random(1);
+		ArrayList<Body> bodies = new ArrayList<>();
+		
+		bodies.add(new Body(640, 50, 1280, 200).setAbsolute(true));
+		bodies.add(new Body(0, 360, 40, 720).setAbsolute(true));
+		bodies.add(new Body(1280, 360, 40, 720).setAbsolute(true));
+		
+		while(bodies.size() < count) {
+			float size = 8 + random.nextFloat() * 120;
+			bodies.add(new Body(random.nextFloat() * 1280, 150 + random.nextFloat() * 570, size, size * (0.25f + random.nextFloat())));
+		}
+		
+		return bodies;
+	}
+	
+	/**
+	 * 
+	 * Builds a pile of boxes with a side of 16 to 48 units, packed so each touches a few neighbours.
+	 * 
+	 * @param count - the number of bodies
+	 * @return the bodies of the pile
+	 */
+	private static ArrayList<Body> pile(int count) {
+		Random random = new Random(2);
+		ArrayList<Body> bodies = new ArrayList<>();
+		
+		int columns = (int)Math.ceil(Math.sqrt(count));
+		for(int i = 0; i < count; i++) {
+			float size = 16 + random.nextFloat() * 32;
+			bodies.add(new Body((i % columns) * 36, (i / columns) * 36, size, size));
+		}
+		
+		return bodies;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 
 import apie.debug.Debug;
 import apie.math.Vector2f;
+import apie.math.simd.Kernels;
 
 public class Collider {
 
@@ -12,18 +13,60 @@ public class Collider {
 	Vector2f[] points;
 	Vector2f[] normals;
 	
+	//The points as separate coordinate arrays for the projection kernel
+	final float[] xs;
+	final float[] ys;
+	
+	//The bounding box of the unscaled points, always including the center like the projections do
+	float minX, minY, maxX, maxY;
+	
+	//Whether the points form a rectangle centered on the origin, which the narrowphase tests as an oriented box
+	final boolean box;
+	
 	public Collider(String name, Vector2f ... points) {
 		this.points = points;
+		xs = new float[points.length];
+		ys = new float[points.length];
+		for(int i = 0; i < points.length; i++) {
+			xs[i] = points[i].getX();
+			ys[i] = points[i].getY();
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		
+		box = isBox();
+
 		this.normals = new Vector2f[points.length];
 		for (int i = 0; i < points.length; i++) {
-			Vector2f n = (Vector2f) points[i].sub(points[(i+1)%points.length]);
-			n = (Vector2f) n.scale(1/n.getMagnitude());
-			normals[i] = n;
+			//Into a new vector, subtracting in place would corrupt the points
+			normals[i] = points[i].subInto(points[(i+1)%points.length], new Vector2f()).normalize();
 		}
 		
 		colliders.put(name, this);
 	}
 	
+	/**
+	 * 
+	 * Returns whether the points are the four corners of a rectangle centered on the origin.
+	 * 
+	 * @return true if the points form a centered rectangle
+	 */
+	private boolean isBox() {
+		if(xs.length != 4 || maxX <= 0 || maxY <= 0 || minX != -maxX || minY != -maxY)
+			return false;
+		
+		//One corner in each quadrant
+		int quadrants = 0;
+		for(int i = 0; i < 4; i++) {
+			if(Math.abs(xs[i]) != maxX || Math.abs(ys[i]) != maxY)
+				return false;
+			quadrants |= 1 << ((xs[i] > 0 ? 1 : 0) | (ys[i] > 0 ? 2 : 0));
+		}
+		return quadrants == 15;
+	}
+	
 	public static final Collider get(String name) {
 		if (name.equals("box") && !hasCollider("box")) {
 			new Collider("box",
@@ -50,21 +93,13 @@ public class Collider {
 	}
 	
 	public Vector2f project(Vector2f n, float w, float h) {
-		float max = 0;
-		float min = 0;
+		float[] bounds = new float[2];
 		
-		for(int i = 0; i < points.length; i++) {
-			Vector2f p = new Vector2f(points[i].getX() * w, points[i].getY() * h);
-			
-			float d = p.dot(n);	
-			if (max < d) {
-				max = d;
-			}
-			if (d < min) {
-				min = d;
-			}
-		}
-		return new Vector2f(min, max);
+		//Projecting the unscaled points onto a scaled axis equals projecting the scaled points
+		Kernels.projectBounds(xs, ys, n.getX() * w, n.getY() * h, 0, xs.length, bounds);
+		
+		//The bounds always include the body's center
+		return new Vector2f(Math.min(0, bounds[0]), Math.max(0, bounds[1]));
 	}
 	
 	
@@ -0,0 +1,183 @@
+package apie.physics;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * A growable list of contacts, kept in parallel primitive arrays so it can be cleared and refilled every step without allocating.
+ * <p>
+ * Each contact refers to its two bodies by their index in the physics engine, see {@link PhysicsEngine#getBody(int)}.
+ * The normal points from the second body towards the first, and the depth is how far the bodies overlap along it.
+ * The feature identifies the axis the bodies touch along, so a contact between the same bodies at the same feature
+ * in the next step is considered the same contact. Once the step is solved, each contact also holds the impulses it was solved with.
+ * 
+ * @author SK
+ * 
+ */
+public final class ContactBuffer {
+	
+	private int[] bodyA = new int[64];
+	private int[] bodyB = new int[64];
+	private float[] normalX = new float[64];
+	private float[] normalY = new float[64];
+	private float[] depth = new float[64];
+	private int[] feature = new int[64];
+	private float[] normalImpulse = new float[64];
+	private float[] tangentImpulse = new float[64];
+	private int size;
+	
+	/**
+	 * 
+	 * Appends a contact to this list.
+	 * 
+	 * @param a - the index of the first body
+	 * @param b - the index of the second body
+	 * @param nx - the x component of the contact normal
+	 * @param ny - the y component of the contact normal
+	 * @param d - the penetration depth
+	 * @param f - the feature the bodies touch at
+	 */
+	void add(int a, int b, float nx, float ny, float d, int f) {
+		if(size == bodyA.length) {
+			int n = size * 2;
+			bodyA = Arrays.copyOf(bodyA, n);
+			bodyB = Arrays.copyOf(bodyB, n);
+			normalX = Arrays.copyOf(normalX, n);
+			normalY = Arrays.copyOf(normalY, n);
+			depth = Arrays.copyOf(depth, n);
+			feature = Arrays.copyOf(feature, n);
+			normalImpulse = Arrays.copyOf(normalImpulse, n);
+			tangentImpulse = Arrays.copyOf(tangentImpulse, n);
+		}
+		
+		bodyA[size] = a;
+		bodyB[size] = b;
+		normalX[size] = nx;
+		normalY[size] = ny;
+		depth[size] = d;
+		feature[size] = f;
+		normalImpulse[size] = 0;
+		tangentImpulse[size] = 0;
+		size++;
+	}
+	
+	/**
+	 * 
+	 * Returns the index of the first body of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the index of the first body
+	 */
+	public int getBodyA(int i) {
+		return bodyA[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the index of the second body of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the index of the second body
+	 */
+	public int getBodyB(int i) {
+		return bodyB[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the x component of the normal of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the x component of the normal
+	 */
+	public float getNormalX(int i) {
+		return normalX[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the y component of the normal of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the y component of the normal
+	 */
+	public float getNormalY(int i) {
+		return normalY[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the penetration depth of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the penetration depth
+	 */
+	public float getDepth(int i) {
+		return depth[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the feature of the specified contact.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the feature the bodies touch at
+	 */
+	public int getFeature(int i) {
+		return feature[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the accumulated normal impulse the specified contact was solved with.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the normal impulse
+	 */
+	public float getNormalImpulse(int i) {
+		return normalImpulse[i];
+	}
+	
+	/**
+	 * 
+	 * Returns the accumulated friction impulse the specified contact was solved with.
+	 * 
+	 * @param i - the index of the contact
+	 * @return the tangent impulse
+	 */
+	public float getTangentImpulse(int i) {
+		return tangentImpulse[i];
+	}
+	
+	/**
+	 * 
+	 * Sets the impulses the specified contact was solved with.
+	 * 
+	 * @param i - the index of the contact
+	 * @param normal - the accumulated normal impulse
+	 * @param tangent - the accumulated tangent impulse
+	 */
+	void setImpulses(int i, float normal, float tangent) {
+		normalImpulse[i] = normal;
+		tangentImpulse[i] = tangent;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of contacts in this list.
+	 * 
+	 * @return the number of contacts
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * 
+	 * Removes all contacts from this list.
+	 * 
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,215 @@
+package apie.physics;
+
+/**
+ * 
+ * Solves contacts with sequential impulses. Every iteration applies, contact by contact, the impulse that makes the bodies
+ * stop approaching each other along the normal and stop sliding along the tangent, as far as friction allows. The impulses
+ * are accumulated per contact and the totals clamped rather than each impulse, so later contacts can take back what earlier
+ * ones overdid, and a stack converges to rest over a few iterations.
+ * <p>
+ * Contacts that persist from the previous step at the same feature start from the impulses they ended with, which is usually
+ * close to the answer. This warm starting is what lets a few iterations per step hold a stack still.
+ * <p>
+ * Absolute bodies act as if they had infinite mass and are only ever read, so contacts of different islands can be solved at the same time.
+ * 
+ * @author SK
+ * 
+ */
+final class ContactSolver {
+	
+	//Impacts slower than this do not bounce, so resting contacts settle instead of jittering
+	static final float RESTITUTION_THRESHOLD = 20.0f;
+	
+	public static final int DEFAULT_ITERATIONS = 8;
+	
+	private int iterations = DEFAULT_ITERATIONS;
+	private boolean warmStarting = true;
+	
+	private Body[] bodies;
+	private ContactBuffer contacts;
+	private float moveConstant;
+	
+	//Per contact: the effective mass, the velocity the normal should end up at, friction and the accumulated impulses
+	private float[] mass = new float[64];
+	private float[] bias = new float[64];
+	private float[] friction = new float[64];
+	private float[] normalImpulse = new float[64];
+	private float[] tangentImpulse = new float[64];
+	
+	/**
+	 * 
+	 * Prepares to solve the contacts of a step and looks up the impulses of the contacts that persist from the previous step.
+	 * 
+	 * @param bodies - the bodies of the physics engine, by index
+	 * @param contacts - the contacts to solve
+	 * @param cache - the cache holding the impulses of the previous step
+	 * @param moveConstant - the fraction of the depth to correct the positions by
+	 */
+	void begin(Body[] bodies, ContactBuffer contacts, PairCache cache, float moveConstant) {
+		this.bodies = bodies;
+		this.contacts = contacts;
+		this.moveConstant = moveConstant;
+		
+		int n = contacts.size();
+		if(mass.length < n) {
+			int capacity = Math.max(n, mass.length * 2);
+			mass = new float[capacity];
+			bias = new float[capacity];
+			friction = new float[capacity];
+			normalImpulse = new float[capacity];
+			tangentImpulse = new float[capacity];
+		}
+		
+		for(int c = 0; c < n; c++) {
+			int slot = warmStarting ? cache.findImpulses(bodies[contacts.getBodyA(c)], bodies[contacts.getBodyB(c)], contacts.getFeature(c)) : -1;
+			normalImpulse[c] = slot < 0 ? 0 : cache.getNormalImpulse(slot);
+			tangentImpulse[c] = slot < 0 ? 0 : cache.getTangentImpulse(slot);
+		}
+	}
+	
+	/**
+	 * 
+	 * Prepares a contact: computes its effective mass and target velocity, corrects the positions of its bodies and applies
+	 * the impulses it starts from.
+	 * 
+	 * @param c - the index of the contact
+	 */
+	void prepare(int c) {
+		Body a = bodies[contacts.getBodyA(c)];
+		Body b = bodies[contacts.getBodyB(c)];
+		float nx = contacts.getNormalX(c);
+		float ny = contacts.getNormalY(c);
+		
+		float inverseMass = inverseMass(a) + inverseMass(b);
+		mass[c] = inverseMass == 0 ? 0 : 1 / inverseMass;
+		friction[c] = Math.min(a.mu, b.mu);
+		
+		//Only fast impacts bounce
+		float vn = (velocityX(a) - velocityX(b)) * nx + (velocityY(a) - velocityY(b)) * ny;
+		float restitution = Math.min(a.epsilon, b.epsilon);
+		bias[c] = vn < -RESTITUTION_THRESHOLD ? -restitution * vn : 0;
+		
+		//Positional correction, cleans up the overlap left by floating point errors
+		float move = moveConstant * contacts.getDepth(c);
+		if(a.absolute != b.absolute)
+			move *= 2;
+		
+		if(!a.absolute)
+			a.transform.translate(nx * move, ny * move);
+		if(!b.absolute)
+			b.transform.translate(-nx * move, -ny * move);
+		
+		float px = nx * normalImpulse[c] + ny * tangentImpulse[c];
+		float py = ny * normalImpulse[c] - nx * tangentImpulse[c];
+		apply(a, b, px, py);
+	}
+	
+	/**
+	 * 
+	 * Runs one iteration on a contact, first friction and then the normal, since the normal impulse matters most.
+	 * 
+	 * @param c - the index of the contact
+	 */
+	void solve(int c) {
+		Body a = bodies[contacts.getBodyA(c)];
+		Body b = bodies[contacts.getBodyB(c)];
+		float nx = contacts.getNormalX(c);
+		float ny = contacts.getNormalY(c);
+		
+		//The tangent is the normal turned a quarter clockwise
+		float tx = ny;
+		float ty = -nx;
+		
+		float vx = velocityX(a) - velocityX(b);
+		float vy = velocityY(a) - velocityY(b);
+		
+		//Friction, its total limited by the total normal impulse
+		float limit = friction[c] * normalImpulse[c];
+		float total = clamp(tangentImpulse[c] - (vx * tx + vy * ty) * mass[c], -limit, limit);
+		float lambda = total - tangentImpulse[c];
+		tangentImpulse[c] = total;
+		apply(a, b, tx * lambda, ty * lambda);
+		
+		vx = velocityX(a) - velocityX(b);
+		vy = velocityY(a) - velocityY(b);
+		
+		//Normal, its total never pulling the bodies together
+		total = Math.max(normalImpulse[c] - (vx * nx + vy * ny - bias[c]) * mass[c], 0);
+		lambda = total - normalImpulse[c];
+		normalImpulse[c] = total;
+		apply(a, b, nx * lambda, ny * lambda);
+	}
+	
+	/**
+	 * 
+	 * Stores the impulses every contact ended up with, in the contacts and in the cache for the next step.
+	 * 
+	 * @param cache - the cache to store the impulses in
+	 */
+	void end(PairCache cache) {
+		for(int c = 0; c < contacts.size(); c++) {
+			contacts.setImpulses(c, normalImpulse[c], tangentImpulse[c]);
+			cache.putImpulses(bodies[contacts.getBodyA(c)], bodies[contacts.getBodyB(c)], contacts.getFeature(c), normalImpulse[c], tangentImpulse[c]);
+		}
+		
+		bodies = null;
+		contacts = null;
+	}
+	
+	/**
+	 * 
+	 * Applies an impulse to the first body and the opposite impulse to the second.
+	 * 
+	 * @param a - the first body
+	 * @param b - the second body
+	 * @param x - the impulse on the x-axis
+	 * @param y - the impulse on the y-axis
+	 */
+	private static void apply(Body a, Body b, float x, float y) {
+		if(!a.absolute)
+			a.applyImpulse(x, y);
+		if(!b.absolute)
+			b.applyImpulse(-x, -y);
+	}
+	
+	private static float inverseMass(Body b) {
+		return b.absolute ? 0 : b.invMass;
+	}
+	
+	private static float velocityX(Body b) {
+		return b.absolute ? 0 : b.vel.x;
+	}
+	
+	private static float velocityY(Body b) {
+		return b.absolute ? 0 : b.vel.y;
+	}
+	
+	private static float clamp(float f, float min, float max) {
+		return f < min ? min : f > max ? max : f;
+	}
+	
+	/**
+	 * 
+	 * Sets the number of iterations per step.
+	 * 
+	 * @param iterations - the number of iterations
+	 */
+	void setIterations(int iterations) {
+		if(iterations < 1)
+			throw new IllegalArgumentException("Solver iterations must be at least 1: " + iterations);
+		
+		this.iterations = iterations;
+	}
+	
+	int getIterations() {
+		return iterations;
+	}
+	
+	void setWarmStarting(boolean warmStarting) {
+		this.warmStarting = warmStarting;
+	}
+	
+	boolean isWarmStarting() {
+		return warmStarting;
+	}
+}
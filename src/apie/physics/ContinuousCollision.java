@@ -0,0 +1,130 @@
+package apie.physics;
+
+/**
+ * 
+ * Moves bullet bodies by their velocity without letting them pass through static bodies, however thin the static bodies
+ * or long the step.
+ * <p>
+ * The bounding box of the bullet is swept along its displacement and tested against the bounding box of every static body
+ * the sweep touches. The bullet is moved to the earliest time of impact, where its velocity into the face it hit is removed,
+ * or reversed by the restitution of the two bodies, and it spends the rest of the step moving on from there, sliding along
+ * the face. This is exact for axis-aligned boxes only; rotated boxes and other shapes stop where their bounding boxes touch,
+ * which may leave a gap, and are then handled by the narrowphase.
+ * 
+ * @author SK
+ * 
+ */
+final class ContinuousCollision implements QueryCallback {
+	
+	//The number of impacts handled per step, enough to slide into a corner
+	static final int MAX_IMPACTS = 4;
+	
+	//The bullet being moved, its bounds and displacement
+	private Body bullet;
+	private float minX, minY, maxX, maxY;
+	private float dx, dy;
+	
+	//The earliest impact found by the current sweep
+	private Body hit;
+	private float hitTime;
+	private float hitNormalX, hitNormalY;
+	
+	/**
+	 * 
+	 * Moves a bullet by its velocity, stopping it at the static bodies in its way.
+	 * 
+	 * @param body - the bullet to move
+	 * @param delta - the time step
+	 * @param statics - the tree of static bodies
+	 */
+	void advance(Body body, float delta, StaticBVH statics) {
+		bullet = body;
+		float remaining = 1;
+		
+		for(int impact = 0; impact < MAX_IMPACTS && remaining > 0; impact++) {
+			dx = body.vel.x * delta * remaining;
+			dy = body.vel.y * delta * remaining;
+			if(dx == 0 && dy == 0)
+				break;
+			
+			minX = body.getMinX();
+			minY = body.getMinY();
+			maxX = body.getMaxX();
+			maxY = body.getMaxY();
+			
+			hit = null;
+			hitTime = 1;
+			statics.query(Math.min(minX, minX + dx), Math.min(minY, minY + dy), Math.max(maxX, maxX + dx), Math.max(maxY, maxY + dy), this);
+			
+			if(hit == null) {
+				body.transform.translate(dx, dy);
+				break;
+			}
+			
+			body.transform.translate(dx * hitTime, dy * hitTime);
+			remaining *= 1 - hitTime;
+			
+			//Remove the velocity into the face, or bounce off it
+			float vn = body.vel.x * hitNormalX + body.vel.y * hitNormalY;
+			float restitution = Math.min(body.epsilon, hit.epsilon);
+			body.vel.x -= (1 + restitution) * vn * hitNormalX;
+			body.vel.y -= (1 + restitution) * vn * hitNormalY;
+		}
+		
+		bullet = null;
+		hit = null;
+	}
+	
+	public boolean report(Body body) {
+		if(body == bullet)
+			return true;
+		
+		float bMinX = body.getMinX(), bMinY = body.getMinY(), bMaxX = body.getMaxX(), bMaxY = body.getMaxY();
+		
+		//When the bullet enters and leaves the body's extent on each axis
+		float enterX, exitX, enterY, exitY;
+		if(dx > 0) {
+			enterX = (bMinX - maxX) / dx;
+			exitX = (bMaxX - minX) / dx;
+		} else if(dx < 0) {
+			enterX = (bMaxX - minX) / dx;
+			exitX = (bMinX - maxX) / dx;
+		} else {
+			if(maxX <= bMinX || minX >= bMaxX)
+				return true;
+			enterX = Float.NEGATIVE_INFINITY;
+			exitX = Float.POSITIVE_INFINITY;
+		}
+		
+		if(dy > 0) {
+			enterY = (bMinY - maxY) / dy;
+			exitY = (bMaxY - minY) / dy;
+		} else if(dy < 0) {
+			enterY = (bMaxY - minY) / dy;
+			exitY = (bMinY - maxY) / dy;
+		} else {
+			if(maxY <= bMinY || minY >= bMaxY)
+				return true;
+			enterY = Float.NEGATIVE_INFINITY;
+			exitY = Float.POSITIVE_INFINITY;
+		}
+		
+		float enter = Math.max(enterX, enterY);
+		float exit = Math.min(exitX, exitY);
+		
+		//Missed, grazed, or already overlapping at the start, which the narrowphase deals with
+		if(enter >= exit || enter < 0 || enter >= hitTime)
+			return true;
+		
+		hit = body;
+		hitTime = enter;
+		if(enterX > enterY) {
+			hitNormalX = dx > 0 ? -1 : 1;
+			hitNormalY = 0;
+		} else {
+			hitNormalX = 0;
+			hitNormalY = dy > 0 ? -1 : 1;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,672 @@
+package apie.physics;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 
+ * A broadphase that keeps bodies in a binary tree of bounding boxes. Unlike a grid it does not depend on a cell size,
+ * so a level-wide floor and small projectiles cost the same.
+ * <p>
+ * Every body is a leaf with a fat bounding box, its real bounding box grown by a margin on every side. A body
+ * that moves within its fat box leaves the tree untouched; only one that leaves it is removed and inserted again.
+ * Insertion descends towards the sibling that grows the total perimeter of the tree the least, and every node on
+ * the way back up is rebalanced by rotating its taller child up whenever the heights of its children differ by
+ * more than one, which keeps the tree height logarithmic however bodies are added.
+ * <p>
+ * Besides finding pairs the tree answers region queries and ray queries. Nodes are stored in parallel arrays and
+ * recycled through a free list, so no objects are created after the tree has grown to its working size.
+ * 
+ * @author SK
+ * 
+ */
+public class DynamicAABBTree implements Broadphase {
+	
+	public static final float DEFAULT_MARGIN = 4;
+	
+	private static final int NULL = -1;
+	
+	private float margin;
+	
+	private int root = NULL;
+	private int nodeCount;
+	private int freeList = NULL;
+	
+	//Fat bounds of every node
+	private float[] minX, minY, maxX, maxY;
+	//Real bounds of the body of every leaf, as of the latest update
+	private float[] bodyMinX, bodyMinY, bodyMaxX, bodyMaxY;
+	//The parent of a node, or the next free node for nodes in the free list
+	private int[] parent;
+	private int[] child1, child2;
+	//Leaves have height 0, free nodes -1
+	private int[] height;
+	private Body[] body;
+	
+	private final IdentityHashMap<Body, Integer> leaves = new IdentityHashMap<>();
+	
+	private int[] stack = new int[64];
+	private int reinserted;
+	
+	/**
+	 * 
+	 * Constructs a new empty tree with the default margin.
+	 * 
+	 */
+	public DynamicAABBTree() {
+		this(DEFAULT_MARGIN);
+	}
+	
+	/**
+	 * 
+	 * Constructs a new empty tree with the specified margin.
+	 * 
+	 * @param margin - how far the fat bounding boxes extend beyond the bodies on every side
+	 */
+	public DynamicAABBTree(float margin) {
+		setMargin(margin);
+		allocate(16);
+	}
+	
+	/**
+	 * 
+	 * Sets how far the fat bounding boxes extend beyond the bodies. A larger margin means fewer reinsertions
+	 * but more candidate pairs. Takes effect as bodies are reinserted.
+	 * 
+	 * @param margin - the margin on every side
+	 * @return this tree instance
+	 */
+	public DynamicAABBTree setMargin(float margin) {
+		if(!(margin >= 0))
+			throw new IllegalArgumentException("Margin cannot be negative: " + margin);
+		
+		this.margin = margin;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns how far the fat bounding boxes extend beyond the bodies.
+	 * 
+	 * @return the margin on every side
+	 */
+	public float getMargin() {
+		return margin;
+	}
+	
+	/**
+	 * 
+	 * Returns the height of the tree. An empty tree or a single leaf has height 0.
+	 * 
+	 * @return the height of the tree
+	 */
+	public int getHeight() {
+		return root == NULL ? 0 : height[root];
+	}
+	
+	/**
+	 * 
+	 * Returns the number of bodies that left their fat bounding box and were reinserted during the latest update.
+	 * 
+	 * @return the number of reinserted bodies
+	 */
+	public int getReinsertedCount() {
+		return reinserted;
+	}
+	
+	public void add(Body b) {
+		if(b == null)
+			throw new IllegalArgumentException("Body cannot be null");
+		if(leaves.containsKey(b))
+			return;
+		
+		int leaf = allocateNode();
+		body[leaf] = b;
+		height[leaf] = 0;
+		fit(leaf);
+		insertLeaf(leaf);
+		leaves.put(b, leaf);
+	}
+	
+	public void remove(Body b) {
+		Integer leaf = leaves.remove(b);
+		if(leaf == null)
+			return;
+		
+		removeLeaf(leaf);
+		freeNode(leaf);
+	}
+	
+	public void clear() {
+		for(int leaf : leaves.values())
+			body[leaf] = null;
+		leaves.clear();
+		
+		root = NULL;
+		nodeCount = 0;
+		freeList = NULL;
+		Arrays.fill(height, -1);
+	}
+	
+	public int getBodyCount() {
+		return leaves.size();
+	}
+	
+	public void update() {
+		reinserted = 0;
+		
+		for(int leaf : leaves.values()) {
+			Body b = body[leaf];
+			
+			//Sleeping bodies do not move
+			if(b.sleeping)
+				continue;
+			
+			float x0 = b.getMinX(), y0 = b.getMinY(), x1 = b.getMaxX(), y1 = b.getMaxY();
+			bodyMinX[leaf] = x0;
+			bodyMinY[leaf] = y0;
+			bodyMaxX[leaf] = x1;
+			bodyMaxY[leaf] = y1;
+			
+			if(x0 >= minX[leaf] && y0 >= minY[leaf] && x1 <= maxX[leaf] && y1 <= maxY[leaf])
+				continue;
+			
+			removeLeaf(leaf);
+			fit(leaf);
+			insertLeaf(leaf);
+			reinserted++;
+		}
+	}
+	
+	public void findPairs(BodyPairs pairs) {
+		if(root == NULL)
+			return;
+		
+		//Every leaf queries the tree with its real bounds; of the two leaves of a pair, only the lower one reports it
+		for(int leaf : leaves.values()) {
+			float x0 = bodyMinX[leaf], y0 = bodyMinY[leaf], x1 = bodyMaxX[leaf], y1 = bodyMaxY[leaf];
+			
+			int top = 0;
+			stack[top++] = root;
+			while(top > 0) {
+				int node = stack[--top];
+				
+				if(minX[node] > x1 || maxX[node] < x0 || minY[node] > y1 || maxY[node] < y0)
+					continue;
+				
+				if(height[node] == 0) {
+					if(node > leaf && bodyMinX[node] <= x1 && bodyMaxX[node] >= x0 && bodyMinY[node] <= y1 && bodyMaxY[node] >= y0)
+						pairs.add(body[leaf], body[node]);
+				} else {
+					top = push(top, child1[node], child2[node]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Reports every body whose bounding box overlaps the specified region. The bounds are as of the latest update.
+	 * 
+	 * @param x0 - the left edge of the region
+	 * @param y0 - the bottom edge of the region
+	 * @param x1 - the right edge of the region
+	 * @param y1 - the top edge of the region
+	 * @param callback - the callback to report the bodies to
+	 */
+	public void query(float x0, float y0, float x1, float y1, QueryCallback callback) {
+		if(root == NULL)
+			return;
+		
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0) {
+			int node = stack[--top];
+			
+			if(minX[node] > x1 || maxX[node] < x0 || minY[node] > y1 || maxY[node] < y0)
+				continue;
+			
+			if(height[node] == 0) {
+				if(bodyMinX[node] <= x1 && bodyMaxX[node] >= x0 && bodyMinY[node] <= y1 && bodyMaxY[node] >= y0)
+					if(!callback.report(body[node]))
+						return;
+			} else {
+				top = push(top, child1[node], child2[node]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Reports every body whose bounding box is hit by the ray from (x0, y0) to (x1, y1). The bounds are as of the latest update.
+	 * 
+	 * @param x0 - the x coordinate of the start of the ray
+	 * @param y0 - the y coordinate of the start of the ray
+	 * @param x1 - the x coordinate of the end of the ray
+	 * @param y1 - the y coordinate of the end of the ray
+	 * @param callback - the callback to report the bodies to
+	 */
+	public void raycast(float x0, float y0, float x1, float y1, RayCallback callback) {
+		if(root == NULL)
+			return;
+		
+		float dx = x1 - x0, dy = y1 - y0;
+		float max = 1;
+		
+		int top = 0;
+		stack[top++] = root;
+		while(top > 0) {
+			int node = stack[--top];
+			
+			if(entry(minX[node], minY[node], maxX[node], maxY[node], x0, y0, dx, dy, max) < 0)
+				continue;
+			
+			if(height[node] == 0) {
+				float t = entry(bodyMinX[node], bodyMinY[node], bodyMaxX[node], bodyMaxY[node], x0, y0, dx, dy, max);
+				if(t < 0)
+					continue;
+				
+				max = callback.report(body[node], t);
+				if(max <= 0)
+					return;
+			} else {
+				top = push(top, child1[node], child2[node]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns where a ray enters a box, by clipping it against the slabs of both axes.
+	 * 
+	 * @param x0 - the left edge of the box
+	 * @param y0 - the bottom edge of the box
+	 * @param x1 - the right edge of the box
+	 * @param y1 - the top edge of the box
+	 * @param ox - the x coordinate of the start of the ray
+	 * @param oy - the y coordinate of the start of the ray
+	 * @param dx - the x component of the ray
+	 * @param dy - the y component of the ray
+	 * @param max - the fraction the ray is clipped to
+	 * @return the fraction where the ray enters the box, 0 if it starts inside, or -1 if it misses
+	 */
+	static float entry(float x0, float y0, float x1, float y1, float ox, float oy, float dx, float dy, float max) {
+		float near = 0, far = max;
+		
+		if(dx == 0) {
+			if(ox < x0 || ox > x1)
+				return -1;
+		} else {
+			float inv = 1 / dx;
+			float t0 = (x0 - ox) * inv, t1 = (x1 - ox) * inv;
+			near = Math.max(near, Math.min(t0, t1));
+			far = Math.min(far, Math.max(t0, t1));
+		}
+		
+		if(dy == 0) {
+			if(oy < y0 || oy > y1)
+				return -1;
+		} else {
+			float inv = 1 / dy;
+			float t0 = (y0 - oy) * inv, t1 = (y1 - oy) * inv;
+			near = Math.max(near, Math.min(t0, t1));
+			far = Math.min(far, Math.max(t0, t1));
+		}
+		
+		return near <= far ? near : -1;
+	}
+	
+	/**
+	 * 
+	 * Pushes two nodes onto the traversal stack, growing it if needed.
+	 * 
+	 * @param top - the current size of the stack
+	 * @param a - the first node to push
+	 * @param b - the second node to push
+	 * @return the new size of the stack
+	 */
+	private int push(int top, int a, int b) {
+		if(top + 2 > stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		
+		stack[top++] = a;
+		stack[top++] = b;
+		return top;
+	}
+	
+	/**
+	 * 
+	 * Sets the real and fat bounds of a leaf from its body.
+	 * 
+	 * @param leaf - the leaf to fit
+	 */
+	private void fit(int leaf) {
+		Body b = body[leaf];
+		bodyMinX[leaf] = b.getMinX();
+		bodyMinY[leaf] = b.getMinY();
+		bodyMaxX[leaf] = b.getMaxX();
+		bodyMaxY[leaf] = b.getMaxY();
+		minX[leaf] = bodyMinX[leaf] - margin;
+		minY[leaf] = bodyMinY[leaf] - margin;
+		maxX[leaf] = bodyMaxX[leaf] + margin;
+		maxY[leaf] = bodyMaxY[leaf] + margin;
+	}
+	
+	/**
+	 * 
+	 * Inserts a leaf next to the sibling that increases the total perimeter of the tree the least,
+	 * then refits and rebalances its ancestors.
+	 * 
+	 * @param leaf - the leaf to insert
+	 */
+	private void insertLeaf(int leaf) {
+		if(root == NULL) {
+			root = leaf;
+			parent[leaf] = NULL;
+			return;
+		}
+		
+		float lx0 = minX[leaf], ly0 = minY[leaf], lx1 = maxX[leaf], ly1 = maxY[leaf];
+		
+		int index = root;
+		while(height[index] > 0) {
+			int c1 = child1[index], c2 = child2[index];
+			
+			float perimeter = perimeter(minX[index], minY[index], maxX[index], maxY[index]);
+			float combined = unionPerimeter(index, lx0, ly0, lx1, ly1);
+			
+			//Cost of making a new parent for this node and the leaf, and the cost pushed down to either child
+			float cost = 2 * combined;
+			float inherited = 2 * (combined - perimeter);
+			float cost1 = childCost(c1, lx0, ly0, lx1, ly1) + inherited;
+			float cost2 = childCost(c2, lx0, ly0, lx1, ly1) + inherited;
+			
+			if(cost < cost1 && cost < cost2)
+				break;
+			
+			index = cost1 < cost2 ? c1 : c2;
+		}
+		
+		int sibling = index;
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		body[newParent] = null;
+		union(newParent, leaf, sibling);
+		height[newParent] = height[sibling] + 1;
+		
+		if(oldParent != NULL) {
+			if(child1[oldParent] == sibling)
+				child1[oldParent] = newParent;
+			else
+				child2[oldParent] = newParent;
+		} else {
+			root = newParent;
+		}
+		
+		child1[newParent] = sibling;
+		child2[newParent] = leaf;
+		parent[sibling] = newParent;
+		parent[leaf] = newParent;
+		
+		refit(parent[leaf]);
+	}
+	
+	/**
+	 * 
+	 * Returns the cost of descending into a child when inserting a box.
+	 * 
+	 * @param child - the child to descend into
+	 * @param x0 - the left edge of the box
+	 * @param y0 - the bottom edge of the box
+	 * @param x1 - the right edge of the box
+	 * @param y1 - the top edge of the box
+	 * @return the growth of the child's perimeter, or the new parent's perimeter if the child is a leaf
+	 */
+	private float childCost(int child, float x0, float y0, float x1, float y1) {
+		float combined = unionPerimeter(child, x0, y0, x1, y1);
+		
+		if(height[child] == 0)
+			return combined;
+		
+		return combined - perimeter(minX[child], minY[child], maxX[child], maxY[child]);
+	}
+	
+	/**
+	 * 
+	 * Removes a leaf from the tree, its sibling takes the place of their parent.
+	 * 
+	 * @param leaf - the leaf to remove
+	 */
+	private void removeLeaf(int leaf) {
+		if(leaf == root) {
+			root = NULL;
+			return;
+		}
+		
+		int p = parent[leaf];
+		int grandParent = parent[p];
+		int sibling = child1[p] == leaf ? child2[p] : child1[p];
+		
+		if(grandParent != NULL) {
+			if(child1[grandParent] == p)
+				child1[grandParent] = sibling;
+			else
+				child2[grandParent] = sibling;
+			parent[sibling] = grandParent;
+			freeNode(p);
+			
+			refit(grandParent);
+		} else {
+			root = sibling;
+			parent[sibling] = NULL;
+			freeNode(p);
+		}
+	}
+	
+	/**
+	 * 
+	 * Rebalances and recomputes the bounds and height of a node and all its ancestors.
+	 * 
+	 * @param index - the first node to refit
+	 */
+	private void refit(int index) {
+		while(index != NULL) {
+			index = balance(index);
+			
+			int c1 = child1[index], c2 = child2[index];
+			height[index] = 1 + Math.max(height[c1], height[c2]);
+			union(index, c1, c2);
+			
+			index = parent[index];
+		}
+	}
+	
+	/**
+	 * 
+	 * Rotates the taller child of a node up if the heights of its children differ by more than one.
+	 * 
+	 * @param a - the node to balance
+	 * @return the node now in the place of a
+	 */
+	private int balance(int a) {
+		if(height[a] < 2)
+			return a;
+		
+		int b = child1[a], c = child2[a];
+		int diff = height[c] - height[b];
+		
+		if(diff > 1) {
+			rotate(a, c, b, false);
+			return c;
+		}
+		
+		if(diff < -1) {
+			rotate(a, b, c, true);
+			return b;
+		}
+		
+		return a;
+	}
+	
+	/**
+	 * 
+	 * Rotates a child up to take the place of its parent. The parent keeps the other child and the shorter
+	 * grandchild, the rotated child keeps the taller grandchild and gains the parent as its first child.
+	 * 
+	 * @param a - the node to rotate down
+	 * @param up - the child of a to rotate up
+	 * @param other - the other child of a
+	 * @param upIsFirst - whether up is the first child of a
+	 */
+	private void rotate(int a, int up, int other, boolean upIsFirst) {
+		int f = child1[up], g = child2[up];
+		
+		child1[up] = a;
+		parent[up] = parent[a];
+		parent[a] = up;
+		
+		int p = parent[up];
+		if(p != NULL) {
+			if(child1[p] == a)
+				child1[p] = up;
+			else
+				child2[p] = up;
+		} else {
+			root = up;
+		}
+		
+		int taller = height[f] > height[g] ? f : g;
+		int shorter = taller == f ? g : f;
+		
+		child2[up] = taller;
+		if(upIsFirst)
+			child1[a] = shorter;
+		else
+			child2[a] = shorter;
+		parent[shorter] = a;
+		
+		union(a, other, shorter);
+		union(up, a, taller);
+		height[a] = 1 + Math.max(height[other], height[shorter]);
+		height[up] = 1 + Math.max(height[a], height[taller]);
+	}
+	
+	/**
+	 * 
+	 * Sets the bounds of a node to the union of the bounds of two others.
+	 * 
+	 * @param dest - the node to set the bounds of
+	 * @param a - the first node
+	 * @param b - the second node
+	 */
+	private void union(int dest, int a, int b) {
+		minX[dest] = Math.min(minX[a], minX[b]);
+		minY[dest] = Math.min(minY[a], minY[b]);
+		maxX[dest] = Math.max(maxX[a], maxX[b]);
+		maxY[dest] = Math.max(maxY[a], maxY[b]);
+	}
+	
+	/**
+	 * 
+	 * Returns the perimeter of the union of a node's bounds and a box.
+	 * 
+	 * @param node - the node
+	 * @param x0 - the left edge of the box
+	 * @param y0 - the bottom edge of the box
+	 * @param x1 - the right edge of the box
+	 * @param y1 - the top edge of the box
+	 * @return the perimeter of the union
+	 */
+	private float unionPerimeter(int node, float x0, float y0, float x1, float y1) {
+		return perimeter(Math.min(minX[node], x0), Math.min(minY[node], y0), Math.max(maxX[node], x1), Math.max(maxY[node], y1));
+	}
+	
+	/**
+	 * 
+	 * Returns the perimeter of a box.
+	 * 
+	 * @param x0 - the left edge of the box
+	 * @param y0 - the bottom edge of the box
+	 * @param x1 - the right edge of the box
+	 * @param y1 - the top edge of the box
+	 * @return the perimeter of the box
+	 */
+	private static float perimeter(float x0, float y0, float x1, float y1) {
+		return 2 * ((x1 - x0) + (y1 - y0));
+	}
+	
+	/**
+	 * 
+	 * Takes a node from the free list, growing the node arrays if it is empty.
+	 * 
+	 * @return the index of the node
+	 */
+	private int allocateNode() {
+		if(freeList == NULL) {
+			if(nodeCount == height.length)
+				allocate(nodeCount * 2);
+			
+			freeList = nodeCount;
+			parent[freeList] = NULL;
+		}
+		
+		int node = freeList;
+		freeList = parent[node];
+		if(node == nodeCount)
+			nodeCount++;
+		
+		parent[node] = NULL;
+		child1[node] = NULL;
+		child2[node] = NULL;
+		height[node] = 0;
+		return node;
+	}
+	
+	/**
+	 * 
+	 * Returns a node to the free list.
+	 * 
+	 * @param node - the node to free
+	 */
+	private void freeNode(int node) {
+		parent[node] = freeList;
+		body[node] = null;
+		height[node] = -1;
+		freeList = node;
+	}
+	
+	/**
+	 * 
+	 * Grows the node arrays to the specified capacity.
+	 * 
+	 * @param capacity - the new capacity
+	 */
+	private void allocate(int capacity) {
+		int old = height == null ? 0 : height.length;
+		
+		minX = grow(minX, capacity);
+		minY = grow(minY, capacity);
+		maxX = grow(maxX, capacity);
+		maxY = grow(maxY, capacity);
+		bodyMinX = grow(bodyMinX, capacity);
+		bodyMinY = grow(bodyMinY, capacity);
+		bodyMaxX = grow(bodyMaxX, capacity);
+		bodyMaxY = grow(bodyMaxY, capacity);
+		parent = grow(parent, capacity);
+		child1 = grow(child1, capacity);
+		child2 = grow(child2, capacity);
+		height = grow(height, capacity);
+		body = body == null ? new Body[capacity] : Arrays.copyOf(body, capacity);
+		
+		Arrays.fill(height, old, capacity, -1);
+	}
+	
+	private static float[] grow(float[] a, int capacity) {
+		return a == null ? new float[capacity] : Arrays.copyOf(a, capacity);
+	}
+	
+	private static int[] grow(int[] a, int capacity) {
+		return a == null ? new int[capacity] : Arrays.copyOf(a, capacity);
+	}
+}
@@ -0,0 +1,278 @@
+package apie.physics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 
+ * Splits the bodies of a step into islands, the groups of bodies connected by contacts, and decides which islands sleep.
+ * <p>
+ * Islands are found with a union-find over the contacts of the step. Absolute bodies never join islands, so a floor does not
+ * connect everything resting on it. An island that contains a single awake body wakes all of its bodies, and an island
+ * whose bodies have all been at rest long enough is put to sleep as a whole.
+ * <p>
+ * Islands share no bodies that can move, so their contacts are solved independently and in parallel. Within an island
+ * contacts are solved in the order they were found, so the result does not depend on the number of threads.
+ * 
+ * @author SK
+ * 
+ */
+final class Islands {
+	
+	//Islands are batched into tasks of at least this many contacts
+	static final int BATCH_SIZE = 128;
+	
+	//Per body: the union-find parent, and the island, or -1 for absolute bodies
+	private int[] parent = new int[64];
+	private int[] island = new int[64];
+	
+	//Per island: whether any body is awake, the shortest time at rest, and the first of its contacts in the grouped order
+	private boolean[] awake = new boolean[64];
+	private float[] restTime = new float[64];
+	private int[] start = new int[65];
+	private int islandCount;
+	
+	//The contacts grouped by island
+	private int[] order = new int[64];
+	
+	private ContactSolver solver;
+	private Batch[] batches = new Batch[0];
+	private int batchCount;
+	private final Root root = new Root();
+	
+	/**
+	 * 
+	 * Finds the islands of a step, wakes every sleeping body in an island with an awake body and groups the contacts by island.
+	 * 
+	 * @param bodies - the bodies of the physics engine, by index
+	 * @param n - the number of bodies
+	 * @param contacts - the contacts of the step
+	 */
+	void build(Body[] bodies, int n, ContactBuffer contacts) {
+		if(parent.length < n) {
+			int capacity = Math.max(n, parent.length * 2);
+			parent = new int[capacity];
+			island = new int[capacity];
+		}
+		
+		for(int i = 0; i < n; i++)
+			parent[i] = i;
+		
+		for(int c = 0; c < contacts.size(); c++) {
+			int a = contacts.getBodyA(c);
+			int b = contacts.getBodyB(c);
+			if(!bodies[a].absolute && !bodies[b].absolute)
+				union(a, b);
+		}
+		
+		//Number the roots first, in body order, then give every other body the island of its root
+		islandCount = 0;
+		for(int i = 0; i < n; i++)
+			island[i] = bodies[i].absolute || find(i) != i ? -1 : islandCount++;
+		for(int i = 0; i < n; i++)
+			if(!bodies[i].absolute)
+				island[i] = island[find(i)];
+		
+		if(awake.length < islandCount) {
+			int capacity = Math.max(islandCount, awake.length * 2);
+			awake = new boolean[capacity];
+			restTime = new float[capacity];
+			start = new int[capacity + 1];
+		}
+		
+		Arrays.fill(awake, 0, islandCount, false);
+		for(int i = 0; i < n; i++)
+			if(island[i] >= 0 && !bodies[i].sleeping)
+				awake[island[i]] = true;
+		
+		for(int i = 0; i < n; i++)
+			if(island[i] >= 0 && bodies[i].sleeping && awake[island[i]])
+				bodies[i].wake();
+		
+		//Counting sort of the contacts by island, keeping their order within an island
+		Arrays.fill(start, 0, islandCount + 1, 0);
+		for(int c = 0; c < contacts.size(); c++)
+			start[islandOf(bodies, contacts, c) + 1]++;
+		for(int k = 0; k < islandCount; k++)
+			start[k + 1] += start[k];
+		
+		if(order.length < contacts.size())
+			order = new int[Math.max(contacts.size(), order.length * 2)];
+		
+		for(int c = 0; c < contacts.size(); c++) {
+			int k = islandOf(bodies, contacts, c);
+			order[start[k]++] = c;
+		}
+		
+		//The sort advanced every start to the next island's, shift them back
+		for(int k = islandCount; k > 0; k--)
+			start[k] = start[k - 1];
+		start[0] = 0;
+	}
+	
+	/**
+	 * 
+	 * Returns the island of a contact, which is that of whichever of its bodies is not absolute.
+	 * 
+	 * @param bodies - the bodies of the physics engine, by index
+	 * @param contacts - the contacts of the step
+	 * @param c - the index of the contact
+	 * @return the island of the contact
+	 */
+	private int islandOf(Body[] bodies, ContactBuffer contacts, int c) {
+		int a = contacts.getBodyA(c);
+		return bodies[a].absolute ? island[contacts.getBodyB(c)] : island[a];
+	}
+	
+	private int find(int i) {
+		while(parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+	
+	private void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		
+		//The lower index becomes the root, so the numbering only depends on the bodies and contacts
+		if(a < b)
+			parent[b] = a;
+		else if(b < a)
+			parent[a] = b;
+	}
+	
+	/**
+	 * 
+	 * Solves the contacts of every island. Islands are batched into tasks that run on the pool, if there is more than one batch.
+	 * 
+	 * @param solver - the solver to solve the contacts with, already begun for this step
+	 * @param pool - the pool to solve the batches on, or null to solve them on the calling thread
+	 */
+	void solve(ContactSolver solver, ForkJoinPool pool) {
+		batchCount = 0;
+		
+		int k = 0;
+		while(k < islandCount) {
+			int first = k;
+			while(k < islandCount && start[k] - start[first] < BATCH_SIZE)
+				k++;
+			
+			if(start[k] == start[first])
+				continue;
+			
+			if(batchCount == batches.length) {
+				batches = Arrays.copyOf(batches, Math.max(4, batchCount * 2));
+				for(int i = batchCount; i < batches.length; i++)
+					batches[i] = new Batch();
+			}
+			
+			batches[batchCount].from = start[first];
+			batches[batchCount].to = start[k];
+			batchCount++;
+		}
+		
+		this.solver = solver;
+		if(pool != null && batchCount > 1) {
+			root.reinitialize();
+			pool.invoke(root);
+		} else {
+			for(int i = 0; i < batchCount; i++)
+				batches[i].solve();
+		}
+		this.solver = null;
+	}
+	
+	/**
+	 * 
+	 * Updates how long every awake body has been at rest and puts the islands that have all been at rest long enough to sleep.
+	 * Must be called after {@link #build(Body[], int, ContactBuffer)} in the same step.
+	 * 
+	 * @param bodies - the bodies of the physics engine, by index
+	 * @param n - the number of bodies
+	 * @param delta - the time step
+	 * @param velocity - the speed below which a body is at rest
+	 * @param time - how long every body of an island must be at rest for it to sleep
+	 */
+	void updateSleep(Body[] bodies, int n, float delta, float velocity, float time) {
+		Arrays.fill(restTime, 0, islandCount, Float.POSITIVE_INFINITY);
+		
+		float velocitySquared = velocity * velocity;
+		for(int i = 0; i < n; i++) {
+			Body b = bodies[i];
+			if(island[i] < 0 || b.sleeping)
+				continue;
+			
+			if(b.vel.getMagnitudeSquared() > velocitySquared)
+				b.sleepTime = 0;
+			else
+				b.sleepTime += delta;
+			
+			restTime[island[i]] = Math.min(restTime[island[i]], b.sleepTime);
+		}
+		
+		for(int i = 0; i < n; i++)
+			if(island[i] >= 0 && !bodies[i].sleeping && restTime[island[i]] >= time)
+				bodies[i].sleep();
+	}
+	
+	/**
+	 * 
+	 * Returns the number of islands found in the last step, counting every lone body as an island.
+	 * 
+	 * @return the number of islands
+	 */
+	int getIslandCount() {
+		return islandCount;
+	}
+	
+	/**
+	 * 
+	 * Forks every batch but the first, solves the first itself and then joins the rest.
+	 * 
+	 */
+	private final class Root extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		protected void compute() {
+			for(int i = 1; i < batchCount; i++) {
+				batches[i].reinitialize();
+				batches[i].fork();
+			}
+			
+			batches[0].solve();
+			
+			for(int i = batchCount - 1; i > 0; i--)
+				batches[i].join();
+		}
+	}
+	
+	/**
+	 * 
+	 * A run of whole islands in the grouped contact order.
+	 * 
+	 */
+	private final class Batch extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private int from, to;
+		
+		protected void compute() {
+			solve();
+		}
+		
+		private void solve() {
+			for(int i = from; i < to; i++)
+				solver.prepare(order[i]);
+			
+			//Islands do not interact, so iterating the whole batch equals iterating each island in turn
+			for(int iteration = solver.getIterations(); iteration > 0; iteration--)
+				for(int i = from; i < to; i++)
+					solver.solve(order[i]);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package apie.physics;
+
+/**
+ * 
+ * Tests pairs of bodies for overlap with the separating axis theorem, using the world space geometry the bodies
+ * compute once per change of their transform. Two boxes are tested as oriented boxes on their four face axes,
+ * other colliders on the edge normals of both polygons.
+ * <p>
+ * A test can be given the axis that separated the pair last time as a hint. Bodies that were apart usually still are,
+ * and testing that axis first lets most such pairs be rejected with a single projection.
+ * <p>
+ * A narrowphase holds the results of its last test, so each thread needs its own.
+ * 
+ * @author SK
+ * 
+ */
+final class Narrowphase {
+	
+	//The contact found by the last overlapping test, the normal pointing from the second body towards the first
+	float normalX, normalY, depth;
+	
+	//The axis of the contact normal, which identifies the touching feature across steps
+	int feature;
+	
+	//The axis found by the last test that was not overlapping
+	int separatingAxis = -1;
+	
+	/**
+	 * 
+	 * Tests whether two bodies overlap. If they do, the contact normal and depth are stored in this narrowphase,
+	 * otherwise the axis that separates them is.
+	 * 
+	 * @param a - the first body
+	 * @param b - the second body
+	 * @param hint - the axis that separated the bodies last time, or -1
+	 * @return true if the bodies overlap
+	 */
+	boolean test(Body a, Body b, int hint) {
+		a.updateGeometry();
+		b.updateGeometry();
+		
+		if(a.collider.box && b.collider.box)
+			return testBoxes(a, b, hint);
+		return testPolygons(a, b, hint);
+	}
+	
+	/**
+	 * 
+	 * Tests two oriented boxes. Axes 0 and 1 are the faces of the first box, 2 and 3 those of the second.
+	 * Only the projected radii are needed, so no vertices are touched.
+	 * 
+	 * @param a - the first body
+	 * @param b - the second body
+	 * @param hint - the axis to test first, or -1
+	 * @return true if the boxes overlap
+	 */
+	private boolean testBoxes(Body a, Body b, int hint) {
+		float dx = b.transform.getX() - a.transform.getX();
+		float dy = b.transform.getY() - a.transform.getY();
+		
+		float ahx = a.collider.maxX * Math.abs(a.dim.x), ahy = a.collider.maxY * Math.abs(a.dim.y);
+		float bhx = b.collider.maxX * Math.abs(b.dim.x), bhy = b.collider.maxY * Math.abs(b.dim.y);
+		
+		int best = -1;
+		float bestDepth = 0;
+		
+		for(int i = -1; i < 4; i++) {
+			//The hint goes first, then every other axis
+			int axis = i < 0 ? hint : i;
+			if(axis < 0 || axis > 3 || (i >= 0 && axis == hint))
+				continue;
+			
+			float nx, ny;
+			switch(axis) {
+				case 0: nx = a.cos; ny = a.sin; break;
+				case 1: nx = -a.sin; ny = a.cos; break;
+				case 2: nx = b.cos; ny = b.sin; break;
+				default: nx = -b.sin; ny = b.cos; break;
+			}
+			
+			float ra = Math.abs(a.cos * nx + a.sin * ny) * ahx + Math.abs(a.cos * ny - a.sin * nx) * ahy;
+			float rb = Math.abs(b.cos * nx + b.sin * ny) * bhx + Math.abs(b.cos * ny - b.sin * nx) * bhy;
+			float overlap = ra + rb - Math.abs(dx * nx + dy * ny);
+			
+			if(overlap <= 0) {
+				separatingAxis = axis;
+				return false;
+			}
+			
+			if(best < 0 || overlap < bestDepth) {
+				best = axis;
+				bestDepth = overlap;
+			}
+		}
+		
+		feature = best;
+		switch(best) {
+			case 0: setContact(a.cos, a.sin, dx, dy, bestDepth); break;
+			case 1: setContact(-a.sin, a.cos, dx, dy, bestDepth); break;
+			case 2: setContact(b.cos, b.sin, dx, dy, bestDepth); break;
+			default: setContact(-b.sin, b.cos, dx, dy, bestDepth); break;
+		}
+		return true;
+	}
+	
+	/**
+	 * 
+	 * Tests two convex polygons. Axes below the first body's vertex count are its edge normals, the rest those of the second body.
+	 * 
+	 * @param a - the first body
+	 * @param b - the second body
+	 * @param hint - the axis to test first, or -1
+	 * @return true if the polygons overlap
+	 */
+	private boolean testPolygons(Body a, Body b, int hint) {
+		int na = a.worldX.length;
+		int total = na + b.worldX.length;
+		
+		int best = -1;
+		float bestDepth = 0;
+		
+		for(int i = -1; i < total; i++) {
+			int axis = i < 0 ? hint : i;
+			if(axis < 0 || axis >= total || (i >= 0 && axis == hint))
+				continue;
+			
+			Body owner = axis < na ? a : b;
+			int k = axis < na ? axis : axis - na;
+			float nx = owner.worldNormalX[k];
+			float ny = owner.worldNormalY[k];
+			
+			//Degenerate edges have no normal
+			if(nx == 0 && ny == 0)
+				continue;
+			
+			float overlap = overlap(a, b, nx, ny);
+			if(overlap <= 0) {
+				separatingAxis = axis;
+				return false;
+			}
+			
+			if(best < 0 || overlap < bestDepth) {
+				best = axis;
+				bestDepth = overlap;
+			}
+		}
+		
+		//Only possible if every edge is degenerate
+		if(best < 0) {
+			separatingAxis = -1;
+			return false;
+		}
+		
+		feature = best;
+		Body owner = best < na ? a : b;
+		int k = best < na ? best : best - na;
+		setContact(owner.worldNormalX[k], owner.worldNormalY[k],
+				b.transform.getX() - a.transform.getX(), b.transform.getY() - a.transform.getY(), bestDepth);
+		return true;
+	}
+	
+	/**
+	 * 
+	 * Projects the vertices of two bodies onto an axis and returns how far the projections overlap.
+	 * 
+	 * @param a - the first body
+	 * @param b - the second body
+	 * @param nx - the x component of the axis
+	 * @param ny - the y component of the axis
+	 * @return the overlap of the projections, zero or less if they are apart
+	 */
+	private static float overlap(Body a, Body b, float nx, float ny) {
+		float minA = Float.POSITIVE_INFINITY, maxA = Float.NEGATIVE_INFINITY;
+		for(int i = 0; i < a.worldX.length; i++) {
+			float p = a.worldX[i] * nx + a.worldY[i] * ny;
+			minA = Math.min(minA, p);
+			maxA = Math.max(maxA, p);
+		}
+		
+		float minB = Float.POSITIVE_INFINITY, maxB = Float.NEGATIVE_INFINITY;
+		for(int i = 0; i < b.worldX.length; i++) {
+			float p = b.worldX[i] * nx + b.worldY[i] * ny;
+			minB = Math.min(minB, p);
+			maxB = Math.max(maxB, p);
+		}
+		
+		return Math.min(maxA - minB, maxB - minA);
+	}
+	
+	/**
+	 * 
+	 * Stores a contact, flipping the axis so the normal points from the second body towards the first.
+	 * 
+	 * @param nx - the x component of the axis
+	 * @param ny - the y component of the axis
+	 * @param dx - the x component of the vector from the first body to the second
+	 * @param dy - the y component of the vector from the first body to the second
+	 * @param depth - the penetration depth
+	 */
+	private void setContact(float nx, float ny, float dx, float dy, float depth) {
+		if(dx * nx + dy * ny >= 0) {
+			nx = -nx;
+			ny = -ny;
+		}
+		
+		normalX = nx;
+		normalY = ny;
+		this.depth = depth;
+	}
+}
@@ -0,0 +1,110 @@
+package apie.physics;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import apie.debug.Benchmark;
+import apie.math.Vector2f;
+
+/**
+ * 
+ * Times the narrowphase on a dense pile of rotated boxes and polygons with 1, 2, 4 and up to as many threads as there are
+ * processors, and checks that every thread count produces exactly the same contacts in the same order.
+ * Run with a server VM: java -cp bin apie.physics.NarrowphaseBenchmark
+ * 
+ * @author SK
+ * 
+ */
+public final class NarrowphaseBenchmark {
+	
+	private static final int ROUNDS = 100;
+	
+	public static final void main(String[] args) {
+		Body[] bodies = pile(20000);
+		
+		BodyPairs pairs = new BodyPairs();
+		Broadphase broadphase = new SpatialHashGrid();
+		for(int i = 0; i < bodies.length; i++) {
+			bodies[i].index = i;
+			broadphase.add(bodies[i]);
+		}
+		broadphase.update();
+		broadphase.findPairs(pairs);
+		System.out.println(bodies.length + " bodies, " + pairs.size() + " pairs");
+		
+		ContactBuffer reference = null;
+		int processors = Runtime.getRuntime().availableProcessors();
+		for(int threads = 1; threads <= processors; threads = threads < processors && threads * 2 > processors ? processors : threads * 2) {
+			ParallelNarrowphase narrowphase = new ParallelNarrowphase();
+			ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+			ContactBuffer contacts = new ContactBuffer();
+			
+			//A fresh cache each round, so every pair runs the full test
+			Benchmark.measure("  " + threads + " thread(s)", new Runnable() {
+				@Override
+				public void run() {
+					contacts.clear();
+					narrowphase.run(pairs, new PairCache(), contacts, pool);
+					Benchmark.consume(contacts.size());
+				}
+			}, ROUNDS / 4, ROUNDS);
+			
+			if(reference == null)
+				reference = contacts;
+			else if(!same(reference, contacts))
+				System.out.println("  Contacts differ from the single threaded run!");
+			
+			if(pool != null)
+				pool.shutdown();
+			
+			if(threads == processors)
+				break;
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns whether two contact lists hold exactly the same contacts in the same order.
+	 * 
+	 * @param a - the first list
+	 * @param b - the second list
+	 * @return true if the lists are identical
+	 */
+	private static boolean same(ContactBuffer a, ContactBuffer b) {
+		if(a.size() != b.size())
+			return false;
+		
+		for(int i = 0; i < a.size(); i++)
+			if(a.getBodyA(i) != b.getBodyA(i) || a.getBodyB(i) != b.getBodyB(i) || a.getNormalX(i) != b.getNormalX(i)
+					|| a.getNormalY(i) != b.getNormalY(i) || a.getDepth(i) != b.getDepth(i))
+				return false;
+		
+		return true;
+	}
+	
+	/**
+	 * 
+	 * Builds a pile of randomly rotated bodies with a side of 16 to 48 units, packed so each overlaps a few neighbours.
+	 * Every fourth body is a triangle, which takes the general polygon path.
+	 * 
+	 * @param count - the number of bodies
+	 * @return the bodies of the pile
+	 */
+	private static Body[] pile(int count) {
+		Random random = new Random(3);
+		Collider triangle = new Collider("benchmark-triangle",
+				new Vector2f(-0.5f, -0.5f), new Vector2f(0, 0.5f), new Vector2f(0.5f, -0.5f));
+		
+		Body[] bodies = new Body[count];
+		int columns = (int)Math.ceil(Math.sqrt(count));
+		for(int i = 0; i < count; i++) {
+			float size = 16 + random.nextFloat() * 32;
+			bodies[i] = new Body((i % columns) * 30, (i / columns) * 30, size, size);
+			if(i % 4 == 0)
+				bodies[i].setCollider(triangle);
+			bodies[i].transform.setRotation(random.nextFloat() * 360);
+		}
+		
+		return bodies;
+	}
+}
@@ -0,0 +1,248 @@
+package apie.physics;
+
+import java.util.Arrays;
+
+/**
+ * 
+ * Remembers what happened to each pair of bodies in the previous steps: the axis that last separated the pair, so the narrowphase
+ * can try it first, and for touching pairs the contact feature and the impulses the solver settled on, so it can start from them.
+ * <p>
+ * Pairs are keyed by the ids of their bodies in an open addressing table. Entries that have not been used for a step are dropped
+ * whenever the table fills up, so the cache only holds pairs the broadphase still reports.
+ * 
+ * @author SK
+ * 
+ */
+final class PairCache {
+	
+	private static final long EMPTY = -1L;
+	
+	private long[] keys = new long[256];
+	private int[] axes = new int[256];
+	private int[] features = new int[256];
+	private float[] normalImpulses = new float[256];
+	private float[] tangentImpulses = new float[256];
+	private int[] impulseStamps = new int[256];
+	private int[] stamps = new int[256];
+	private int size;
+	
+	private int step;
+	
+	PairCache() {
+		Arrays.fill(keys, EMPTY);
+	}
+	
+	/**
+	 * 
+	 * Starts a new step. Entries last used before the previous step become eligible for removal.
+	 * 
+	 */
+	void nextStep() {
+		step++;
+	}
+	
+	/**
+	 * 
+	 * Returns the axis that last separated two bodies.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @return the cached axis, or -1 if there is none
+	 */
+	int getAxis(Body a, Body b) {
+		int i = find(a, b);
+		return i < 0 ? -1 : axes[i];
+	}
+	
+	/**
+	 * 
+	 * Stores the axis that separated two bodies.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @param axis - the separating axis
+	 */
+	void putAxis(Body a, Body b, int axis) {
+		//The slot is found first, since inserting may replace the arrays
+		int i = insert(a, b);
+		axes[i] = axis;
+	}
+	
+	/**
+	 * 
+	 * Returns the slot holding the impulses two bodies were solved with in the previous step, if they touched at the same feature.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @param feature - the feature the bodies touch at now
+	 * @return the slot of the impulses, or -1 if there are none to start from
+	 */
+	int findImpulses(Body a, Body b, int feature) {
+		int i = find(a, b);
+		if(i < 0 || impulseStamps[i] != step - 1 || features[i] != feature)
+			return -1;
+		return i;
+	}
+	
+	/**
+	 * 
+	 * Returns the normal impulse of the specified slot.
+	 * 
+	 * @param slot - a slot returned by {@link #findImpulses(Body, Body, int)}
+	 * @return the normal impulse
+	 */
+	float getNormalImpulse(int slot) {
+		return normalImpulses[slot];
+	}
+	
+	/**
+	 * 
+	 * Returns the tangent impulse of the specified slot.
+	 * 
+	 * @param slot - a slot returned by {@link #findImpulses(Body, Body, int)}
+	 * @return the tangent impulse
+	 */
+	float getTangentImpulse(int slot) {
+		return tangentImpulses[slot];
+	}
+	
+	/**
+	 * 
+	 * Stores the feature two bodies touched at this step and the impulses they were solved with.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @param feature - the feature the bodies touch at
+	 * @param normalImpulse - the accumulated normal impulse
+	 * @param tangentImpulse - the accumulated tangent impulse
+	 */
+	void putImpulses(Body a, Body b, int feature, float normalImpulse, float tangentImpulse) {
+		int i = insert(a, b);
+		features[i] = feature;
+		normalImpulses[i] = normalImpulse;
+		tangentImpulses[i] = tangentImpulse;
+		impulseStamps[i] = step;
+	}
+	
+	/**
+	 * 
+	 * Finds the slot of a pair and marks it as used.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @return the slot of the pair, or -1 if it is not cached
+	 */
+	private int find(Body a, Body b) {
+		long key = key(a, b);
+		int mask = keys.length - 1;
+		
+		for(int i = hash(key) & mask;; i = (i + 1) & mask) {
+			if(keys[i] == key) {
+				stamps[i] = step;
+				return i;
+			}
+			if(keys[i] == EMPTY)
+				return -1;
+		}
+	}
+	
+	/**
+	 * 
+	 * Finds the slot of a pair, adding the pair if it is not cached, and marks it as used.
+	 * 
+	 * @param a - the body with the lower id
+	 * @param b - the body with the higher id
+	 * @return the slot of the pair
+	 */
+	private int insert(Body a, Body b) {
+		long key = key(a, b);
+		int mask = keys.length - 1;
+		
+		int i = hash(key) & mask;
+		while(keys[i] != EMPTY && keys[i] != key)
+			i = (i + 1) & mask;
+		
+		if(keys[i] == EMPTY) {
+			if((size + 1) * 2 > keys.length) {
+				rehash();
+				return insert(a, b);
+			}
+			
+			keys[i] = key;
+			axes[i] = -1;
+			impulseStamps[i] = step - 2;
+			size++;
+		}
+		
+		stamps[i] = step;
+		return i;
+	}
+	
+	/**
+	 * 
+	 * Rebuilds the table without the entries that went unused for more than a step, growing it if it is still half full.
+	 * 
+	 */
+	private void rehash() {
+		long[] oldKeys = keys;
+		int[] oldAxes = axes, oldFeatures = features, oldImpulseStamps = impulseStamps, oldStamps = stamps;
+		float[] oldNormalImpulses = normalImpulses, oldTangentImpulses = tangentImpulses;
+		
+		int live = 0;
+		for(int i = 0; i < oldKeys.length; i++)
+			if(oldKeys[i] != EMPTY && step - oldStamps[i] <= 1)
+				live++;
+		
+		int capacity = oldKeys.length;
+		while((live + 1) * 4 > capacity)
+			capacity *= 2;
+		
+		keys = new long[capacity];
+		axes = new int[capacity];
+		features = new int[capacity];
+		normalImpulses = new float[capacity];
+		tangentImpulses = new float[capacity];
+		impulseStamps = new int[capacity];
+		stamps = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		size = 0;
+		
+		int mask = capacity - 1;
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] == EMPTY || step - oldStamps[i] > 1)
+				continue;
+			
+			int j = hash(oldKeys[i]) & mask;
+			while(keys[j] != EMPTY)
+				j = (j + 1) & mask;
+			
+			keys[j] = oldKeys[i];
+			axes[j] = oldAxes[i];
+			features[j] = oldFeatures[i];
+			normalImpulses[j] = oldNormalImpulses[i];
+			tangentImpulses[j] = oldTangentImpulses[i];
+			impulseStamps[j] = oldImpulseStamps[i];
+			stamps[j] = oldStamps[i];
+			size++;
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns the number of pairs in the cache.
+	 * 
+	 * @return the number of cached pairs
+	 */
+	int size() {
+		return size;
+	}
+	
+	private static long key(Body a, Body b) {
+		return ((long) a.id << 32) | (b.id & 0xFFFFFFFFL);
+	}
+	
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
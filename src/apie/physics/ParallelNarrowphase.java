@@ -0,0 +1,225 @@
+package apie.physics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 
+ * Runs the narrowphase over the pairs found by the broadphase, split into chunks that are tested in parallel on a fork-join pool.
+ * <p>
+ * Everything that writes shared state happens on the calling thread: before the chunks run, pairs are filtered and ordered,
+ * body geometry is brought up to date and cached axes are looked up; after they run, the chunks are merged in order, exchanging
+ * tags, appending contacts and caching separating axes. The chunks themselves only read bodies and write to their own buffers.
+ * <p>
+ * Chunk boundaries depend only on the number of pairs, never on the number of threads, and the chunks are merged in order,
+ * so the same pairs always produce the same contacts in the same order.
+ * 
+ * @author SK
+ * 
+ */
+final class ParallelNarrowphase {
+	
+	//The number of pairs in a chunk, large enough to amortize a task, small enough to balance the load
+	static final int CHUNK_SIZE = 128;
+	
+	//Marks a pair that is not tested at all
+	private static final int SKIP = -2;
+	
+	private BodyPairs pairs;
+	
+	//Per pair: the cached axis tested first, and the axis that separated the pair this step
+	private int[] hints = new int[256];
+	private int[] axes = new int[256];
+	
+	private Chunk[] chunks = new Chunk[0];
+	private int chunkCount;
+	private final Root root = new Root();
+	
+	/**
+	 * 
+	 * Tests every pair and appends a contact for each overlapping pair that does not involve a trigger.
+	 * 
+	 * @param pairs - the pairs found by the broadphase
+	 * @param cache - the cache of separating axes
+	 * @param contacts - the list to append the contacts to
+	 * @param pool - the pool to test the chunks on, or null to test them on the calling thread
+	 */
+	void run(BodyPairs pairs, PairCache cache, ContactBuffer contacts, ForkJoinPool pool) {
+		int n = pairs.size();
+		if(n == 0)
+			return;
+		
+		this.pairs = pairs;
+		prepare(pairs, cache);
+		
+		chunkCount = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		if(chunks.length < chunkCount) {
+			int old = chunks.length;
+			chunks = Arrays.copyOf(chunks, Math.max(chunkCount, old * 2));
+			for(int i = old; i < chunks.length; i++)
+				chunks[i] = new Chunk();
+		}
+		
+		for(int i = 0; i < chunkCount; i++) {
+			chunks[i].from = i * CHUNK_SIZE;
+			chunks[i].to = Math.min(n, (i + 1) * CHUNK_SIZE);
+			chunks[i].count = 0;
+		}
+		
+		if(pool != null && chunkCount > 1) {
+			root.reinitialize();
+			pool.invoke(root);
+		} else {
+			for(int i = 0; i < chunkCount; i++)
+				chunks[i].test();
+		}
+		
+		merge(pairs, cache, contacts);
+		this.pairs = null;
+	}
+	
+	/**
+	 * 
+	 * Filters and orders the pairs, updates the geometry of their bodies and looks up their cached axes.
+	 * 
+	 * @param pairs - the pairs found by the broadphase
+	 * @param cache - the cache of separating axes
+	 */
+	private void prepare(BodyPairs pairs, PairCache cache) {
+		int n = pairs.size();
+		if(hints.length < n) {
+			hints = new int[Math.max(n, hints.length * 2)];
+			axes = new int[hints.length];
+		}
+		
+		for(int i = 0; i < n; i++) {
+			Body a = pairs.getA(i);
+			Body b = pairs.getB(i);
+			
+			//Neither sleeping nor absolute bodies move, so pairs of them need no test unless one was moved from outside or is a trigger
+			if((a.sleeping || (a.absolute && !a.moved)) && (b.sleeping || (b.absolute && !b.moved)) && !(a.trigger || b.trigger)) {
+				hints[i] = SKIP;
+				continue;
+			}
+			
+			//Order pairs by id so cached axes and contact normals do not depend on the broadphase's order
+			if(a.id > b.id)
+				pairs.swap(i);
+			
+			a.updateGeometry();
+			b.updateGeometry();
+			hints[i] = cache.getAxis(pairs.getA(i), pairs.getB(i));
+		}
+	}
+	
+	/**
+	 * 
+	 * Merges the results of the chunks in order.
+	 * 
+	 * @param pairs - the pairs that were tested
+	 * @param cache - the cache of separating axes
+	 * @param contacts - the list to append the contacts to
+	 */
+	private void merge(BodyPairs pairs, PairCache cache, ContactBuffer contacts) {
+		for(int c = 0; c < chunkCount; c++) {
+			Chunk chunk = chunks[c];
+			
+			for(int i = 0; i < chunk.count; i++) {
+				Body a = pairs.getA(chunk.pair[i]);
+				Body b = pairs.getB(chunk.pair[i]);
+				
+				a._exchangeTags(b);
+				
+				if(a.trigger || b.trigger)
+					continue;
+				
+				//An absolute body that was moved into a sleeping one wakes it
+				if(a.sleeping && b.absolute)
+					a.wake();
+				else if(b.sleeping && a.absolute)
+					b.wake();
+				
+				contacts.add(a.index, b.index, chunk.normalX[i], chunk.normalY[i], chunk.depth[i], chunk.feature[i]);
+			}
+			
+			for(int i = chunk.from; i < chunk.to; i++)
+				if(hints[i] != SKIP && axes[i] != hints[i])
+					cache.putAxis(pairs.getA(i), pairs.getB(i), axes[i]);
+		}
+	}
+	
+	/**
+	 * 
+	 * Forks every chunk but the first, tests the first itself and then joins the rest.
+	 * 
+	 */
+	private final class Root extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		protected void compute() {
+			for(int i = 1; i < chunkCount; i++) {
+				chunks[i].reinitialize();
+				chunks[i].fork();
+			}
+			
+			chunks[0].test();
+			
+			for(int i = chunkCount - 1; i > 0; i--)
+				chunks[i].join();
+		}
+	}
+	
+	/**
+	 * 
+	 * A range of pairs with its own narrowphase and its own list of the overlapping pairs found.
+	 * 
+	 */
+	private final class Chunk extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final Narrowphase narrowphase = new Narrowphase();
+		
+		private int from, to;
+		
+		//The overlapping pairs of the range, in order
+		private int[] pair = new int[CHUNK_SIZE];
+		private float[] normalX = new float[CHUNK_SIZE];
+		private float[] normalY = new float[CHUNK_SIZE];
+		private float[] depth = new float[CHUNK_SIZE];
+		private int[] feature = new int[CHUNK_SIZE];
+		private int count;
+		
+		protected void compute() {
+			test();
+		}
+		
+		/**
+		 * 
+		 * Tests the pairs of this chunk.
+		 * 
+		 */
+		private void test() {
+			for(int i = from; i < to; i++) {
+				int hint = hints[i];
+				if(hint == SKIP)
+					continue;
+				
+				if(!narrowphase.test(pairs.getA(i), pairs.getB(i), hint)) {
+					axes[i] = narrowphase.separatingAxis;
+					continue;
+				}
+				
+				axes[i] = hint;
+				pair[count] = i;
+				normalX[count] = narrowphase.normalX;
+				normalY[count] = narrowphase.normalY;
+				depth[count] = narrowphase.depth;
+				feature[count] = narrowphase.feature;
+				count++;
+			}
+		}
+	}
+}
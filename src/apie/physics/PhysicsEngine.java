@@ -1,10 +1,16 @@
 package apie.physics;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import apie.debug.Debug;
 import apie.gfx.shader.OrthographicShaderProgram;
 import apie.math.Vector2f;
+import apie.math.TransformPool;
+import apie.math.simd.Kernels;
 
 
 /**
@@ -23,7 +29,47 @@ public class PhysicsEngine {
 	
 	private HashSet<Body> trash;
 	private HashSet<Body> bodies;
-	private HashSet<Collision> collisions;
+	
+	//The bodies as a flat array, rebuilt only when bodies are added or removed, so a step needs no iterators
+	private Body[] bodyList = new Body[64];
+	private int bodyCount;
+	private boolean bodiesChanged;
+	
+	private final ContactBuffer contacts = new ContactBuffer();
+	private final ParallelNarrowphase narrowphase = new ParallelNarrowphase();
+	private final PairCache pairCache = new PairCache();
+	private final Islands islands = new Islands();
+	private final ContactSolver solver = new ContactSolver();
+	private final ContinuousCollision continuous = new ContinuousCollision();
+	
+	//The narrowphase and the island solver share a pool, created the first time it is needed
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private ForkJoinPool pool;
+	
+	//A body sleeps once it and every body it touches have been slower than the sleep velocity for the sleep time
+	private boolean allowSleeping = true;
+	private float sleepVelocity = 2.0f;
+	private float sleepTime = 0.5f;
+	
+	private Broadphase broadphase = new SpatialHashGrid();
+	private final BodyPairs pairs = new BodyPairs();
+	
+	//Absolute bodies that are not triggers live in an immutable tree that is only rebuilt when they change
+	private HashSet<Body> statics = new HashSet<Body>();
+	private StaticBVH staticTree = new StaticBVH(statics);
+	private boolean staticsChanged;
+	
+	//Regions where the world changed since the last step, sleeping bodies overlapping them are woken
+	private float[] wakeRegions = new float[16];
+	private int wakeRegionCount;
+	private final QueryCallback waker = new QueryCallback() {
+		@Override
+		public boolean report(Body body) {
+			if(body.sleeping)
+				body.wake();
+			return true;
+		}
+	};
 	
 	private Vector2f gravity;
 	
@@ -31,6 +77,20 @@ public class PhysicsEngine {
 	
 	private boolean useStep = true;
 	
+	//At most this many steps are taken per update, any time left over after that is dropped
+	public static final int DEFAULT_MAX_SUBSTEPS = 5;
+	private int maxSubsteps = DEFAULT_MAX_SUBSTEPS;
+	
+	//How far the time left over after the last update is into the next step
+	private float alpha = 1;
+	
+	//Whether bodies should be drawn between the poses of the last two steps
+	private boolean interpolate;
+	
+	//Scratch arrays for integrating all moving bodies at once
+	private float[] px = new float[0], py = new float[0], vx = new float[0], vy = new float[0];
+	private Body[] moving = new Body[0];
+	
 	/**
 	 * 
 	 * Initialized the physics engine.
@@ -39,7 +99,6 @@ public class PhysicsEngine {
 	public PhysicsEngine() {
 		bodies = new HashSet<Body>();
 		trash = new  HashSet<Body>();
-		collisions = new HashSet<Collision>();
 		gravity = new Vector2f(0.0f, 0.0f);
 	}
 	
@@ -56,72 +115,223 @@ public class PhysicsEngine {
 		if (useStep) {
 			timer += delta;
 			delta = simulationStep;
+		} else {
+			//A single long frame is integrated over no more time than the substep limit allows
+			delta = Math.min(delta, simulationStep * maxSubsteps);
 		}
 		
+		int steps = 0;
+		
 		//Check if we're ready to step or running each frame, and if so, enter the loop. 
 		while (simulationStep < timer || !useStep) {
 			//Decrease the timer so we step through the simulation for all the accumulated time
-			if (useStep)
-				timer -= simulationStep;
-			
-			//Clear tags
-			for(Body b : bodies) {
-				if(b == null) {
-					removeBody(b);
-					continue;
+			if (useStep) {
+				//After a long frame, drop the time we can't catch up on rather than making the next frame longer still
+				if(steps == maxSubsteps) {
+					timer %= simulationStep;
+					break;
 				}
-				b._clearTags();
+				
+				timer -= simulationStep;
 			}
 			
-			for(Body b : trash) {
-				bodies.remove(b);
+			steps++;
+			
+			if(!trash.isEmpty()) {
+				for(Body b : trash) {
+					//Removed static bodies are found by the static tree rebuild
+					if(!b.inStaticTree)
+						wakeAround(b.getMinX(), b.getMinY(), b.getMaxX(), b.getMaxY());
+					
+					bodies.remove(b);
+					unlink(b);
+					b.index = -1;
+				}
+				
+				trash.clear();
+				bodiesChanged = true;
 			}
 			
-			trash.clear();
+			if(bodiesChanged)
+				rebuildBodyList();
 			
-			//These are to prevent double collisions
-			int i = -1;
-			for(Body a : bodies) {
-				i++;
-				if(a == null)
-					continue;
+			//Clear tags, wake sleeping bodies that were moved from outside, and remember where every body starts the step
+			float[] xs = TransformPool.getXs(), ys = TransformPool.getYs();
+			for(int i = 0; i < bodyCount; i++) {
+				Body b = bodyList[i];
+				b._clearTags();
+				if(b.sleeping && b.movedWhileSleeping())
+					b.wake();
 				
-				if (!a.isAbsolute())
-					a.addVel(gravity.clone().scale(delta));
+				int version = b.transform.getVersion();
+				b.moved = version != b.stepVersion;
+				b.stepVersion = version;
 				
-				int j = -1;
-				for(Body b : bodies) {
-					j++;
-					if(b == null) continue;
-					if(j <= i) continue;
-					if(a.absolute && b.absolute && !(a.isTrigger() || b.isTrigger())) continue;
-					
-					if(Math.abs(a.getPos().getX() - b.getPos().getX()) > (a.getDim().getX() + b.getDim().getX() / 2)
-							&& Math.abs(a.getPos().getY() - b.getPos().getY()) > (a.getDim().getY() + b.getDim().getY() / 2))
-						continue;
-					
-					a._checkCollision(b, this);
+				int slot = b.transform.getSlot();
+				b.previousX = xs[slot];
+				b.previousY = ys[slot];
+			}
+			
+			//Move bodies whose absolute or trigger flag changed between the broadphase and the static tree
+			for(int i = 0; i < bodyCount; i++) {
+				Body b = bodyList[i];
+				if(b.inStaticTree != isStatic(b)) {
+					unlink(b);
+					link(b);
 				}
 			}
 			
-			for (Collision c : collisions) {
-				c._solve();
+			if(staticsChanged || staticTree.isStale())
+				buildStaticTree();
+			
+			for(int i = 0; i < bodyCount; i++) {
+				Body b = bodyList[i];
+				if(!b.absolute && !b.sleeping)
+					b.vel.addScaled(gravity, delta);
 			}
-			collisions.clear();
 			
-			for(Body a : bodies) {
-				if(a == null)
-					continue;
-				a.update(delta);
+			//Only pairs with overlapping bounding boxes reach the exact check
+			broadphase.update();
+			
+			for(int r = 0; r < wakeRegionCount; r += 4)
+				broadphase.query(wakeRegions[r], wakeRegions[r + 1], wakeRegions[r + 2], wakeRegions[r + 3], waker);
+			wakeRegionCount = 0;
+			
+			broadphase.findPairs(pairs);
+			
+			//Static-static pairs are never enumerated, only moving bodies query the static tree
+			if(staticTree.getBodyCount() > 0)
+				for(int i = 0; i < bodyCount; i++) {
+					Body b = bodyList[i];
+					if(!b.inStaticTree && (!b.sleeping || b.trigger))
+						staticTree.findPairs(b, b.getMinX(), b.getMinY(), b.getMaxX(), b.getMaxY(), pairs);
+				}
+			
+			contacts.clear();
+			pairCache.nextStep();
+			narrowphase.run(pairs, pairCache, contacts, getPool());
+			pairs.clear();
+			
+			islands.build(bodyList, bodyCount, contacts);
+			solver.begin(bodyList, contacts, pairCache, moveConstant);
+			islands.solve(solver, getPool());
+			solver.end(pairCache);
+			
+			integrate(delta);
+			
+			if(allowSleeping)
+				islands.updateSleep(bodyList, bodyCount, delta, sleepVelocity, sleepTime);
+			
+			//Remember the version each body ends the step with, so bodies moved from outside since are not drawn between steps
+			for(int i = 0; i < bodyCount; i++) {
+				Body b = bodyList[i];
+				b.endVersion = b.transform.getVersion();
 			}
 			
 			//Break if we're running every frame
 			if (!useStep)
 				break;
 		}
+		
+		alpha = useStep ? Math.min(timer / simulationStep, 1) : 1;
+		
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Refills the flat body array from the body set and gives every body its index.
+	 * 
+	 */
+	private void rebuildBodyList() {
+		if(bodyList.length < bodies.size())
+			bodyList = new Body[Math.max(bodies.size(), bodyList.length * 2)];
+		
+		int n = 0;
+		for(Body b : bodies) {
+			b.index = n;
+			bodyList[n++] = b;
+		}
+		
+		for(int i = n; i < bodyCount; i++)
+			bodyList[i] = null;
+		
+		bodyCount = n;
+		bodiesChanged = false;
+	}
+	
+	/**
+	 * 
+	 * Returns the pool the narrowphase and the island solver run on.
+	 * 
+	 * @return the pool, or null if running on the calling thread only
+	 */
+	private ForkJoinPool getPool() {
+		if(parallelism == 1)
+			return null;
+		
+		if(pool == null)
+			pool = new ForkJoinPool(parallelism);
+		return pool;
+	}
+	
+	/**
+	 * 
+	 * Moves every non-absolute body that is awake by its velocity. Bullets are swept against the static tree one by one. Positions are gathered from the transform pool and velocities
+	 * from the bodies into flat arrays, integrated by a single kernel call and written back to the pool.
+	 * 
+	 * @param delta - the time step
+	 */
+	private void integrate(float delta) {
+		if(moving.length < bodyCount) {
+			int n = Math.max(bodyCount, moving.length * 2);
+			moving = new Body[n];
+			px = new float[n];
+			py = new float[n];
+			vx = new float[n];
+			vy = new float[n];
+		}
+		
+		float[] xs = TransformPool.getXs();
+		float[] ys = TransformPool.getYs();
+		
+		int count = 0;
+		for(int i = 0; i < bodyCount; i++) {
+			Body b = bodyList[i];
+			
+			if(b.isAbsolute()) {
+				b.freezeVelocity();
+				continue;
+			}
+			
+			if(b.sleeping)
+				continue;
+			
+			if(b.bullet) {
+				continuous.advance(b, delta, staticTree);
+				continue;
+			}
+			
+			int slot = b.transform.getSlot();
+			moving[count] = b;
+			px[count] = xs[slot];
+			py[count] = ys[slot];
+			vx[count] = b.vel.getX();
+			vy[count] = b.vel.getY();
+			count++;
+		}
+		
+		Kernels.integrate(px, py, vx, vy, delta, 0, count);
+		
+		for(int i = 0; i < count; i++) {
+			int slot = moving[i].transform.getSlot();
+			xs[slot] = px[i];
+			ys[slot] = py[i];
+			TransformPool.changed(slot);
+			moving[i] = null;
+		}
+	}
+	
 	/**
 	 * 
 	 * Sets the gravity constant to the supplied vector quantity.
@@ -169,22 +379,327 @@ public class PhysicsEngine {
 	  * @return this PhysicsEngine instance
 	  */
 	public PhysicsEngine addBody(Body body) {
-		bodies.add(body);
+		if(body != null && bodies.add(body)) {
+			link(body);
+			bodiesChanged = true;
+		}
 		return this;
 	}
-	 /**
-	  * 
-	  * It adds a collision between two bodies for the physics engine to handle.
-	  * Do not run call this method since it should only be called internally by the PhysicsEngine. 
-	  * 
-	  * @param col - the collision to add
-	  * @return this PhysicsEngine instance
-	  */
-	public PhysicsEngine addCollision(Collision col) {
-		collisions.add(col);
+	
+	/**
+	 * 
+	 * Adds several bodies to the physics simulation. Static bodies among them only cause one rebuild of the static tree.
+	 * 
+	 * @param bodies - the bodies to add
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine addBodies(Collection<Body> bodies) {
+		for(Body b : bodies)
+			addBody(b);
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether the specified body belongs in the static tree.
+	 * 
+	 * @param body - the body to check
+	 * @return true if the body is absolute and not a trigger
+	 */
+	private static boolean isStatic(Body body) {
+		return body.absolute && !body.trigger;
+	}
+	
+	/**
+	 * 
+	 * Adds a body to either the static tree or the broadphase.
+	 * 
+	 * @param body - the body to add
+	 */
+	private void link(Body body) {
+		body.inStaticTree = isStatic(body);
+		if(body.inStaticTree) {
+			statics.add(body);
+			staticsChanged = true;
+		} else {
+			broadphase.add(body);
+		}
+	}
+	
+	/**
+	 * 
+	 * Removes a body from whichever of the static tree and the broadphase it is in.
+	 * 
+	 * @param body - the body to remove
+	 */
+	private void unlink(Body body) {
+		if(body.inStaticTree) {
+			statics.remove(body);
+			staticsChanged = true;
+		} else {
+			broadphase.remove(body);
+		}
+	}
+	
+	/**
+	 * 
+	 * Rebuilds the tree of static bodies now. The tree is otherwise rebuilt at the start of the next step after a static body
+	 * is added, removed, moved or reshaped, so this only needs to be called to avoid that cost during the first step, such as when a level loads.
+	 * 
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine buildStaticTree() {
+		StaticBVH previous = staticTree;
+		staticTree = new StaticBVH(statics);
+		staticsChanged = false;
+		
+		//Sleeping bodies around static bodies that were added, moved, reshaped or removed since the previous tree are woken next step
+		IdentityHashMap<Body, Integer> before = new IdentityHashMap<Body, Integer>();
+		for(int i = 0; i < previous.bodies.length; i++)
+			before.put(previous.bodies[i], i);
+		
+		for(int i = 0; i < staticTree.bodies.length; i++) {
+			Integer j = before.remove(staticTree.bodies[i]);
+			if(j != null && previous.versions[j] == staticTree.versions[i] && previous.shapeVersions[j] == staticTree.shapeVersions[i])
+				continue;
+			
+			wakeAround(staticTree.bodyMinX[i], staticTree.bodyMinY[i], staticTree.bodyMaxX[i], staticTree.bodyMaxY[i]);
+			if(j != null)
+				wakeAround(previous.bodyMinX[j], previous.bodyMinY[j], previous.bodyMaxX[j], previous.bodyMaxY[j]);
+		}
+		
+		for(int j : before.values())
+			wakeAround(previous.bodyMinX[j], previous.bodyMinY[j], previous.bodyMaxX[j], previous.bodyMaxY[j]);
+		
 		return this;
 	}
 	
+	/**
+	 * 
+	 * Wakes the sleeping bodies overlapping the specified region during the next step, once the broadphase is up to date.
+	 * 
+	 * @param x0 - the left edge of the region
+	 * @param y0 - the bottom edge of the region
+	 * @param x1 - the right edge of the region
+	 * @param y1 - the top edge of the region
+	 */
+	private void wakeAround(float x0, float y0, float x1, float y1) {
+		if(wakeRegionCount + 4 > wakeRegions.length)
+			wakeRegions = Arrays.copyOf(wakeRegions, wakeRegions.length * 2);
+		
+		wakeRegions[wakeRegionCount++] = x0;
+		wakeRegions[wakeRegionCount++] = y0;
+		wakeRegions[wakeRegionCount++] = x1;
+		wakeRegions[wakeRegionCount++] = y1;
+	}
+	
+	/**
+	 * 
+	 * Returns the tree of static bodies. Static bodies are the absolute bodies that are not triggers.
+	 * 
+	 * @return the static tree of this physics engine
+	 */
+	public StaticBVH getStaticTree() {
+		return staticTree;
+	}
+	
+	/**
+	 * 
+	 * Sets the broadphase used to find the pairs of bodies that may be colliding. All non-static bodies are moved to the new broadphase.
+	 * 
+	 * @param broadphase - the broadphase to use
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setBroadphase(Broadphase broadphase) {
+		if(broadphase == null)
+			throw new IllegalArgumentException("Broadphase cannot be null");
+		
+		this.broadphase.clear();
+		this.broadphase = broadphase;
+		
+		broadphase.clear();
+		for(Body b : bodies)
+			if(b != null && !b.inStaticTree && !trash.contains(b))
+				broadphase.add(b);
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Sets the number of threads the narrowphase and the contact solver run on. Pairs are tested in chunks of
+	 * {@value ParallelNarrowphase#CHUNK_SIZE} and islands are solved in batches of at least {@value Islands#BATCH_SIZE} contacts,
+	 * so small steps always run on the calling thread. The results do not depend on the number of threads.
+	 * Defaults to the number of available processors.
+	 * 
+	 * @param threads - the number of threads, 1 to run on the calling thread only
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setParallelism(int threads) {
+		if(threads < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + threads);
+		
+		if(pool != null && threads != parallelism) {
+			pool.shutdown();
+			pool = null;
+		}
+		
+		parallelism = threads;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of threads the narrowphase and the contact solver run on.
+	 * 
+	 * @return the parallelism of this physics engine
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * 
+	 * Sets the number of solver iterations per step. More iterations make stacks and piles stiffer and steadier
+	 * at the cost of solving every contact once more. Defaults to {@value ContactSolver#DEFAULT_ITERATIONS}.
+	 * 
+	 * @param iterations - the number of iterations, at least 1
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setSolverIterations(int iterations) {
+		solver.setIterations(iterations);
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of solver iterations per step.
+	 * 
+	 * @return the number of iterations
+	 */
+	public int getSolverIterations() {
+		return solver.getIterations();
+	}
+	
+	/**
+	 * 
+	 * Sets whether contacts that persist from the previous step start from the impulses they were solved with then.
+	 * Warm starting lets far fewer iterations hold a stack still, and is on by default.
+	 * 
+	 * @param warmStarting - whether to warm start the solver
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setWarmStarting(boolean warmStarting) {
+		solver.setWarmStarting(warmStarting);
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether contacts that persist from the previous step start from the impulses they were solved with then.
+	 * 
+	 * @return whether the solver is warm started
+	 */
+	public boolean isWarmStarting() {
+		return solver.isWarmStarting();
+	}
+	
+	/**
+	 * 
+	 * Sets whether bodies at rest may fall asleep. Disabling sleeping wakes every sleeping body.
+	 * 
+	 * @param allowSleeping - whether bodies may sleep
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setAllowSleeping(boolean allowSleeping) {
+		this.allowSleeping = allowSleeping;
+		
+		if(!allowSleeping)
+			for(Body b : bodies)
+				b.wake();
+		
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether bodies at rest may fall asleep.
+	 * 
+	 * @return whether bodies may sleep
+	 */
+	public boolean isSleepingAllowed() {
+		return allowSleeping;
+	}
+	
+	/**
+	 * 
+	 * Sets when bodies fall asleep. A body falls asleep once it and every body connected to it by contacts
+	 * have been slower than the specified velocity for the specified time.
+	 * 
+	 * @param velocity - the speed below which a body is at rest, in units per second
+	 * @param time - how long the bodies must be at rest, in seconds
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setSleepThresholds(float velocity, float time) {
+		if(velocity < 0 || time < 0)
+			throw new IllegalArgumentException("Sleep thresholds cannot be negative: " + velocity + ", " + time);
+		
+		sleepVelocity = velocity;
+		sleepTime = time;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of islands found in the last step. Every body that touches no other moving body counts as an island.
+	 * 
+	 * @return the number of islands
+	 */
+	public int getIslandCount() {
+		return islands.getIslandCount();
+	}
+	
+	/**
+	 * 
+	 * Returns the broadphase used to find the pairs of bodies that may be colliding.
+	 * 
+	 * @return the broadphase of this physics engine
+	 */
+	public Broadphase getBroadphase() {
+		return broadphase;
+	}
+	/**
+	 * 
+	 * Returns the contacts found during the last step. They stay valid until the next step.
+	 * 
+	 * @return the contacts of the last step
+	 */
+	public ContactBuffer getContacts() {
+		return contacts;
+	}
+	
+	/**
+	 * 
+	 * Returns the body with the specified index. Indices are assigned at the start of each step and are only stable
+	 * while no bodies are added or removed.
+	 * 
+	 * @param index - the index of the body
+	 * @return the body with the specified index
+	 */
+	public Body getBody(int index) {
+		return bodyList[index];
+	}
+	
+	/**
+	 * 
+	 * Returns the number of bodies in the simulation as of the last step.
+	 * 
+	 * @return the number of indexed bodies
+	 */
+	public int getBodyCount() {
+		return bodyCount;
+	}
+	
 	/**
 	 * 
 	 * Sets the frame rate for this physics engine.
@@ -206,6 +721,69 @@ public class PhysicsEngine {
 		this.useStep = useStep;
 	}
 	
+	/**
+	 * 
+	 * Sets the maximum number of steps taken by a single update. After a long frame, the time that would take more steps
+	 * than this to catch up on is dropped, so the simulation slows down instead of making every following frame longer.
+	 * When not using step, this limits the delta time of a single update to this many steps instead.
+	 * 
+	 * @param maxSubsteps - the maximum number of steps per update, 5 by default
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setMaxSubsteps(int maxSubsteps) {
+		if(maxSubsteps < 1)
+			throw new IllegalArgumentException("Max substeps must be at least 1: " + maxSubsteps);
+		
+		this.maxSubsteps = maxSubsteps;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the maximum number of steps taken by a single update.
+	 * 
+	 * @return the maximum number of steps per update
+	 */
+	public int getMaxSubsteps() {
+		return maxSubsteps;
+	}
+	
+	/**
+	 * 
+	 * Sets whether bodies should be drawn between the poses of the last two steps. The engine keeps the position each body
+	 * started the last step with either way, and never moves bodies for drawing. Levels read this setting and draw their
+	 * assets at {@link Body#getInterpolatedX(float)} and {@link Body#getInterpolatedY(float)}, so physics may run at a lower
+	 * frame rate than the display and still move smoothly. Bodies are then drawn up to one step behind the simulation.
+	 * 
+	 * @param interpolate - true to draw bodies between steps
+	 * @return this PhysicsEngine instance
+	 */
+	public PhysicsEngine setInterpolation(boolean interpolate) {
+		this.interpolate = interpolate;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns whether bodies should be drawn between the poses of the last two steps.
+	 * 
+	 * @return whether or not bodies are drawn interpolated
+	 */
+	public boolean isInterpolating() {
+		return interpolate;
+	}
+	
+	/**
+	 * 
+	 * Returns how far the time left over after the last update is into the next step, from 0 to 1. Renderers blend between
+	 * the last two steps by it, see {@link Body#getInterpolatedX(float)}. Always 1 when not using step.
+	 * 
+	 * @return the interpolation factor of the last update
+	 */
+	public float getAlpha() {
+		return alpha;
+	}
+	
 	/**
 	 * 
 	 * Sets the move constant for all collisions.
@@ -0,0 +1,20 @@
+package apie.physics;
+
+/**
+ * 
+ * Receives the bodies found by a region query.
+ * 
+ * @author SK
+ * 
+ */
+public interface QueryCallback {
+	
+	/**
+	 * 
+	 * Called for every body whose bounding box overlaps the queried region.
+	 * 
+	 * @param body - the body found
+	 * @return true to continue the query, false to end it
+	 */
+	public boolean report(Body body);
+}
@@ -0,0 +1,23 @@
+package apie.physics;
+
+/**
+ * 
+ * Receives the bodies hit by a ray query.
+ * 
+ * @author SK
+ * 
+ */
+public interface RayCallback {
+	
+	/**
+	 * 
+	 * Called for every body whose bounding box is hit by the ray, in no particular order.
+	 * The returned fraction clips the ray, so returning the specified fraction finds the closest hit,
+	 * returning 1 keeps the full ray and returning 0 ends the query.
+	 * 
+	 * @param body - the body hit
+	 * @param fraction - where along the ray the bounding box is entered, from 0 at the start to 1 at the end
+	 * @return the fraction to clip the ray to
+	 */
+	public float report(Body body, float fraction);
+}
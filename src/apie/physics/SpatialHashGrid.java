@@ -0,0 +1,662 @@
+package apie.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 
+ * A broadphase that sorts bodies into a uniform grid of square cells. Only bodies sharing a cell are tested
+ * against each other, so with bodies roughly the size of a cell, finding all pairs takes time linear in the number of bodies.
+ * <p>
+ * Awake bodies are entered into the grid anew on every update. Occupied cells are kept in an open addressing hash table
+ * keyed by cell coordinates, so the world has no bounds and empty space costs nothing. Sleeping bodies do not move,
+ * so their entries are kept in a second table that is only changed when a body falls asleep, wakes or is removed. A body overlapping several cells is
+ * entered into each of them; a pair sharing several cells is only reported by the cell containing the lower left
+ * corner of the overlap of their bounding boxes. Bodies that would cover more than {@value #MAX_CELLS_PER_BODY} cells,
+ * such as level boundaries, are kept out of the grid and tested against every other body instead.
+ * 
+ * @author SK
+ * 
+ */
+public class SpatialHashGrid implements Broadphase {
+	
+	public static final float DEFAULT_CELL_SIZE = 128;
+	public static final int MAX_CELLS_PER_BODY = 64;
+	
+	private float cellSize;
+	private float invCellSize;
+	
+	private final ArrayList<Body> bodies = new ArrayList<>();
+	private final IdentityHashMap<Body, Integer> indices = new IdentityHashMap<>();
+	
+	//Per body bounds and lowest cell coordinates, as of the latest update or, for sleeping bodies, as of falling asleep
+	private float[] minX = new float[0], minY = new float[0], maxX = new float[0], maxY = new float[0];
+	private int[] cellX = new int[0], cellY = new int[0];
+	
+	//Whether each body sleeps and has its entries in the sleeping table
+	private boolean[] parked = new boolean[0];
+	
+	private int[] oversized = new int[16];
+	private int oversizedCount;
+	
+	//Sleeping triggers in the sleeping table, the only sleeping bodies whose pairs with other sleeping bodies are needed
+	private int[] sleepingTriggers = new int[16];
+	private int sleepingTriggerCount;
+	
+	private final CellTable cells = new CellTable();
+	private final CellTable sleepingCells = new CellTable();
+	private boolean cellSizeChanged;
+	
+	/**
+	 * 
+	 * Constructs a new grid with the default cell size.
+	 * 
+	 */
+	public SpatialHashGrid() {
+		this(DEFAULT_CELL_SIZE);
+	}
+	
+	/**
+	 * 
+	 * Constructs a new grid with the specified cell size.
+	 * 
+	 * @param cellSize - the side length of a cell, ideally around the size of a typical body
+	 */
+	public SpatialHashGrid(float cellSize) {
+		setCellSize(cellSize);
+	}
+	
+	/**
+	 * 
+	 * Sets the side length of the cells. Takes effect on the next update.
+	 * 
+	 * @param cellSize - the side length of a cell
+	 * @return this grid instance
+	 */
+	public SpatialHashGrid setCellSize(float cellSize) {
+		if(!(cellSize > 0))
+			throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+		
+		this.cellSize = cellSize;
+		invCellSize = 1 / cellSize;
+		cellSizeChanged = true;
+		return this;
+	}
+	
+	/**
+	 * 
+	 * Returns the side length of the cells.
+	 * 
+	 * @return the side length of a cell
+	 */
+	public float getCellSize() {
+		return cellSize;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of occupied cells as of the latest update. A cell holding both awake and sleeping bodies is counted twice.
+	 * 
+	 * @return the number of occupied cells
+	 */
+	public int getCellCount() {
+		return cells.usedCount + sleepingCells.usedCount;
+	}
+	
+	public void add(Body body) {
+		if(body == null)
+			throw new IllegalArgumentException("Body cannot be null");
+		if(indices.containsKey(body))
+			return;
+		
+		int index = bodies.size();
+		indices.put(body, index);
+		bodies.add(body);
+		
+		ensureCapacity(index + 1);
+		parked[index] = false;
+	}
+	
+	public void remove(Body body) {
+		Integer index = indices.remove(body);
+		if(index == null)
+			return;
+		
+		if(parked[index])
+			unpark(index);
+		
+		//Swap the last body into the gap, along with its stored bounds
+		int lastIndex = bodies.size() - 1;
+		Body last = bodies.remove(lastIndex);
+		if(last != body) {
+			boolean lastParked = parked[lastIndex];
+			if(lastParked)
+				unpark(lastIndex);
+			
+			bodies.set(index, last);
+			indices.put(last, index);
+			
+			minX[index] = minX[lastIndex];
+			minY[index] = minY[lastIndex];
+			maxX[index] = maxX[lastIndex];
+			maxY[index] = maxY[lastIndex];
+			cellX[index] = cellX[lastIndex];
+			cellY[index] = cellY[lastIndex];
+			parked[index] = false;
+			
+			if(lastParked)
+				park(index);
+		}
+	}
+	
+	public void clear() {
+		bodies.clear();
+		indices.clear();
+		cells.clear();
+		sleepingCells.clear();
+		oversizedCount = 0;
+		sleepingTriggerCount = 0;
+	}
+	
+	public int getBodyCount() {
+		return bodies.size();
+	}
+	
+	public void update() {
+		int n = bodies.size();
+		
+		//Cells of sleeping bodies from before a cell size change are meaningless
+		if(cellSizeChanged) {
+			cellSizeChanged = false;
+			for(int i = 0; i < n; i++)
+				parked[i] = false;
+			sleepingCells.clear();
+		}
+		
+		//Bounds and the number of entries needed, so the table is sized once
+		oversizedCount = 0;
+		sleepingTriggerCount = 0;
+		int entries = 0;
+		for(int i = 0; i < n; i++) {
+			Body b = bodies.get(i);
+			
+			//Sleeping bodies do not move, their bounds and entries are read once when they fall asleep
+			if(b.sleeping && parked[i]) {
+				if(cellX[i] == Integer.MIN_VALUE)
+					addOversized(i);
+				else if(b.trigger)
+					addSleepingTrigger(i);
+				continue;
+			}
+			
+			if(parked[i])
+				unpark(i);
+			
+			minX[i] = b.getMinX();
+			minY[i] = b.getMinY();
+			maxX[i] = b.getMaxX();
+			maxY[i] = b.getMaxY();
+			cellX[i] = cell(minX[i]);
+			cellY[i] = cell(minY[i]);
+			
+			long count = (long)(cell(maxX[i]) - cellX[i] + 1) * (cell(maxY[i]) - cellY[i] + 1);
+			if(count > MAX_CELLS_PER_BODY) {
+				addOversized(i);
+				
+				//Marks the body as not being in the grid
+				cellX[i] = Integer.MIN_VALUE;
+			} else if(!b.sleeping) {
+				entries += count;
+			}
+			
+			if(b.sleeping) {
+				park(i);
+				if(b.trigger && cellX[i] != Integer.MIN_VALUE)
+					addSleepingTrigger(i);
+			}
+		}
+		
+		cells.prepare(entries);
+		
+		for(int i = 0; i < n; i++)
+			if(!parked[i] && cellX[i] != Integer.MIN_VALUE)
+				insert(cells, i);
+	}
+	
+	/**
+	 * 
+	 * Grows the per body arrays to hold at least the specified number of bodies.
+	 * 
+	 * @param n - the number of bodies
+	 */
+	private void ensureCapacity(int n) {
+		if(minX.length >= n)
+			return;
+		
+		int capacity = Math.max(n, minX.length * 2);
+		minX = Arrays.copyOf(minX, capacity);
+		minY = Arrays.copyOf(minY, capacity);
+		maxX = Arrays.copyOf(maxX, capacity);
+		maxY = Arrays.copyOf(maxY, capacity);
+		cellX = Arrays.copyOf(cellX, capacity);
+		cellY = Arrays.copyOf(cellY, capacity);
+		parked = Arrays.copyOf(parked, capacity);
+	}
+	
+	/**
+	 * 
+	 * Adds a body to the bodies tested against every other body.
+	 * 
+	 * @param i - the index of the body
+	 */
+	private void addOversized(int i) {
+		if(oversizedCount == oversized.length)
+			oversized = Arrays.copyOf(oversized, oversizedCount * 2);
+		oversized[oversizedCount++] = i;
+	}
+	
+	/**
+	 * 
+	 * Adds a body to the sleeping triggers.
+	 * 
+	 * @param i - the index of the body
+	 */
+	private void addSleepingTrigger(int i) {
+		if(sleepingTriggerCount == sleepingTriggers.length)
+			sleepingTriggers = Arrays.copyOf(sleepingTriggers, sleepingTriggerCount * 2);
+		sleepingTriggers[sleepingTriggerCount++] = i;
+	}
+	
+	/**
+	 * 
+	 * Enters a body that fell asleep into the sleeping table, using its stored bounds.
+	 * 
+	 * @param i - the index of the body
+	 */
+	private void park(int i) {
+		parked[i] = true;
+		
+		if(cellX[i] == Integer.MIN_VALUE)
+			return;
+		
+		int count = (cell(maxX[i]) - cellX[i] + 1) * (cell(maxY[i]) - cellY[i] + 1);
+		
+		//Compact the table once most of its entries belong to bodies that woke, or grow it when full
+		if(sleepingCells.deadCount > sleepingCells.entryCount / 2 || !sleepingCells.hasRoom(count))
+			rebuildSleeping();
+		else
+			insert(sleepingCells, i);
+	}
+	
+	/**
+	 * 
+	 * Removes a body from the sleeping table.
+	 * 
+	 * @param i - the index of the body
+	 */
+	private void unpark(int i) {
+		parked[i] = false;
+		
+		if(cellX[i] == Integer.MIN_VALUE)
+			return;
+		
+		int x1 = cell(maxX[i]), y1 = cell(maxY[i]);
+		for(int y = cellY[i]; y <= y1; y++)
+			for(int x = cellX[i]; x <= x1; x++)
+				sleepingCells.kill(x, y, i);
+	}
+	
+	/**
+	 * 
+	 * Refills the sleeping table from the stored bounds of the sleeping bodies, leaving room for as many more.
+	 * 
+	 */
+	private void rebuildSleeping() {
+		int n = bodies.size();
+		
+		int entries = 0;
+		for(int i = 0; i < n; i++)
+			if(parked[i] && cellX[i] != Integer.MIN_VALUE)
+				entries += (cell(maxX[i]) - cellX[i] + 1) * (cell(maxY[i]) - cellY[i] + 1);
+		
+		sleepingCells.prepare(Math.max(entries * 2, 16));
+		
+		for(int i = 0; i < n; i++)
+			if(parked[i] && cellX[i] != Integer.MIN_VALUE)
+				insert(sleepingCells, i);
+	}
+	
+	/**
+	 * 
+	 * Adds a body to every cell its stored bounds overlap.
+	 * 
+	 * @param table - the table to add the body to
+	 * @param i - the index of the body
+	 */
+	private void insert(CellTable table, int i) {
+		int x1 = cell(maxX[i]), y1 = cell(maxY[i]);
+		for(int y = cellY[i]; y <= y1; y++)
+			for(int x = cellX[i]; x <= x1; x++)
+				table.insert(x, y, i);
+	}
+	
+	public void findPairs(BodyPairs pairs) {
+		CellTable s = sleepingCells;
+		boolean anySleeping = s.entryCount > s.deadCount;
+		
+		for(int u = 0; u < cells.usedCount; u++) {
+			int slot = cells.used[u];
+			int x = cells.tableX[slot], y = cells.tableY[slot];
+			int sleepingHead = anySleeping ? s.find(x, y) : -1;
+			
+			for(int e = cells.tableHead[slot]; e != -1; e = cells.entryNext[e]) {
+				int i = cells.entryBody[e];
+				
+				for(int f = cells.entryNext[e]; f != -1; f = cells.entryNext[f])
+					test(i, cells.entryBody[f], x, y, pairs);
+				
+				for(int f = sleepingHead; f != -1; f = s.entryNext[f])
+					if(s.entryBody[f] != -1)
+						test(i, s.entryBody[f], x, y, pairs);
+			}
+		}
+		
+		//Pairs of two sleeping bodies are skipped by the narrowphase unless a trigger is involved, so only triggers look for them
+		for(int t = 0; t < sleepingTriggerCount; t++) {
+			int i = sleepingTriggers[t];
+			
+			int x1 = cell(maxX[i]), y1 = cell(maxY[i]);
+			for(int y = cellY[i]; y <= y1; y++) {
+				for(int x = cellX[i]; x <= x1; x++) {
+					for(int f = s.find(x, y); f != -1; f = s.entryNext[f]) {
+						int j = s.entryBody[f];
+						
+						//Pairs of two sleeping triggers are only reported by the first
+						if(j == -1 || j == i || (j < i && bodies.get(j).trigger))
+							continue;
+						
+						test(i, j, x, y, pairs);
+					}
+				}
+			}
+		}
+		
+		int n = bodies.size();
+		for(int o = 0; o < oversizedCount; o++) {
+			int i = oversized[o];
+			for(int j = 0; j < n; j++) {
+				//Pairs of two oversized bodies are only reported by the first
+				if(j == i || (cellX[j] == Integer.MIN_VALUE && j < i))
+					continue;
+				
+				if(overlaps(i, j))
+					report(i, j, pairs);
+			}
+		}
+	}
+	
+	public void query(float x0, float y0, float x1, float y1, QueryCallback callback) {
+		int n = bodies.size();
+		int cx0 = cell(x0), cy0 = cell(y0), cx1 = cell(x1), cy1 = cell(y1);
+		
+		//Regions covering more cells than there are bodies are cheaper to check body by body
+		if((long)(cx1 - cx0 + 1) * (cy1 - cy0 + 1) > n) {
+			for(int i = 0; i < n; i++)
+				if(minX[i] <= x1 && maxX[i] >= x0 && minY[i] <= y1 && maxY[i] >= y0)
+					if(!callback.report(bodies.get(i)))
+						return;
+			return;
+		}
+		
+		for(int y = cy0; y <= cy1; y++) {
+			for(int x = cx0; x <= cx1; x++) {
+				if(!query(cells, x, y, cx0, cy0, x0, y0, x1, y1, callback))
+					return;
+				if(!query(sleepingCells, x, y, cx0, cy0, x0, y0, x1, y1, callback))
+					return;
+			}
+		}
+		
+		for(int o = 0; o < oversizedCount; o++) {
+			int i = oversized[o];
+			if(minX[i] <= x1 && maxX[i] >= x0 && minY[i] <= y1 && maxY[i] >= y0)
+				if(!callback.report(bodies.get(i)))
+					return;
+		}
+	}
+	
+	/**
+	 * 
+	 * Reports the bodies of one cell that overlap the region of a query. A body overlapping several cells of the region is
+	 * only reported by the cell holding the lower left corner of the overlap of its cells and the region's cells.
+	 * 
+	 * @param table - the table to look the cell up in
+	 * @param x - the x coordinate of the cell
+	 * @param y - the y coordinate of the cell
+	 * @param cx0 - the x coordinate of the region's lowest cell
+	 * @param cy0 - the y coordinate of the region's lowest cell
+	 * @param x0 - the left edge of the region
+	 * @param y0 - the bottom edge of the region
+	 * @param x1 - the right edge of the region
+	 * @param y1 - the top edge of the region
+	 * @param callback - the callback to report the bodies to
+	 * @return false if the callback ended the query
+	 */
+	private boolean query(CellTable table, int x, int y, int cx0, int cy0, float x0, float y0, float x1, float y1, QueryCallback callback) {
+		if(table.entryCount == table.deadCount)
+			return true;
+		
+		for(int e = table.find(x, y); e != -1; e = table.entryNext[e]) {
+			int i = table.entryBody[e];
+			if(i == -1 || Math.max(cellX[i], cx0) != x || Math.max(cellY[i], cy0) != y)
+				continue;
+			
+			if(minX[i] <= x1 && maxX[i] >= x0 && minY[i] <= y1 && maxY[i] >= y0)
+				if(!callback.report(bodies.get(i)))
+					return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * 
+	 * Reports a pair of bodies found in the same cell if they overlap, and the cell holds the lower left corner of the overlap.
+	 * A pair sharing several cells is thereby only reported once.
+	 * 
+	 * @param i - the index of one body
+	 * @param j - the index of the other body
+	 * @param x - the x coordinate of the cell
+	 * @param y - the y coordinate of the cell
+	 * @param pairs - the list to append to
+	 */
+	private void test(int i, int j, int x, int y, BodyPairs pairs) {
+		if(!overlaps(i, j))
+			return;
+		
+		if(Math.max(cellX[i], cellX[j]) != x || Math.max(cellY[i], cellY[j]) != y)
+			return;
+		
+		report(i, j, pairs);
+	}
+	
+	/**
+	 * 
+	 * Returns whether the bounding boxes of two bodies overlap.
+	 * 
+	 * @param i - the index of the first body
+	 * @param j - the index of the second body
+	 * @return true if the bounding boxes overlap
+	 */
+	private boolean overlaps(int i, int j) {
+		return minX[i] <= maxX[j] && minX[j] <= maxX[i] && minY[i] <= maxY[j] && minY[j] <= maxY[i];
+	}
+	
+	/**
+	 * 
+	 * Appends a pair, lower index first so the order does not depend on the cell lists.
+	 * 
+	 * @param i - the index of one body
+	 * @param j - the index of the other body
+	 * @param pairs - the list to append to
+	 */
+	private void report(int i, int j, BodyPairs pairs) {
+		if(i < j)
+			pairs.add(bodies.get(i), bodies.get(j));
+		else
+			pairs.add(bodies.get(j), bodies.get(i));
+	}
+	
+	/**
+	 * 
+	 * Returns the cell coordinate containing the specified world coordinate.
+	 * 
+	 * @param v - the world coordinate
+	 * @return the cell coordinate
+	 */
+	private int cell(float v) {
+		return (int)Math.floor(v * invCellSize);
+	}
+	
+	/**
+	 * 
+	 * An open addressing hash table from cell coordinates to singly linked lists of the bodies in each cell.
+	 * Bodies are removed by clearing their entries, which stay in the lists until the table is prepared again.
+	 * 
+	 */
+	private static final class CellTable {
+		
+		//Hash table from cell coordinates to the first entry of the cell, empty slots have no head
+		int[] tableX = new int[0], tableY = new int[0], tableHead = new int[0];
+		int tableMask = -1;
+		int[] used = new int[0];
+		int usedCount;
+		
+		//The entries of all cells, removed entries hold no body
+		int[] entryBody = new int[0], entryNext = new int[0];
+		int entryCount;
+		int deadCount;
+		
+		/**
+		 * 
+		 * Empties the table.
+		 * 
+		 */
+		void clear() {
+			for(int i = 0; i < usedCount; i++)
+				tableHead[used[i]] = -1;
+			usedCount = 0;
+			entryCount = 0;
+			deadCount = 0;
+		}
+		
+		/**
+		 * 
+		 * Empties the table and makes sure it and the entry arrays can hold the specified number of entries.
+		 * 
+		 * @param entries - the number of entries to make room for
+		 */
+		void prepare(int entries) {
+			clear();
+			
+			//At most half full, so probe sequences stay short
+			int capacity = Integer.highestOneBit(Math.max(entries, 8) * 2 - 1) << 1;
+			if(tableHead.length < capacity) {
+				tableX = new int[capacity];
+				tableY = new int[capacity];
+				tableHead = new int[capacity];
+				Arrays.fill(tableHead, -1);
+				used = new int[capacity];
+				tableMask = capacity - 1;
+			}
+			
+			if(entryBody.length < entries) {
+				int size = Math.max(entries, entryBody.length * 2);
+				entryBody = new int[size];
+				entryNext = new int[size];
+			}
+		}
+		
+		/**
+		 * 
+		 * Returns whether the specified number of entries in as many new cells can be added without growing the table.
+		 * 
+		 * @param entries - the number of entries to add
+		 * @return true if there is room for the entries
+		 */
+		boolean hasRoom(int entries) {
+			return (usedCount + entries) * 2 <= tableMask + 1 && entryCount + entries <= entryBody.length;
+		}
+		
+		/**
+		 * 
+		 * Returns the slot of the cell with the specified coordinates, or of the empty slot where it would go.
+		 * 
+		 * @param x - the x coordinate of the cell
+		 * @param y - the y coordinate of the cell
+		 * @return the slot of the cell
+		 */
+		int slot(int x, int y) {
+			int slot = (x * 0x9E3779B1 ^ y * 0x85EBCA77) & tableMask;
+			
+			while(tableHead[slot] != -1 && (tableX[slot] != x || tableY[slot] != y))
+				slot = (slot + 1) & tableMask;
+			
+			return slot;
+		}
+		
+		/**
+		 * 
+		 * Returns the first entry of the cell with the specified coordinates.
+		 * 
+		 * @param x - the x coordinate of the cell
+		 * @param y - the y coordinate of the cell
+		 * @return the first entry of the cell, or -1 if the cell is empty
+		 */
+		int find(int x, int y) {
+			return tableHead[slot(x, y)];
+		}
+		
+		/**
+		 * 
+		 * Adds a body to the cell with the specified coordinates.
+		 * 
+		 * @param x - the x coordinate of the cell
+		 * @param y - the y coordinate of the cell
+		 * @param body - the index of the body
+		 */
+		void insert(int x, int y, int body) {
+			int slot = slot(x, y);
+			
+			if(tableHead[slot] == -1) {
+				tableX[slot] = x;
+				tableY[slot] = y;
+				used[usedCount++] = slot;
+			}
+			
+			int e = entryCount++;
+			entryBody[e] = body;
+			entryNext[e] = tableHead[slot];
+			tableHead[slot] = e;
+		}
+		
+		/**
+		 * 
+		 * Removes a body from the cell with the specified coordinates.
+		 * 
+		 * @param x - the x coordinate of the cell
+		 * @param y - the y coordinate of the cell
+		 * @param body - the index of the body
+		 */
+		void kill(int x, int y, int body) {
+			for(int e = find(x, y); e != -1; e = entryNext[e]) {
+				if(entryBody[e] == body) {
+					entryBody[e] = -1;
+					deadCount++;
+					return;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package apie.physics;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 
+ * An immutable bounding volume hierarchy over bodies that do not move, such as the floors and walls of a level.
+ * <p>
+ * The tree is built once, top down: each node splits its bodies at the median of their centers along the longer axis
+ * of the node, so the tree is balanced and its height is logarithmic. Leaves hold up to {@value #MAX_LEAF_SIZE} bodies.
+ * Nodes are laid out depth first in flat arrays, with the first child of a node directly following it.
+ * <p>
+ * The bounds of the bodies are captured when the tree is built. {@link #isStale()} reports whether any of the bodies
+ * has been moved or reshaped since, in which case a new tree must be built.
+ * 
+ * @author SK
+ * 
+ */
+public final class StaticBVH {
+	
+	public static final int MAX_LEAF_SIZE = 4;
+	
+	//Bodies in tree order with their bounds, transform and shape versions at build time, read by the physics engine to find what changed
+	final Body[] bodies;
+	final float[] bodyMinX, bodyMinY, bodyMaxX, bodyMaxY;
+	final int[] versions, shapeVersions;
+	
+	//Node bounds; leaves have a count, inner nodes have a count of 0 and the index of their second child
+	private final float[] minX, minY, maxX, maxY;
+	private final int[] start, count, second;
+	private int nodeCount;
+	private int height;
+	
+	private int[] stack = new int[64];
+	
+	/**
+	 * 
+	 * Builds a tree over the specified bodies.
+	 * 
+	 * @param statics - the bodies to build the tree over
+	 */
+	public StaticBVH(Collection<Body> statics) {
+		int n = statics.size();
+		
+		bodies = statics.toArray(new Body[n]);
+		bodyMinX = new float[n];
+		bodyMinY = new float[n];
+		bodyMaxX = new float[n];
+		bodyMaxY = new float[n];
+		versions = new int[n];
+		shapeVersions = new int[n];
+		
+		for(int i = 0; i < n; i++) {
+			Body b = bodies[i];
+			bodyMinX[i] = b.getMinX();
+			bodyMinY[i] = b.getMinY();
+			bodyMaxX[i] = b.getMaxX();
+			bodyMaxY[i] = b.getMaxY();
+			versions[i] = b.transform.getVersion();
+			shapeVersions[i] = b.shapeVersion;
+		}
+		
+		int nodes = Math.max(1, 2 * n);
+		minX = new float[nodes];
+		minY = new float[nodes];
+		maxX = new float[nodes];
+		maxY = new float[nodes];
+		start = new int[nodes];
+		count = new int[nodes];
+		second = new int[nodes];
+		
+		if(n > 0)
+			build(0, n, 0);
+	}
+	
+	/**
+	 * 
+	 * Builds the subtree over a range of bodies.
+	 * 
+	 * @param from - the first body of the range
+	 * @param to - one past the last body of the range
+	 * @param depth - the depth of the subtree's root
+	 * @return the index of the subtree's root
+	 */
+	private int build(int from, int to, int depth) {
+		int node = nodeCount++;
+		height = Math.max(height, depth);
+		
+		float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY;
+		float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+		float cx0 = Float.POSITIVE_INFINITY, cy0 = Float.POSITIVE_INFINITY;
+		float cx1 = Float.NEGATIVE_INFINITY, cy1 = Float.NEGATIVE_INFINITY;
+		for(int i = from; i < to; i++) {
+			x0 = Math.min(x0, bodyMinX[i]);
+			y0 = Math.min(y0, bodyMinY[i]);
+			x1 = Math.max(x1, bodyMaxX[i]);
+			y1 = Math.max(y1, bodyMaxY[i]);
+			cx0 = Math.min(cx0, centerX(i));
+			cy0 = Math.min(cy0, centerY(i));
+			cx1 = Math.max(cx1, centerX(i));
+			cy1 = Math.max(cy1, centerY(i));
+		}
+		minX[node] = x0;
+		minY[node] = y0;
+		maxX[node] = x1;
+		maxY[node] = y1;
+		
+		if(to - from <= MAX_LEAF_SIZE) {
+			start[node] = from;
+			count[node] = to - from;
+			return node;
+		}
+		
+		//Split along the axis the centers are spread the most on
+		boolean alongX = cx1 - cx0 >= cy1 - cy0;
+		int mid = (from + to) >>> 1;
+		select(from, to - 1, mid, alongX);
+		
+		build(from, mid, depth + 1);
+		second[node] = build(mid, to, depth + 1);
+		return node;
+	}
+	
+	/**
+	 * 
+	 * Partially sorts a range of bodies by center, so the body at index k is the one that would be there if fully sorted,
+	 * with no greater centers before it and no smaller ones after it.
+	 * 
+	 * @param lo - the first body of the range
+	 * @param hi - the last body of the range, inclusive
+	 * @param k - the index to select
+	 * @param alongX - whether to compare the x or y coordinates of the centers
+	 */
+	private void select(int lo, int hi, int k, boolean alongX) {
+		while(lo < hi) {
+			float pivot = center((lo + hi) >>> 1, alongX);
+			int i = lo, j = hi;
+			
+			while(i <= j) {
+				while(center(i, alongX) < pivot)
+					i++;
+				while(center(j, alongX) > pivot)
+					j--;
+				if(i <= j)
+					swap(i++, j--);
+			}
+			
+			if(k <= j)
+				hi = j;
+			else if(k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+	
+	private float center(int i, boolean alongX) {
+		return alongX ? centerX(i) : centerY(i);
+	}
+	
+	private float centerX(int i) {
+		return (bodyMinX[i] + bodyMaxX[i]) * 0.5f;
+	}
+	
+	private float centerY(int i) {
+		return (bodyMinY[i] + bodyMaxY[i]) * 0.5f;
+	}
+	
+	private void swap(int i, int j) {
+		Body b = bodies[i];
+		bodies[i] = bodies[j];
+		bodies[j] = b;
+		
+		float f = bodyMinX[i]; bodyMinX[i] = bodyMinX[j]; bodyMinX[j] = f;
+		f = bodyMinY[i]; bodyMinY[i] = bodyMinY[j]; bodyMinY[j] = f;
+		f = bodyMaxX[i]; bodyMaxX[i] = bodyMaxX[j]; bodyMaxX[j] = f;
+		f = bodyMaxY[i]; bodyMaxY[i] = bodyMaxY[j]; bodyMaxY[j] = f;
+		
+		int v = versions[i];
+		versions[i] = versions[j];
+		versions[j] = v;
+		
+		v = shapeVersions[i];
+		shapeVersions[i] = shapeVersions[j];
+		shapeVersions[j] = v;
+	}
+	
+	/**
+	 * 
+	 * Returns whether any body has moved or been reshaped since the tree was built.
+	 * 
+	 * @return true if the tree must be rebuilt
+	 */
+	public boolean isStale() {
+		for(int i = 0; i < bodies.length; i++)
+			if(bodies[i].transform.getVersion() != versions[i] || bodies[i].shapeVersion != shapeVersions[i])
+				return true;
+		return false;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of bodies in the tree.
+	 * 
+	 * @return the number of bodies
+	 */
+	public int getBodyCount() {
+		return bodies.length;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of nodes in the tree.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+	
+	/**
+	 * 
+	 * Returns the height of the tree. An empty tree or a single leaf has height 0.
+	 * 
+	 * @return the height of the tree
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
+	/**
+	 * 
+	 * Appends a pair of the specified body and every body in the tree whose bounding box overlaps the specified box.
+	 * 
+	 * @param body - the first body of every pair
+	 * @param x0 - the left edge of the box
+	 * @param y0 - the bottom edge of the box
+	 * @param x1 - the right edge of the box
+	 * @param y1 - the top edge of the box
+	 * @param pairs - the list to append the pairs to
+	 */
+	void findPairs(Body body, float x0, float y0, float x1, float y1, BodyPairs pairs) {
+		if(nodeCount == 0)
+			return;
+		
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0) {
+			int node = stack[--top];
+			
+			if(minX[node] > x1 || maxX[node] < x0 || minY[node] > y1 || maxY[node] < y0)
+				continue;
+			
+			if(count[node] > 0) {
+				for(int i = start[node], end = i + count[node]; i < end; i++)
+					if(bodyMinX[i] <= x1 && bodyMaxX[i] >= x0 && bodyMinY[i] <= y1 && bodyMaxY[i] >= y0)
+						pairs.add(body, bodies[i]);
+			} else {
+				top = push(top, node + 1, second[node]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Reports every body whose bounding box overlaps the specified region.
+	 * 
+	 * @param x0 - the left edge of the region
+	 * @param y0 - the bottom edge of the region
+	 * @param x1 - the right edge of the region
+	 * @param y1 - the top edge of the region
+	 * @param callback - the callback to report the bodies to
+	 */
+	public void query(float x0, float y0, float x1, float y1, QueryCallback callback) {
+		if(nodeCount == 0)
+			return;
+		
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0) {
+			int node = stack[--top];
+			
+			if(minX[node] > x1 || maxX[node] < x0 || minY[node] > y1 || maxY[node] < y0)
+				continue;
+			
+			if(count[node] > 0) {
+				for(int i = start[node], end = i + count[node]; i < end; i++)
+					if(bodyMinX[i] <= x1 && bodyMaxX[i] >= x0 && bodyMinY[i] <= y1 && bodyMaxY[i] >= y0)
+						if(!callback.report(bodies[i]))
+							return;
+			} else {
+				top = push(top, node + 1, second[node]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Reports every body whose bounding box is hit by the ray from (x0, y0) to (x1, y1).
+	 * 
+	 * @param x0 - the x coordinate of the start of the ray
+	 * @param y0 - the y coordinate of the start of the ray
+	 * @param x1 - the x coordinate of the end of the ray
+	 * @param y1 - the y coordinate of the end of the ray
+	 * @param callback - the callback to report the bodies to
+	 */
+	public void raycast(float x0, float y0, float x1, float y1, RayCallback callback) {
+		if(nodeCount == 0)
+			return;
+		
+		float dx = x1 - x0, dy = y1 - y0;
+		float max = 1;
+		
+		int top = 0;
+		stack[top++] = 0;
+		while(top > 0) {
+			int node = stack[--top];
+			
+			if(DynamicAABBTree.entry(minX[node], minY[node], maxX[node], maxY[node], x0, y0, dx, dy, max) < 0)
+				continue;
+			
+			if(count[node] > 0) {
+				for(int i = start[node], end = i + count[node]; i < end; i++) {
+					float t = DynamicAABBTree.entry(bodyMinX[i], bodyMinY[i], bodyMaxX[i], bodyMaxY[i], x0, y0, dx, dy, max);
+					if(t < 0)
+						continue;
+					
+					max = callback.report(bodies[i], t);
+					if(max <= 0)
+						return;
+				}
+			} else {
+				top = push(top, node + 1, second[node]);
+			}
+		}
+	}
+	
+	/**
+	 * 
+	 * Pushes two nodes onto the traversal stack, growing it if needed.
+	 * 
+	 * @param top - the current size of the stack
+	 * @param a - the first node to push
+	 * @param b - the second node to push
+	 * @return the new size of the stack
+	 */
+	private int push(int top, int a, int b) {
+		if(top + 2 > stack.length)
+			stack = Arrays.copyOf(stack, stack.length * 2);
+		
+		stack[top++] = a;
+		stack[top++] = b;
+		return top;
+	}
+}
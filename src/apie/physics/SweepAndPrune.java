@@ -0,0 +1,375 @@
+package apie.physics;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * 
+ * A broadphase that keeps the bounding box edges of all bodies sorted along both axes and maintains the set of
+ * overlapping pairs incrementally. Suited to scenes where most bodies barely move between steps.
+ * <p>
+ * Each update refreshes the edge values and restores the order with an insertion sort, which is close to linear
+ * when bodies have only moved a little. Every swap of a lower and an upper edge of two bodies is an event: if a lower
+ * edge passes below an upper edge, the two boxes may have started to overlap and the pair is added if they do;
+ * if an upper edge passes below a lower edge, the boxes have separated and the pair is removed. At equal values
+ * lower edges sort before upper edges, so boxes that just touch count as overlapping, as in the other broadphases.
+ * <p>
+ * The overlapping pairs are kept in a hash set that persists between steps, so finding pairs costs time proportional
+ * to the number of pairs rather than bodies. Adding a body sorts its edges in during the next update; removing one
+ * takes time linear in the number of bodies and pairs.
+ * 
+ * @author SK
+ * 
+ */
+public class SweepAndPrune implements Broadphase {
+	
+	private static final long EMPTY = -1;
+	
+	//Proxies, one per body, with bounds as of the latest update
+	private Body[] bodies = new Body[16];
+	private float[] minX = new float[16], minY = new float[16], maxX = new float[16], maxY = new float[16];
+	private int[] free = new int[16];
+	private int freeCount;
+	private int proxyCount;
+	private final IdentityHashMap<Body, Integer> proxies = new IdentityHashMap<>();
+	
+	//Edges per axis: the edge value and the proxy shifted left by one, with the lowest bit set for upper edges
+	private float[] xValue = new float[32], yValue = new float[32];
+	private int[] xEdge = new int[32], yEdge = new int[32];
+	private int edgeCount;
+	
+	//Open addressing set of overlapping pairs, keyed by the lower proxy in the high and the higher proxy in the low bits
+	private long[] pairTable = new long[64];
+	private int pairCount;
+	
+	private int swaps;
+	
+	public SweepAndPrune() {
+		Arrays.fill(pairTable, EMPTY);
+	}
+	
+	/**
+	 * 
+	 * Returns the number of edge swaps made by the insertion sort during the latest update.
+	 * 
+	 * @return the number of swaps
+	 */
+	public int getSwapCount() {
+		return swaps;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of overlapping pairs as of the latest update.
+	 * 
+	 * @return the number of overlapping pairs
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+	
+	public void add(Body body) {
+		if(body == null)
+			throw new IllegalArgumentException("Body cannot be null");
+		if(proxies.containsKey(body))
+			return;
+		
+		int p;
+		if(freeCount > 0) {
+			p = free[--freeCount];
+		} else {
+			if(proxyCount == bodies.length) {
+				int n = proxyCount * 2;
+				bodies = Arrays.copyOf(bodies, n);
+				minX = Arrays.copyOf(minX, n);
+				minY = Arrays.copyOf(minY, n);
+				maxX = Arrays.copyOf(maxX, n);
+				maxY = Arrays.copyOf(maxY, n);
+				free = Arrays.copyOf(free, n);
+			}
+			p = proxyCount++;
+		}
+		
+		bodies[p] = body;
+		proxies.put(body, p);
+		
+		//Updates skip sleeping bodies, so a body added asleep needs its bounds now
+		minX[p] = body.getMinX();
+		minY[p] = body.getMinY();
+		maxX[p] = body.getMaxX();
+		maxY[p] = body.getMaxY();
+		
+		//Appended at the top, the next update sorts them down and reports the overlaps on the way
+		if(edgeCount + 2 > xEdge.length) {
+			int n = xEdge.length * 2;
+			xValue = Arrays.copyOf(xValue, n);
+			yValue = Arrays.copyOf(yValue, n);
+			xEdge = Arrays.copyOf(xEdge, n);
+			yEdge = Arrays.copyOf(yEdge, n);
+		}
+		
+		xEdge[edgeCount] = p << 1;
+		yEdge[edgeCount] = p << 1;
+		xEdge[edgeCount + 1] = p << 1 | 1;
+		yEdge[edgeCount + 1] = p << 1 | 1;
+		edgeCount += 2;
+	}
+	
+	public void remove(Body body) {
+		Integer proxy = proxies.remove(body);
+		if(proxy == null)
+			return;
+		
+		int p = proxy;
+		
+		//Both axes hold the same edges, so compacting them together keeps the counts equal
+		int x = 0, y = 0;
+		for(int i = 0; i < edgeCount; i++) {
+			if(xEdge[i] >> 1 != p) {
+				xEdge[x] = xEdge[i];
+				xValue[x++] = xValue[i];
+			}
+			if(yEdge[i] >> 1 != p) {
+				yEdge[y] = yEdge[i];
+				yValue[y++] = yValue[i];
+			}
+		}
+		edgeCount -= 2;
+		
+		for(int i = 0; i < pairTable.length; i++) {
+			long key = pairTable[i];
+			if(key != EMPTY && ((int)(key >>> 32) == p || (int)key == p)) {
+				removePair(key);
+				//The removal may have shifted another pair into this slot
+				i--;
+			}
+		}
+		
+		bodies[p] = null;
+		free[freeCount++] = p;
+	}
+	
+	public void clear() {
+		Arrays.fill(bodies, null);
+		proxies.clear();
+		proxyCount = 0;
+		freeCount = 0;
+		edgeCount = 0;
+		Arrays.fill(pairTable, EMPTY);
+		pairCount = 0;
+	}
+	
+	public int getBodyCount() {
+		return proxies.size();
+	}
+	
+	public void update() {
+		for(int p : proxies.values()) {
+			Body b = bodies[p];
+			
+			//Sleeping bodies do not move
+			if(b.sleeping)
+				continue;
+			
+			minX[p] = b.getMinX();
+			minY[p] = b.getMinY();
+			maxX[p] = b.getMaxX();
+			maxY[p] = b.getMaxY();
+		}
+		
+		for(int i = 0; i < edgeCount; i++) {
+			int e = xEdge[i];
+			xValue[i] = (e & 1) == 0 ? minX[e >> 1] : maxX[e >> 1];
+			e = yEdge[i];
+			yValue[i] = (e & 1) == 0 ? minY[e >> 1] : maxY[e >> 1];
+		}
+		
+		swaps = 0;
+		sort(xValue, xEdge);
+		sort(yValue, yEdge);
+	}
+	
+	/**
+	 * 
+	 * Restores the order of the edges of one axis with an insertion sort, handling the overlap events of every swap.
+	 * 
+	 * @param values - the edge values of the axis
+	 * @param edges - the edges of the axis
+	 */
+	private void sort(float[] values, int[] edges) {
+		for(int i = 1; i < edgeCount; i++) {
+			float v = values[i];
+			int e = edges[i];
+			boolean upper = (e & 1) != 0;
+			
+			int j = i;
+			while(j > 0) {
+				float w = values[j - 1];
+				int f = edges[j - 1];
+				boolean otherUpper = (f & 1) != 0;
+				
+				//Lower edges go first at equal values
+				if(!(v < w || (v == w && !upper && otherUpper)))
+					break;
+				
+				if(upper != otherUpper && e >> 1 != f >> 1) {
+					int p = e >> 1, q = f >> 1;
+					
+					if(!upper) {
+						if(overlaps(p, q))
+							addPair(p, q);
+					} else {
+						removePair(key(p, q));
+					}
+				}
+				
+				values[j] = w;
+				edges[j] = f;
+				j--;
+				swaps++;
+			}
+			
+			values[j] = v;
+			edges[j] = e;
+		}
+	}
+	
+	public void findPairs(BodyPairs pairs) {
+		for(long key : pairTable)
+			if(key != EMPTY)
+				pairs.add(bodies[(int)(key >>> 32)], bodies[(int)key]);
+	}
+	
+	public void query(float x0, float y0, float x1, float y1, QueryCallback callback) {
+		//Every proxy starting left of the region's right edge is a candidate
+		for(int i = 0; i < edgeCount && xValue[i] <= x1; i++) {
+			int e = xEdge[i];
+			if((e & 1) != 0)
+				continue;
+			
+			int p = e >> 1;
+			if(maxX[p] >= x0 && minY[p] <= y1 && maxY[p] >= y0)
+				if(!callback.report(bodies[p]))
+					return;
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns whether the bounding boxes of two proxies overlap.
+	 * 
+	 * @param p - the first proxy
+	 * @param q - the second proxy
+	 * @return true if the bounding boxes overlap
+	 */
+	private boolean overlaps(int p, int q) {
+		return minX[p] <= maxX[q] && minX[q] <= maxX[p] && minY[p] <= maxY[q] && minY[q] <= maxY[p];
+	}
+	
+	/**
+	 * 
+	 * Returns the pair set key of two proxies.
+	 * 
+	 * @param p - the first proxy
+	 * @param q - the second proxy
+	 * @return the key of the pair
+	 */
+	private static long key(int p, int q) {
+		return p < q ? (long)p << 32 | q : (long)q << 32 | p;
+	}
+	
+	/**
+	 * 
+	 * Returns the home slot of a key in the pair table.
+	 * 
+	 * @param key - the key
+	 * @return the slot the key hashes to
+	 */
+	private int slot(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h >>> 32) & (pairTable.length - 1);
+	}
+	
+	/**
+	 * 
+	 * Adds a pair to the set unless it is already there.
+	 * 
+	 * @param p - the first proxy
+	 * @param q - the second proxy
+	 */
+	private void addPair(int p, int q) {
+		//At most half full, so probe sequences stay short
+		if((pairCount + 1) * 2 > pairTable.length)
+			rehash(pairTable.length * 2);
+		
+		long key = key(p, q);
+		int mask = pairTable.length - 1;
+		int i = slot(key);
+		
+		while(pairTable[i] != EMPTY) {
+			if(pairTable[i] == key)
+				return;
+			i = (i + 1) & mask;
+		}
+		
+		pairTable[i] = key;
+		pairCount++;
+	}
+	
+	/**
+	 * 
+	 * Removes a pair from the set if it is there. Later entries of the probe sequence are shifted back into the gap,
+	 * so lookups never need to skip deleted slots.
+	 * 
+	 * @param key - the key of the pair
+	 */
+	private void removePair(long key) {
+		int mask = pairTable.length - 1;
+		int i = slot(key);
+		
+		while(pairTable[i] != key) {
+			if(pairTable[i] == EMPTY)
+				return;
+			i = (i + 1) & mask;
+		}
+		
+		int gap = i;
+		for(int j = (gap + 1) & mask; pairTable[j] != EMPTY; j = (j + 1) & mask) {
+			int home = slot(pairTable[j]);
+			
+			//Move the entry back if its home slot is not between the gap and its current slot
+			if(((j - home) & mask) >= ((j - gap) & mask)) {
+				pairTable[gap] = pairTable[j];
+				gap = j;
+			}
+		}
+		
+		pairTable[gap] = EMPTY;
+		pairCount--;
+	}
+	
+	/**
+	 * 
+	 * Moves all pairs into a table of the specified capacity.
+	 * 
+	 * @param capacity - the new capacity, a power of two
+	 */
+	private void rehash(int capacity) {
+		long[] old = pairTable;
+		pairTable = new long[capacity];
+		Arrays.fill(pairTable, EMPTY);
+		pairCount = 0;
+		
+		int mask = capacity - 1;
+		for(long key : old) {
+			if(key == EMPTY)
+				continue;
+			
+			int i = slot(key);
+			while(pairTable[i] != EMPTY)
+				i = (i + 1) & mask;
+			pairTable[i] = key;
+			pairCount++;
+		}
+	}
+}
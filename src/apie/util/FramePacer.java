@@ -0,0 +1,356 @@
+package apie.util;
+
+import org.lwjgl.glfw.GLFW;
+
+/**
+ * 
+ * Paces the main loop. Called once per frame by the Game class' main loop, right after the buffers are swapped.
+ * <p>
+ * In {@link Mode#LIMITED} mode each frame is held until its deadline, one target period after the previous one.
+ * The wait sleeps while the deadline is far away and spins for the last stretch, since a sleep may overshoot
+ * by a millisecond or more. How long to spin is learnt from how much recent sleeps overshot.
+ * <p>
+ * The mode may be changed at any time; the swap interval is applied on the next frame from the main thread.
+ * 
+ * @author SK
+ * 
+ */
+public final class FramePacer {
+	
+	/**
+	 * 
+	 * The available pacing modes.
+	 * 
+	 */
+	public enum Mode {
+		
+		/**
+		 * 
+		 * No vsync and no waiting. Renders as many frames as possible.
+		 * 
+		 */
+		UNCAPPED(0),
+		
+		/**
+		 * 
+		 * Waits for the vertical blank on every swap.
+		 * 
+		 */
+		VSYNC(1),
+		
+		/**
+		 * 
+		 * Waits for the vertical blank unless the frame is late, in which case it swaps immediately and may tear.
+		 * Falls back to regular vsync on drivers without swap control tear support.
+		 * 
+		 */
+		ADAPTIVE_VSYNC(-1),
+		
+		/**
+		 * 
+		 * No vsync. Each frame is held until the target frame time has passed.
+		 * 
+		 */
+		LIMITED(0);
+		
+		private final int swapInterval;
+		
+		private Mode(int swapInterval) {
+			this.swapInterval = swapInterval;
+		}
+		
+		/**
+		 * 
+		 * Returns the swap interval this mode sets.
+		 * 
+		 * @return the swap interval of this mode
+		 */
+		public int getSwapInterval() {
+			return swapInterval;
+		}
+	}
+	
+	public static final float DEFAULT_TARGET_FPS = 60;
+	
+	//A frame later than this fraction of the period past its deadline counts as missed
+	private static final double MISS_TOLERANCE = 0.1;
+	
+	//Upper bound on the sleep overshoot estimate, in nanoseconds
+	private static final long MAX_SPIN = 4_000_000;
+	
+	private static Mode mode = Mode.LIMITED;
+	private static boolean modeChanged = true;
+	
+	private static long period = (long)(1e9 / DEFAULT_TARGET_FPS);
+	
+	private static long deadline;
+	private static long prevFrame;
+	
+	//Running estimate of how far Thread.sleep(1) overshoots, in nanoseconds
+	private static double sleepMean = 1_000_000;
+	private static double sleepVariance;
+	private static long sleepSamples;
+	
+	//Statistics
+	private static long frameTime;
+	private static long waitTime;
+	private static double averageFrameTime;
+	private static double jitter;
+	private static long maxJitter;
+	private static long missedDeadlines;
+	private static long frames;
+	
+	/**
+	 * 
+	 * Applies any pending swap interval change and waits until the next frame should begin.
+	 * Must be called from the thread owning the OpenGL context.
+	 * 
+	 */
+	public static final void sync() {
+		waitTime = 0;
+		
+		if(modeChanged) {
+			GLFW.glfwSwapInterval(mode.getSwapInterval());
+			modeChanged = false;
+			deadline = 0;
+		}
+		
+		if(mode == Mode.LIMITED) {
+			long now = System.nanoTime();
+			
+			if(deadline == 0) {
+				deadline = now + period;
+			} else {
+				waitUntil(deadline);
+				
+				waitTime = System.nanoTime() - now;
+				now += waitTime;
+				if(now - deadline > period * MISS_TOLERANCE)
+					missedDeadlines++;
+				
+				//Keep the cadence unless a whole period was lost, then start over from now
+				deadline += period;
+				if(now - deadline > period)
+					deadline = now + period;
+			}
+		}
+		
+		recordFrame(System.nanoTime());
+	}
+	
+	/**
+	 * 
+	 * Sleeps while the deadline is further away than a sleep may overshoot, then spins until it is reached.
+	 * 
+	 * @param deadline - the System.nanoTime value to wait for
+	 */
+	private static void waitUntil(long deadline) {
+		long now = System.nanoTime();
+		
+		while(deadline - now > sleepMean + Math.sqrt(sleepVariance)) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			
+			long t = System.nanoTime();
+			recordSleep(t - now);
+			now = t;
+		}
+		
+		while(System.nanoTime() - deadline < 0);
+	}
+	
+	/**
+	 * 
+	 * Adds a measured sleep duration to the overshoot estimate.
+	 * 
+	 * @param duration - the measured duration of Thread.sleep(1) in nanoseconds
+	 */
+	private static void recordSleep(long duration) {
+		duration = Math.min(duration, MAX_SPIN);
+		
+		//Welford's running mean and variance, restarted periodically to follow changes in scheduler behaviour
+		if(sleepSamples >= 1000)
+			sleepSamples = 0;
+		
+		sleepSamples++;
+		double delta = duration - sleepMean;
+		sleepMean += delta / sleepSamples;
+		sleepVariance += (delta * (duration - sleepMean) - sleepVariance) / sleepSamples;
+	}
+	
+	/**
+	 * 
+	 * Updates the pacing statistics with a frame ending at the specified time.
+	 * 
+	 * @param now - the System.nanoTime value at the end of the frame
+	 */
+	private static void recordFrame(long now) {
+		if(prevFrame != 0) {
+			frameTime = now - prevFrame;
+			
+			averageFrameTime = frames == 0 ? frameTime : averageFrameTime + (frameTime - averageFrameTime) * 0.05;
+			
+			//Deviation from the target period when limited, from the average frame time otherwise
+			long reference = mode == Mode.LIMITED ? period : (long)averageFrameTime;
+			long deviation = Math.abs(frameTime - reference);
+			
+			jitter += (deviation - jitter) * 0.05;
+			maxJitter = Math.max(maxJitter, deviation);
+			
+			frames++;
+		}
+		
+		prevFrame = now;
+	}
+	
+	/**
+	 * 
+	 * Sets the pacing mode. Takes effect on the next frame.
+	 * 
+	 * @param mode - the mode to use
+	 */
+	public static final void setMode(Mode mode) {
+		if(mode == null)
+			throw new IllegalArgumentException("Pacing mode cannot be null");
+		
+		if(FramePacer.mode != mode) {
+			FramePacer.mode = mode;
+			modeChanged = true;
+		}
+	}
+	
+	/**
+	 * 
+	 * Returns the current pacing mode.
+	 * 
+	 * @return the current pacing mode
+	 */
+	public static final Mode getMode() {
+		return mode;
+	}
+	
+	/**
+	 * 
+	 * Sets the frame rate targeted in {@link Mode#LIMITED} mode.
+	 * 
+	 * @param fps - the target frame rate
+	 */
+	public static final void setTargetFPS(float fps) {
+		if(fps <= 0)
+			throw new IllegalArgumentException("Target frame rate must be positive");
+		
+		period = (long)(1e9 / fps);
+		deadline = 0;
+	}
+	
+	/**
+	 * 
+	 * Returns the frame rate targeted in {@link Mode#LIMITED} mode.
+	 * 
+	 * @return the target frame rate
+	 */
+	public static final float getTargetFPS() {
+		return (float)(1e9 / period);
+	}
+	
+	/**
+	 * 
+	 * Returns the duration of the previous frame in seconds, including the wait.
+	 * 
+	 * @return the duration of the previous frame in seconds
+	 */
+	public static final float getFrameTime() {
+		return frameTime / 1e9f;
+	}
+	
+	/**
+	 * 
+	 * Returns how long the pacer waited at the end of the previous frame in seconds.
+	 * Subtracting this from the frame time gives the time actually spent working.
+	 * 
+	 * @return the time spent waiting during the previous frame in seconds
+	 */
+	public static final float getWaitTime() {
+		return waitTime / 1e9f;
+	}
+	
+	/**
+	 * 
+	 * Returns the smoothed frame duration in seconds.
+	 * 
+	 * @return the smoothed frame duration in seconds
+	 */
+	public static final float getAverageFrameTime() {
+		return (float)(averageFrameTime / 1e9);
+	}
+	
+	/**
+	 * 
+	 * Returns the smoothed deviation of frame durations in seconds, measured from the target
+	 * frame time in {@link Mode#LIMITED} mode and from the average frame time in the other modes.
+	 * 
+	 * @return the smoothed frame time jitter in seconds
+	 */
+	public static final float getJitter() {
+		return (float)(jitter / 1e9);
+	}
+	
+	/**
+	 * 
+	 * Returns the largest frame time deviation since the statistics were last reset, in seconds.
+	 * 
+	 * @return the largest frame time jitter in seconds
+	 */
+	public static final float getMaxJitter() {
+		return maxJitter / 1e9f;
+	}
+	
+	/**
+	 * 
+	 * Returns the number of frames in {@link Mode#LIMITED} mode that finished noticeably after their deadline.
+	 * 
+	 * @return the number of missed deadlines
+	 */
+	public static final long getMissedDeadlines() {
+		return missedDeadlines;
+	}
+	
+	/**
+	 * 
+	 * Returns the current estimate of how long the pacer spins instead of sleeping, in seconds.
+	 * A larger value costs more CPU time but gives more precise frame times.
+	 * 
+	 * @return the spin duration estimate in seconds
+	 */
+	public static final float getSpinTime() {
+		return (float)((sleepMean + Math.sqrt(sleepVariance)) / 1e9);
+	}
+	
+	/**
+	 * 
+	 * Returns the number of frames measured since the statistics were last reset.
+	 * 
+	 * @return the number of measured frames
+	 */
+	public static final long getFrames() {
+		return frames;
+	}
+	
+	/**
+	 * 
+	 * Resets the jitter and missed deadline statistics, and the deadline. The next frame is measured from the next call to {@link #sync()}.
+	 * 
+	 */
+	public static final void resetStatistics() {
+		prevFrame = 0;
+		frames = 0;
+		jitter = 0;
+		maxJitter = 0;
+		missedDeadlines = 0;
+		deadline = 0;
+	}
+}